@@ -19,5 +19,8 @@ package org.gradle.internal.operations;
 import org.gradle.internal.concurrent.StoppableExecutor;
 
 public interface BuildOperationQueueFactory {
-    <T extends BuildOperation> BuildOperationQueue<T> create(BuildOperationWorkerRegistry.Operation parentOperation, StoppableExecutor executor, BuildOperationWorker<T> worker);
+    /**
+     * Creates a queue whose operations are executed by at most the given number of workers. The thread waiting for the queue to complete may also execute operations.
+     */
+    <T extends BuildOperation> BuildOperationQueue<T> create(BuildOperationWorkerRegistry.Operation parentOperation, StoppableExecutor executor, int maxWorkerCount, BuildOperationWorker<T> worker);
 }
@@ -13,86 +13,117 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.gradle.internal.operations;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
-import com.google.common.util.concurrent.*;
 import org.gradle.internal.UncheckedException;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.Deque;
 import java.util.Queue;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.atomic.AtomicBoolean;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the queued operations using a bounded number of worker runnables, each of which takes a single lease and then keeps taking operations
+ * from the queue until the queue is empty. The thread waiting for completion also takes operations from the queue, using the lease of the owning operation,
+ * so that a queue always makes progress even when all threads of the executor are busy with other queues, for example with the queue that this queue is nested in.
+ */
 class DefaultBuildOperationQueue<T extends BuildOperation> implements BuildOperationQueue<T> {
     private final BuildOperationWorkerRegistry.Operation owner;
-    private final ListeningExecutorService executor;
+    private final Executor executor;
+    private final int maxWorkers;
     private final BuildOperationWorker<T> worker;
 
-    private final List<QueuedOperation> operations;
+    private final Lock lock = new ReentrantLock();
+    private final Condition workFinished = lock.newCondition();
+    private final Deque<T> queue = new ArrayDeque<T>();
+    private final Queue<Throwable> failures = Queues.newConcurrentLinkedQueue();
+    // The number of operations that have been added but not yet finished
+    private int pendingOperations;
+    // The number of worker runnables that have been submitted to the executor and not yet finished
+    private int submittedWorkers;
+    // The number of worker runnables that are running operations
+    private int runningWorkers;
+    private boolean waitingForCompletion;
+    private boolean canceled;
 
     private String logLocation;
 
-    private final AtomicBoolean waitingForCompletion = new AtomicBoolean();
-    private final AtomicBoolean canceled = new AtomicBoolean();
-
-    DefaultBuildOperationQueue(BuildOperationWorkerRegistry.Operation owner, ExecutorService executor, BuildOperationWorker<T> worker) {
+    DefaultBuildOperationQueue(BuildOperationWorkerRegistry.Operation owner, Executor executor, int maxWorkers, BuildOperationWorker<T> worker) {
         this.owner = owner;
-        this.executor = MoreExecutors.listeningDecorator(executor);
+        this.executor = executor;
+        this.maxWorkers = maxWorkers;
         this.worker = worker;
-        this.operations = Collections.synchronizedList(Lists.<QueuedOperation>newArrayList());
     }
 
     @Override
     public void add(final T operation) {
-        if (waitingForCompletion.get()) {
-            throw new IllegalStateException("BuildOperationQueue cannot be reused once it has started completion.");
+        boolean submitWorker;
+        lock.lock();
+        try {
+            if (waitingForCompletion) {
+                throw new IllegalStateException("BuildOperationQueue cannot be reused once it has started completion.");
+            }
+            queue.add(operation);
+            pendingOperations++;
+            submitWorker = submittedWorkers < maxWorkers && submittedWorkers < pendingOperations;
+            if (submitWorker) {
+                submittedWorkers++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (submitWorker) {
+            executor.execute(new WorkerRunnable());
         }
-        OperationHolder operationHolder = new OperationHolder(owner, operation);
-        ListenableFuture<?> future = executor.submit(operationHolder);
-        operations.add(new QueuedOperation(operationHolder, future));
     }
 
     @Override
     public void cancel() {
-        canceled.set(true);
-        for (QueuedOperation operation : operations) {
-            // Although we can cancel the future of a running operation, we have no way of knowing
-            // that the operation was canceled after it began executing (i.e. isCanceled always returns
-            // true) which is a problem because we need to know whether to wait on the result or not.
-            // So we have to maintain the running state ourselves and only cancel operations we know
-            // have not started executing.
-            if (!operation.operationHolder.isStarted()) {
-                operation.future.cancel(false);
-            }
+        lock.lock();
+        try {
+            canceled = true;
+            // Operations that have already started are allowed to complete
+            pendingOperations -= queue.size();
+            queue.clear();
+            workFinished.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
     public void waitForCompletion() throws MultipleBuildOperationFailures {
-        waitingForCompletion.set(true);
-
-        CountDownLatch finished = new CountDownLatch(operations.size());
-        Queue<Throwable> failures = Queues.newConcurrentLinkedQueue();
-
-        for (QueuedOperation operation : operations) {
-            if (operation.future.isCancelled()) {
-                // If it's canceled, we'll never get a callback, so we just remove it from
-                // operations we're waiting for.
-                finished.countDown();
-            } else {
-                Futures.addCallback(operation.future, new CompletionCallback(finished, failures));
+        lock.lock();
+        try {
+            waitingForCompletion = true;
+        } finally {
+            lock.unlock();
+        }
+
+        // Help with the remaining work, rather than blocking while the executor may be busy with other queues
+        if (hasQueuedOperations()) {
+            BuildOperationWorkerRegistry.Completion workerLease = owner.operationStart();
+            try {
+                runQueuedOperations(false);
+            } finally {
+                workerLease.operationFinish();
             }
         }
 
+        lock.lock();
         try {
-            finished.await();
+            // Also wait for the workers that hold a lease, so that no lease of the owner is still in use when this method returns
+            while (pendingOperations > 0 || runningWorkers > 0) {
+                workFinished.await();
+            }
         } catch (InterruptedException e) {
             throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
         }
 
         // all operations are complete, check for errors
@@ -106,79 +137,102 @@ class DefaultBuildOperationQueue<T extends BuildOperation> implements BuildOpera
         this.logLocation = logLocation;
     }
 
-    private static String getFailureMessage(Collection<? extends Throwable> failures) {
-        if (failures.size() == 1) {
-            return "A build operation failed.";
+    private boolean hasQueuedOperations() {
+        lock.lock();
+        try {
+            return !queue.isEmpty();
+        } finally {
+            lock.unlock();
         }
-        return "Multiple build operations failed.";
     }
 
-    private static class CompletionCallback implements FutureCallback {
-        private final CountDownLatch finished;
-        private final Collection<Throwable> failures;
-
-        private CompletionCallback(CountDownLatch finished, Collection<Throwable> failures) {
-            this.finished = finished;
-            this.failures = failures;
-        }
-
-        @Override
-        public void onSuccess(Object result) {
-            finished.countDown();
+    private T nextOperation(boolean isWorker) {
+        lock.lock();
+        try {
+            T operation = canceled ? null : queue.poll();
+            if (operation == null && isWorker) {
+                // Decide to stop under the lock, so that an operation added from now on submits a new worker
+                submittedWorkers--;
+            }
+            return operation;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        @Override
-        public void onFailure(Throwable t) {
-            failures.add(t);
-            finished.countDown();
+    private void operationFinished() {
+        lock.lock();
+        try {
+            pendingOperations--;
+            if (pendingOperations == 0) {
+                workFinished.signalAll();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    private class QueuedOperation {
-        final OperationHolder operationHolder;
-        final ListenableFuture future;
-
-        public QueuedOperation(OperationHolder operationHolder, ListenableFuture future) {
-            this.operationHolder = operationHolder;
-            this.future = future;
+    /**
+     * Runs operations from this queue until it is empty. The caller must hold a lease.
+     */
+    private void runQueuedOperations(boolean isWorker) {
+        T operation = nextOperation(isWorker);
+        while (operation != null) {
+            try {
+                worker.execute(operation);
+            } catch (Throwable t) {
+                // Record the failure while still holding the lease, so that failures are reported in order when running with a single lease
+                failures.add(t);
+            } finally {
+                operationFinished();
+            }
+            operation = nextOperation(isWorker);
         }
     }
 
-    private class OperationHolder implements Runnable {
-        private final BuildOperationWorkerRegistry.Operation owner;
-        private final T operation;
-        private final AtomicBoolean started = new AtomicBoolean();
-
-        OperationHolder(BuildOperationWorkerRegistry.Operation owner, T operation) {
-            this.owner = owner;
-            this.operation = operation;
+    private static String getFailureMessage(Collection<? extends Throwable> failures) {
+        if (failures.size() == 1) {
+            return "A build operation failed.";
         }
+        return "Multiple build operations failed.";
+    }
 
+    private class WorkerRunnable implements Runnable {
         @Override
         public void run() {
-            // Don't execute if the queue has been canceled
-            started.set(!canceled.get());
-            if (started.get()) {
-                runBuildOperation();
+            lock.lock();
+            try {
+                if (queue.isEmpty() || canceled) {
+                    // Nothing left to do, possibly because the waiting thread has already done the work
+                    submittedWorkers--;
+                    return;
+                }
+                runningWorkers++;
+            } finally {
+                lock.unlock();
             }
-        }
 
-        private void runBuildOperation() {
-            BuildOperationWorkerRegistry.Completion workerLease = owner.operationStart();
             try {
-                worker.execute(operation);
+                BuildOperationWorkerRegistry.Completion workerLease = owner.operationStart();
+                try {
+                    runQueuedOperations(true);
+                } finally {
+                    workerLease.operationFinish();
+                }
             } finally {
-                workerLease.operationFinish();
+                lock.lock();
+                try {
+                    runningWorkers--;
+                    workFinished.signalAll();
+                } finally {
+                    lock.unlock();
+                }
             }
         }
 
-        public boolean isStarted() {
-            return started.get();
-        }
-
         @Override
         public String toString() {
-            return "Worker ".concat(worker.getDisplayName()).concat(" for operation ").concat(operation.getDescription());
+            return "Worker ".concat(worker.getDisplayName());
         }
     }
 }
@@ -20,7 +20,7 @@ import org.gradle.internal.concurrent.StoppableExecutor;
 
 public class DefaultBuildOperationQueueFactory implements BuildOperationQueueFactory {
     @Override
-    public <T extends BuildOperation> BuildOperationQueue<T> create(BuildOperationWorkerRegistry.Operation parentOperation, StoppableExecutor executor, BuildOperationWorker<T> worker) {
-        return new DefaultBuildOperationQueue<T>(parentOperation, executor, worker);
+    public <T extends BuildOperation> BuildOperationQueue<T> create(BuildOperationWorkerRegistry.Operation parentOperation, StoppableExecutor executor, int maxWorkerCount, BuildOperationWorker<T> worker) {
+        return new DefaultBuildOperationQueue<T>(parentOperation, executor, maxWorkerCount, worker);
     }
 }
@@ -16,21 +16,44 @@
 
 package org.gradle.internal.operations;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.Stoppable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Hands out worker leases to build operations.
+ *
+ * <p>The operations started by each thread are tracked in a thread local stack, so finding the current operation does not require any locking.
+ * Operations that cannot be granted a lease immediately are queued in arrival order, and each waiting operation is woken up individually once
+ * a lease has been granted to it, rather than waking up all waiting threads whenever a lease is released.</p>
+ */
 public class DefaultBuildOperationWorkerRegistry implements BuildOperationWorkerRegistry, Stoppable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBuildOperationWorkerRegistry.class);
     private final int maxWorkerCount;
-    private final Object lock = new Object();
-    private int counter = 1;
-    private final ListMultimap<Thread, DefaultOperation> threads = ArrayListMultimap.create();
+    private final Lock lock = new ReentrantLock();
+    private final LinkedList<PendingLease> pending = new LinkedList<PendingLease>();
+    private final AtomicInteger counter = new AtomicInteger(1);
+    private final AtomicInteger runningOperations = new AtomicInteger();
+    private final AtomicLong leaseWaitCount = new AtomicLong();
+    private final AtomicLong leaseWaitNanos = new AtomicLong();
+    private final ThreadLocal<List<DefaultOperation>> threadOperations = new ThreadLocal<List<DefaultOperation>>() {
+        @Override
+        protected List<DefaultOperation> initialValue() {
+            return new ArrayList<DefaultOperation>();
+        }
+    };
     private final Root root = new Root();
 
     public DefaultBuildOperationWorkerRegistry(int maxWorkerCount) {
@@ -40,7 +63,7 @@ public class DefaultBuildOperationWorkerRegistry implements BuildOperationWorker
 
     @Override
     public Operation getCurrent() {
-        List<DefaultOperation> operations = threads.get(Thread.currentThread());
+        List<DefaultOperation> operations = threadOperations.get();
         if (operations.isEmpty()) {
             throw new IllegalStateException("No build operation associated with the current thread");
         }
@@ -49,57 +72,124 @@ public class DefaultBuildOperationWorkerRegistry implements BuildOperationWorker
 
     @Override
     public Completion operationStart() {
-        List<DefaultOperation> operations = threads.get(Thread.currentThread());
+        List<DefaultOperation> operations = threadOperations.get();
         LeaseHolder parent = operations.isEmpty() ? root : operations.get(operations.size() - 1);
         return doStartOperation(parent);
     }
 
     @Override
     public Completion maybeStartOperation() {
-        List<DefaultOperation> operations = threads.get(Thread.currentThread());
+        List<DefaultOperation> operations = threadOperations.get();
         if (operations.isEmpty()) {
             return operationStart();
         }
         return new NoOpCompletion();
     }
 
+    /**
+     * Returns the number of operations that had to wait for a lease.
+     */
+    public long getLeaseWaitCount() {
+        return leaseWaitCount.get();
+    }
+
+    /**
+     * Returns the total time that operations spent waiting for a lease, in milliseconds.
+     */
+    public long getLeaseWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(leaseWaitNanos.get());
+    }
+
     private BuildOperationWorkerRegistry.Completion doStartOperation(LeaseHolder parent) {
-        synchronized (lock) {
-            int workerId = counter++;
-            Thread ownerThread = Thread.currentThread();
+        int workerId = counter.getAndIncrement();
+        Thread ownerThread = Thread.currentThread();
 
-            DefaultOperation operation = new DefaultOperation(parent, workerId, ownerThread);
-            while (!parent.grantLease()) {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Build operation {} waiting for a lease. Currently {} worker(s) in use", operation.getDisplayName(), root.leasesInUse);
-                }
-                try {
-                    lock.wait();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
-                }
+        DefaultOperation operation = new DefaultOperation(parent, workerId, ownerThread);
+        lock.lock();
+        try {
+            // Only take a lease directly when nobody is queued for one, unless borrowing the parent's lease
+            boolean mayTakeLease = parent.canLend() || pending.isEmpty();
+            if (!mayTakeLease || !parent.grantLease()) {
+                waitForLease(operation);
             }
-
-            threads.put(ownerThread, operation);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Build operation {} started ({} worker(s) in use).", operation.getDisplayName(), root.leasesInUse);
             }
-            return operation;
+        } finally {
+            lock.unlock();
+        }
+
+        threadOperations.get().add(operation);
+        runningOperations.incrementAndGet();
+        return operation;
+    }
+
+    private void waitForLease(DefaultOperation operation) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Build operation {} waiting for a lease. Currently {} worker(s) in use", operation.getDisplayName(), root.leasesInUse);
+        }
+        PendingLease pendingLease = new PendingLease(operation.parent, lock.newCondition());
+        pending.add(pendingLease);
+        long start = System.nanoTime();
+        try {
+            while (!pendingLease.granted) {
+                pendingLease.condition.await();
+            }
+        } catch (InterruptedException e) {
+            if (pendingLease.granted) {
+                operation.parent.releaseLease();
+                grantPendingLeases();
+            } else {
+                pending.remove(pendingLease);
+            }
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            leaseWaitCount.incrementAndGet();
+            leaseWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private void grantPendingLeases() {
+        Iterator<PendingLease> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            PendingLease pendingLease = iterator.next();
+            if (pendingLease.parent.grantLease()) {
+                iterator.remove();
+                pendingLease.granted = true;
+                pendingLease.condition.signal();
+            }
         }
     }
 
     @Override
     public void stop() {
-        synchronized (lock) {
-            if (!threads.isEmpty()) {
-                throw new IllegalStateException("Some build operations have not been marked as completed.");
-            }
+        if (leaseWaitCount.get() > 0) {
+            LOGGER.info("Build operations waited {} time(s) for a worker lease, for a total of {}ms.", getLeaseWaitCount(), getLeaseWaitTime());
+        }
+        if (runningOperations.get() != 0) {
+            throw new IllegalStateException("Some build operations have not been marked as completed.");
+        }
+    }
+
+    private static class PendingLease {
+        final LeaseHolder parent;
+        final Condition condition;
+        boolean granted;
+
+        PendingLease(LeaseHolder parent, Condition condition) {
+            this.parent = parent;
+            this.condition = condition;
         }
     }
 
     private abstract class LeaseHolder {
         abstract String getDisplayName();
 
+        /**
+         * Returns true when a lease can be granted without taking one from the root.
+         */
+        abstract boolean canLend();
+
         abstract boolean grantLease();
 
         abstract void releaseLease();
@@ -112,6 +202,11 @@ public class DefaultBuildOperationWorkerRegistry implements BuildOperationWorker
             return "root";
         }
 
+        @Override
+        boolean canLend() {
+            return false;
+        }
+
         @Override
         boolean grantLease() {
             if (leasesInUse >= maxWorkerCount) {
@@ -144,6 +239,11 @@ public class DefaultBuildOperationWorkerRegistry implements BuildOperationWorker
             return parent.getDisplayName() + '.' + workerId;
         }
 
+        @Override
+        boolean canLend() {
+            return children == 0;
+        }
+
         @Override
         boolean grantLease() {
             if (children == 0 || root.grantLease()) {
@@ -172,10 +272,12 @@ public class DefaultBuildOperationWorkerRegistry implements BuildOperationWorker
                 // Not implemented - not yet required. Please implement if required
                 throw new UnsupportedOperationException("Must complete operation from owner thread.");
             }
-            synchronized (lock) {
+            threadOperations.get().remove(this);
+            runningOperations.decrementAndGet();
+            lock.lock();
+            try {
                 parent.releaseLease();
-                threads.remove(ownerThread, this);
-                lock.notifyAll();
+                grantPendingLeases();
 
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("Build operation {} completed ({} worker(s) in use)", getDisplayName(), root.leasesInUse);
@@ -184,6 +286,8 @@ public class DefaultBuildOperationWorkerRegistry implements BuildOperationWorker
                 if (children != 0) {
                     throw new IllegalStateException("Some child operations have not yet completed.");
                 }
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -73,6 +73,34 @@ class DefaultBuildOperationProcessorTest extends ConcurrentSpec {
         20         | 4
     }
 
+    @Unroll
+    def "nested queues run to completion when using #maxThreads threads"() {
+        given:
+        setupBuildOperationProcessor(maxThreads)
+        def operation = Mock(DefaultBuildOperationQueueTest.TestBuildOperation)
+        def worker = new DefaultBuildOperationQueueTest.SimpleWorker()
+
+        when:
+        buildOperationProcessor.run(worker, { outerQueue ->
+            maxThreads.times {
+                outerQueue.add(new DefaultBuildOperationQueueTest.TestBuildOperation() {
+                    @Override
+                    void run() {
+                        buildOperationProcessor.run(worker, { innerQueue ->
+                            5.times { innerQueue.add(operation) }
+                        })
+                    }
+                })
+            }
+        })
+
+        then:
+        (maxThreads * 5) * operation.run()
+
+        where:
+        maxThreads << [1, 2, 4]
+    }
+
     @Unroll
     def "all work run to completion for multiple queues when using multiple threads #maxThreads"() {
         given:
@@ -204,7 +232,7 @@ class DefaultBuildOperationProcessorTest extends ConcurrentSpec {
         then:
         1 * workerRegistry.maybeStartOperation() >> parent
         1 * workerRegistry.getCurrent() >> current
-        1 * buildOperationQueueFactory.create(current, _, _) >> buildQueue
+        1 * buildOperationQueueFactory.create(current, _, _, _) >> buildQueue
 
         and:
         1 * buildQueue.add(operation)
@@ -222,7 +250,7 @@ class DefaultBuildOperationProcessorTest extends ConcurrentSpec {
         }
         def buildQueue = Mock(BuildOperationQueue)
         def buildOperationQueueFactory = Mock(BuildOperationQueueFactory) {
-            create(_, _, _) >> { buildQueue }
+            create(_, _, _, _) >> { buildQueue }
         }
         def buildOperationProcessor = new DefaultBuildOperationProcessor(workerRegistry, new TestBuildOperationExecutor(), buildOperationQueueFactory, Stub(ExecutorFactory), 1)
         def worker = Stub(BuildOperationWorker)
@@ -252,7 +280,7 @@ class DefaultBuildOperationProcessorTest extends ConcurrentSpec {
             waitForCompletion() >> { throw new MultipleBuildOperationFailures("operations failed", operationFailures, null) }
         }
         def buildOperationQueueFactory = Mock(BuildOperationQueueFactory) {
-            create(_, _, _) >> { buildQueue }
+            create(_, _, _, _) >> { buildQueue }
         }
         def buildOperationProcessor = new DefaultBuildOperationProcessor(workerRegistry, new TestBuildOperationExecutor(), buildOperationQueueFactory, Stub(ExecutorFactory), 1)
         def worker = Stub(BuildOperationWorker)
@@ -23,6 +23,7 @@ import spock.lang.Specification
 import spock.lang.Unroll
 
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
 import java.util.concurrent.Executors
 
 class DefaultBuildOperationQueueTest extends Specification {
@@ -63,7 +64,7 @@ class DefaultBuildOperationQueueTest extends Specification {
         workerRegistry = new DefaultBuildOperationWorkerRegistry(threads);
         ListeningExecutorService sameThreadExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads))
         completion = workerRegistry.operationStart()
-        operationQueue = new DefaultBuildOperationQueue(workerRegistry.current, sameThreadExecutor, new SimpleWorker())
+        operationQueue = new DefaultBuildOperationQueue(workerRegistry.current, sameThreadExecutor, threads, new SimpleWorker())
     }
 
     def "cleanup"() {
@@ -99,6 +100,23 @@ class DefaultBuildOperationQueueTest extends Specification {
         5    | 10
     }
 
+    def "waiting thread runs operations when no executor thread is available"() {
+        given:
+        workerRegistry = new DefaultBuildOperationWorkerRegistry(1)
+        completion = workerRegistry.operationStart()
+        def executor = Mock(Executor)
+        operationQueue = new DefaultBuildOperationQueue(workerRegistry.current, executor, 1, new SimpleWorker())
+        def success = Mock(TestBuildOperation)
+
+        when:
+        3.times { operationQueue.add(success) }
+        operationQueue.waitForCompletion()
+
+        then:
+        1 * executor.execute(_)
+        3 * success.run()
+    }
+
     def "cannot use operation queue once it has completed"() {
         given:
         setupQueue(1)
@@ -69,6 +69,49 @@ class DefaultBuildOperationWorkerRegistryTest extends ConcurrentSpec {
         registry?.stop()
     }
 
+    def "records operations that wait for a lease"() {
+        def registry = new DefaultBuildOperationWorkerRegistry(1)
+
+        when:
+        async {
+            start {
+                def cl = registry.operationStart()
+                instant.worker1
+                thread.block()
+                cl.operationFinish()
+            }
+            start {
+                thread.blockUntil.worker1
+                def cl = registry.operationStart()
+                cl.operationFinish()
+            }
+        }
+
+        then:
+        registry.leaseWaitCount == 1
+        registry.leaseWaitTime >= 0
+
+        cleanup:
+        registry?.stop()
+    }
+
+    def "does not record operations that did not wait for a lease"() {
+        def registry = new DefaultBuildOperationWorkerRegistry(1)
+
+        when:
+        def outer = registry.operationStart()
+        def inner = registry.current.operationStart()
+        inner.operationFinish()
+        outer.operationFinish()
+
+        then:
+        registry.leaseWaitCount == 0
+        registry.leaseWaitTime == 0
+
+        cleanup:
+        registry?.stop()
+    }
+
     def "child operation starts immediately when there are sufficient leases available"() {
         def registry = new DefaultBuildOperationWorkerRegistry(1)
 
@@ -16,9 +16,9 @@
 
 package org.gradle.composite.internal;
 
-import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.gradle.api.artifacts.component.BuildIdentifier;
 import org.gradle.api.artifacts.component.ProjectComponentSelector;
 import org.gradle.initialization.IncludedBuildExecuter;
@@ -29,22 +29,33 @@ import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Executes the tasks requested from an included build. An included build can only run one nested build at a time, so requests made while
+ * it is running are coalesced: their tasks are collected into a single pending run, which starts as soon as the current run completes and is
+ * executed by one of the waiting requests. Each requested task is executed at most once, unless it fails.
+ *
+ * <p>A request receives the failure of a run only when the run contained nothing but tasks of that request. When a run that also contained the
+ * tasks of other requests fails, the requested tasks of that run are executed again in a run of their own, so that a request never fails
+ * because of a task that it did not ask for. The tasks of a failed run can be requested again.</p>
+ */
 class DefaultIncludedBuildExecuter implements IncludedBuildExecuter {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultIncludedBuildExecuter.class);
     private final IncludedBuilds includedBuilds;
 
     // Fields guarded by lock
     private final Lock lock = new ReentrantLock();
-    private final Condition buildCompleted = lock.newCondition();
+    private final Condition runCompleted = lock.newCondition();
     private final List<BuildRequest> executingBuilds = Lists.newLinkedList();
-
-    // Not guarded by lock: possible thread-safety issue
-    private final Multimap<BuildIdentifier, String> executedTasks = LinkedHashMultimap.create();
+    private final Map<BuildIdentifier, IncludedBuildRuns> buildRuns = Maps.newHashMap();
 
     public DefaultIncludedBuildExecuter(IncludedBuilds includedBuilds) {
         this.includedBuilds = includedBuilds;
@@ -53,21 +64,21 @@ class DefaultIncludedBuildExecuter implements IncludedBuildExecuter {
     @Override
     public void execute(BuildIdentifier sourceBuild, final BuildIdentifier targetBuild, final Iterable<String> taskNames) {
         BuildRequest buildRequest = new BuildRequest(sourceBuild, targetBuild, taskNames);
-        buildStarted(buildRequest);
+        Set<TaskRun> runs = buildStarted(buildRequest);
         try {
-            doBuild(targetBuild, taskNames);
+            executeTasks(targetBuild, buildRequest.tasks, runs);
         } finally {
             buildCompleted(buildRequest);
         }
     }
 
-    private void buildStarted(BuildRequest buildRequest) {
+    private Set<TaskRun> buildStarted(BuildRequest buildRequest) {
         lock.lock();
         try {
             List<BuildIdentifier> candidateCycle = Lists.newArrayList();
             checkNoCycles(buildRequest, buildRequest.targetBuild, candidateCycle);
-            waitForExistingBuildToComplete(buildRequest.targetBuild);
             executingBuilds.add(buildRequest);
+            return scheduleTasks(buildRequest.targetBuild, buildRequest.tasks);
         } finally {
             lock.unlock();
         }
@@ -91,23 +102,122 @@ class DefaultIncludedBuildExecuter implements IncludedBuildExecuter {
         candidateCycle.remove(target);
     }
 
-    private void waitForExistingBuildToComplete(BuildIdentifier buildId) {
+    /**
+     * Returns the runs that execute the given tasks, adding the tasks that have not been requested before to the pending run of the build.
+     */
+    private Set<TaskRun> scheduleTasks(BuildIdentifier buildId, Iterable<String> taskPaths) {
+        IncludedBuildRuns runs = getRuns(buildId);
+        Set<TaskRun> runsForTasks = Sets.newLinkedHashSet();
+        for (String taskPath : taskPaths) {
+            TaskRun run = runs.scheduledTasks.get(taskPath);
+            if (run == null) {
+                run = runs.pending.isEmpty() ? null : runs.pending.getLast();
+                if (run == null || !run.shared) {
+                    run = new TaskRun(true);
+                    runs.pending.add(run);
+                }
+                run.tasks.add(taskPath);
+                runs.scheduledTasks.put(taskPath, run);
+            }
+            runsForTasks.add(run);
+        }
+        return runsForTasks;
+    }
+
+    /**
+     * Returns a new run that executes the given tasks and no others.
+     */
+    private Set<TaskRun> scheduleSeparateRun(BuildIdentifier buildId, Set<String> taskPaths) {
+        lock.lock();
+        try {
+            IncludedBuildRuns runs = getRuns(buildId);
+            TaskRun run = new TaskRun(false);
+            run.tasks.addAll(taskPaths);
+            for (String taskPath : taskPaths) {
+                if (!runs.scheduledTasks.containsKey(taskPath)) {
+                    runs.scheduledTasks.put(taskPath, run);
+                }
+            }
+            runs.pending.add(run);
+            return Collections.singleton(run);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private IncludedBuildRuns getRuns(BuildIdentifier buildId) {
+        IncludedBuildRuns runs = buildRuns.get(buildId);
+        if (runs == null) {
+            runs = new IncludedBuildRuns();
+            buildRuns.put(buildId, runs);
+        }
+        return runs;
+    }
+
+    private void executeTasks(BuildIdentifier buildId, Set<String> taskPaths, Set<TaskRun> runs) {
+        while (true) {
+            awaitRuns(buildId, runs);
+            Set<String> tasksToRetry = Sets.newLinkedHashSet();
+            for (TaskRun run : runs) {
+                if (run.failure == null) {
+                    continue;
+                }
+                if (taskPaths.containsAll(run.tasks)) {
+                    throw UncheckedException.throwAsUncheckedException(run.failure);
+                }
+                // The run may have failed because of a task that was requested by another build
+                tasksToRetry.addAll(Sets.intersection(run.tasks, taskPaths));
+            }
+            if (tasksToRetry.isEmpty()) {
+                return;
+            }
+            runs = scheduleSeparateRun(buildId, tasksToRetry);
+        }
+    }
+
+    /**
+     * Executes the given runs as they reach the front of the queue of the build, or waits for other requests to execute them.
+     */
+    private void awaitRuns(BuildIdentifier buildId, Set<TaskRun> runs) {
+        TaskRun run = startOrAwait(buildId, runs);
+        while (run != null) {
+            doBuild(buildId, run);
+            run = startOrAwait(buildId, runs);
+        }
+    }
+
+    /**
+     * Waits until all of the given runs have completed, or until one of them can be started by the calling thread. Returns the run the caller
+     * should execute, or null when all of the runs have completed.
+     */
+    private TaskRun startOrAwait(BuildIdentifier buildId, Set<TaskRun> runs) {
+        lock.lock();
         try {
-            while (buildInProgress(buildId)) {
-                buildCompleted.await();
+            IncludedBuildRuns queue = buildRuns.get(buildId);
+            while (!allCompleted(runs)) {
+                TaskRun next = queue.pending.peek();
+                if (!queue.running && runs.contains(next)) {
+                    queue.pending.remove();
+                    queue.running = true;
+                    return next;
+                }
+                runCompleted.await();
             }
+            return null;
         } catch (InterruptedException e) {
             throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
         }
     }
 
-    private boolean buildInProgress(BuildIdentifier buildId) {
-        for (BuildRequest executingBuild : executingBuilds) {
-            if (executingBuild.targetBuild.equals(buildId)) {
-                return true;
+    private static boolean allCompleted(Set<TaskRun> runs) {
+        for (TaskRun run : runs) {
+            if (!run.completed) {
+                return false;
             }
         }
-        return false;
+        return true;
     }
 
     private String reportCycle(List<BuildIdentifier> cycle) {
@@ -124,38 +234,78 @@ class DefaultIncludedBuildExecuter implements IncludedBuildExecuter {
         lock.lock();
         try {
             executingBuilds.remove(buildRequest);
-            buildCompleted.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void doBuild(BuildIdentifier buildId, Iterable<String> taskPaths) {
-        List<String> tasksToExecute = Lists.newArrayList();
-        for (String taskPath : taskPaths) {
-            if (executedTasks.put(buildId, taskPath)) {
-                tasksToExecute.add(taskPath);
-            }
-        }
-        if (tasksToExecute.isEmpty()) {
-            return;
+    private void doBuild(BuildIdentifier buildId, TaskRun run) {
+        Throwable failure = null;
+        try {
+            LOGGER.info("Executing " + buildId.getName() + " tasks " + run.tasks);
+            IncludedBuildInternal build = (IncludedBuildInternal) includedBuilds.getBuild(buildId.getName());
+            build.execute(run.tasks);
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            runCompleted(buildId, run, failure);
         }
-        LOGGER.info("Executing " + buildId.getName() + " tasks " + taskPaths);
+    }
 
-        IncludedBuildInternal build = (IncludedBuildInternal) includedBuilds.getBuild(buildId.getName());
-        build.execute(tasksToExecute);
+    private void runCompleted(BuildIdentifier buildId, TaskRun run, Throwable failure) {
+        lock.lock();
+        try {
+            run.failure = failure;
+            run.completed = true;
+            IncludedBuildRuns runs = buildRuns.get(buildId);
+            runs.running = false;
+            if (failure != null) {
+                // Allow the failed tasks to be requested again
+                for (String taskPath : run.tasks) {
+                    if (runs.scheduledTasks.get(taskPath) == run) {
+                        runs.scheduledTasks.remove(taskPath);
+                    }
+                }
+            }
+            runCompleted.signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 
     private class BuildRequest {
         final BuildIdentifier requestingBuild;
         final BuildIdentifier targetBuild;
-        final Iterable<String> tasks;
+        final Set<String> tasks;
 
         public BuildRequest(BuildIdentifier requestingBuild, BuildIdentifier targetBuild, Iterable<String> tasks) {
             this.requestingBuild = requestingBuild;
             this.targetBuild = targetBuild;
-            this.tasks = tasks;
+            this.tasks = Sets.newLinkedHashSet(tasks);
         }
     }
 
+    /**
+     * The runs of a single included build. Guarded by the executer lock.
+     */
+    private static class IncludedBuildRuns {
+        final Map<String, TaskRun> scheduledTasks = Maps.newHashMap();
+        final LinkedList<TaskRun> pending = Lists.newLinkedList();
+        boolean running;
+    }
+
+    /**
+     * A single nested build of an included build. Guarded by the executer lock, except for the tasks of a run, which do not change once the run has started.
+     */
+    private static class TaskRun {
+        final Set<String> tasks = Sets.newLinkedHashSet();
+        // Whether the tasks of other requests can be added to this run
+        final boolean shared;
+        boolean completed;
+        Throwable failure;
+
+        TaskRun(boolean shared) {
+            this.shared = shared;
+        }
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.composite.internal
+
+import org.gradle.api.artifacts.component.BuildIdentifier
+import org.gradle.api.internal.artifacts.component.DefaultBuildIdentifier
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
+
+class DefaultIncludedBuildExecuterTest extends ConcurrentSpec {
+    def rootBuild = new DefaultBuildIdentifier(":", true)
+    def includedBuild = new DefaultBuildIdentifier("included")
+    def includedBuilds = new DefaultIncludedBuilds()
+    def executions = Collections.synchronizedList([])
+    Closure action = {}
+    def executer = new DefaultIncludedBuildExecuter(includedBuilds)
+
+    def setup() {
+        includedBuilds.registerBuild([
+            getName: { "included" },
+            execute: { Iterable<String> tasks ->
+                def taskList = tasks as List
+                executions << taskList
+                action.call(taskList)
+                null
+            }
+        ] as IncludedBuildInternal)
+    }
+
+    def "executes requested tasks"() {
+        when:
+        executer.execute(rootBuild, includedBuild, [":a", ":b"])
+
+        then:
+        executions == [[":a", ":b"]]
+    }
+
+    def "does not execute a task again once it has succeeded"() {
+        when:
+        executer.execute(rootBuild, includedBuild, [":a"])
+        executer.execute(rootBuild, includedBuild, [":a", ":b"])
+
+        then:
+        executions == [[":a"], [":b"]]
+    }
+
+    def "coalesces the tasks requested while the build is running into a single run"() {
+        action = { List<String> tasks ->
+            if (tasks == [":a"]) {
+                instant.firstRunStarted
+                thread.blockUntil.requestsWaiting
+            }
+        }
+
+        when:
+        async {
+            start {
+                executer.execute(rootBuild, includedBuild, [":a"])
+            }
+            thread.blockUntil.firstRunStarted
+            start {
+                executer.execute(rootBuild, includedBuild, [":b"])
+            }
+            start {
+                executer.execute(rootBuild, includedBuild, [":b", ":c"])
+            }
+            waitForRequests(2)
+            instant.requestsWaiting
+        }
+
+        then:
+        executions == [[":a"], [":b", ":c"]]
+    }
+
+    def "reports a failure only to the requests of the failed tasks"() {
+        def failure = new RuntimeException("broken")
+        def failures = [:]
+        action = { List<String> tasks ->
+            if (tasks == [":a"]) {
+                instant.firstRunStarted
+                thread.blockUntil.requestsWaiting
+            }
+            if (tasks.contains(":b")) {
+                throw failure
+            }
+        }
+
+        when:
+        async {
+            start {
+                executer.execute(rootBuild, includedBuild, [":a"])
+            }
+            thread.blockUntil.firstRunStarted
+            start {
+                try {
+                    executer.execute(rootBuild, includedBuild, [":b"])
+                } catch (RuntimeException e) {
+                    failures.b = e
+                }
+            }
+            start {
+                try {
+                    executer.execute(rootBuild, includedBuild, [":c"])
+                } catch (RuntimeException e) {
+                    failures.c = e
+                }
+            }
+            waitForRequests(2)
+            instant.requestsWaiting
+        }
+
+        then:
+        failures == [b: failure]
+        executions.size() == 4
+        executions[0..1] == [[":a"], [":b", ":c"]]
+        executions[2..3] as Set == [[":b"], [":c"]] as Set
+    }
+
+    def "reports the failure of a run to all requests of its tasks"() {
+        def failure = new RuntimeException("broken")
+        def failures = Collections.synchronizedList([])
+        action = { List<String> tasks ->
+            if (tasks == [":a"]) {
+                instant.firstRunStarted
+                thread.blockUntil.requestsWaiting
+            } else {
+                throw failure
+            }
+        }
+
+        when:
+        async {
+            start {
+                executer.execute(rootBuild, includedBuild, [":a"])
+            }
+            thread.blockUntil.firstRunStarted
+            2.times {
+                start {
+                    try {
+                        executer.execute(rootBuild, includedBuild, [":b"])
+                    } catch (RuntimeException e) {
+                        failures << e
+                    }
+                }
+            }
+            waitForRequests(2)
+            instant.requestsWaiting
+        }
+
+        then:
+        failures == [failure, failure]
+        executions == [[":a"], [":b"]]
+    }
+
+    def "can request a failed task again"() {
+        def failure = new RuntimeException("broken")
+        action = { throw failure }
+
+        when:
+        executer.execute(rootBuild, includedBuild, [":a"])
+
+        then:
+        def e = thrown(RuntimeException)
+        e == failure
+
+        when:
+        action = {}
+        executer.execute(rootBuild, includedBuild, [":a"])
+
+        then:
+        executions == [[":a"], [":a"]]
+    }
+
+    def "executes many overlapping requests"() {
+        def random = new Random(42)
+        def requests = (1..20).collect { (1..5).findAll { random.nextBoolean() }.collect { ":task$it".toString() } }
+        def failures = Collections.synchronizedList([])
+        action = { List<String> tasks ->
+            Thread.sleep(5)
+        }
+
+        when:
+        async {
+            requests.each { tasks ->
+                start {
+                    try {
+                        executer.execute(rootBuild, includedBuild, tasks)
+                    } catch (Throwable t) {
+                        failures << t
+                    }
+                }
+            }
+        }
+
+        then:
+        failures.empty
+        def executedTasks = executions.flatten()
+        executedTasks as Set == requests.flatten() as Set
+        executedTasks.size() == (executedTasks as Set).size()
+    }
+
+    private void waitForRequests(int count) {
+        poll {
+            executer.lock.lock()
+            try {
+                assert executer.lock.getWaitQueueLength(executer.runCompleted) == count
+            } finally {
+                executer.lock.unlock()
+            }
+        }
+    }
+}
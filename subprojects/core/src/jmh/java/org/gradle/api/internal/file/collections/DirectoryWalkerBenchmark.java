@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.collections.jdk7.Jdk7DirectoryWalker;
+import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.nativeintegration.services.FileSystems;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how long it takes each directory walker to visit a source tree, reading the type, size and timestamp of each file the way
+ * snapshotting does. Complements {@code FileMetadataAccessorBenchmark}, which measures a single stat.
+ */
+@State(Scope.Benchmark)
+public class DirectoryWalkerBenchmark {
+    private static final FileSystem FILE_SYSTEM = FileSystems.getDefault();
+    private static final Map<String, DirectoryWalker> WALKERS = ImmutableMap.<String, DirectoryWalker>builder()
+        .put(DefaultDirectoryWalker.class.getSimpleName(), new DefaultDirectoryWalker(FILE_SYSTEM))
+        .put(ReproducibleDirectoryWalker.class.getSimpleName(), new ReproducibleDirectoryWalker(FILE_SYSTEM))
+        .put(Jdk7DirectoryWalker.class.getSimpleName(), new Jdk7DirectoryWalker(FILE_SYSTEM))
+        .build();
+
+    @Param({
+        "DefaultDirectoryWalker",
+        "ReproducibleDirectoryWalker",
+        "Jdk7DirectoryWalker"
+    })
+    String walkerClassName;
+
+    @Param({"10000"})
+    int fileCount;
+
+    private DirectoryWalker walker;
+    private File root;
+
+    @Setup
+    public void prepare() throws IOException {
+        walker = WALKERS.get(walkerClassName);
+        root = File.createTempFile("jmh", "dir");
+        root.delete();
+        for (int i = 0; i < fileCount; i++) {
+            File file = new File(root, "package" + (i % 10) + "/sub" + (i % 100) + "/File" + i + ".java");
+            FileUtils.writeStringToFile(file, "class File" + i + " {}");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Benchmark
+    public void walk(final Blackhole bh) {
+        walker.walkDir(root, RelativePath.EMPTY_ROOT, new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+                bh.consume(dirDetails.getLastModified());
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                bh.consume(fileDetails.getLastModified());
+                bh.consume(fileDetails.getSize());
+            }
+        }, new PatternSet().getAsSpec(), new AtomicBoolean(), false);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.apache.tools.ant.DirectoryScanner;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long it takes to match the paths of a large source tree against typical source set patterns and the default excludes, the way a
+ * directory walk does: directories are matched partially against the includes, and everything is matched against the excludes.
+ */
+@State(Scope.Benchmark)
+public class PatternSetMatcherBenchmark {
+    private static final List<String> INCLUDES = Arrays.asList("com/acme/**/*.java", "com/acme/**/*.properties");
+    private static final List<String> EXCLUDES = Arrays.asList("**/generated/**", "**/*Test.java");
+
+    @Param({"500000"})
+    int fileCount;
+
+    @Param({"compiled", "union"})
+    String matcher;
+
+    private RelativePath[] paths;
+    private Spec<RelativePath> includes;
+    private Spec<RelativePath> excludes;
+
+    @Setup
+    public void prepare() {
+        Random random = new Random(42);
+        String[] roots = {"com", "org", "net", "build"};
+        String[] names = {"acme", "impl", "internal", "api", "generated", "util", "model"};
+        paths = new RelativePath[fileCount];
+        for (int i = 0; i < fileCount; i++) {
+            String[] segments = new String[3 + random.nextInt(6)];
+            segments[0] = roots[random.nextInt(roots.length)];
+            for (int j = 1; j < segments.length - 1; j++) {
+                segments[j] = names[random.nextInt(names.length)];
+            }
+            segments[segments.length - 1] = "Class" + i + (random.nextInt(10) == 0 ? "Test.java" : ".java");
+            paths[i] = new RelativePath(random.nextInt(8) != 0, segments);
+        }
+
+        List<String> allExcludes = new ArrayList<String>(EXCLUDES);
+        allExcludes.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        includes = matcher("compiled".equals(matcher), true, INCLUDES);
+        excludes = matcher("compiled".equals(matcher), false, allExcludes);
+    }
+
+    private static Spec<RelativePath> matcher(boolean compiled, boolean partialMatchDirs, List<String> patterns) {
+        if (compiled) {
+            return PatternMatcherFactory.getPatternsMatcher(partialMatchDirs, true, patterns);
+        }
+        List<Spec<RelativePath>> matchers = new ArrayList<Spec<RelativePath>>();
+        for (String pattern : patterns) {
+            matchers.add(PatternMatcherFactory.getPatternMatcher(partialMatchDirs, true, pattern));
+        }
+        return Specs.union(matchers);
+    }
+
+    @Benchmark
+    public int match() {
+        int matched = 0;
+        for (RelativePath path : paths) {
+            if (includes.isSatisfiedBy(path) && !excludes.isSatisfiedBy(path)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.UUID;
+
+import static org.gradle.cache.internal.FileLockManager.LockMode.None;
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Measures reading from a cache that is shared by several processes, which take turns using it. Each process has its own lock manager,
+ * contention handler and in-memory cache, as separate Gradle processes do, so that each turn hands the file lock over to the next process.
+ */
+@State(Scope.Benchmark)
+public class CrossProcessCacheContentionBenchmark {
+    private static final int ENTRY_COUNT = 1000;
+
+    @Param({"2", "8"})
+    int processCount;
+
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private File cacheDir;
+    private SimulatedProcess[] processes;
+    private int turn;
+
+    @Setup
+    public void prepare() {
+        cacheDir = new File(System.getProperty("java.io.tmpdir"), "jmh-" + UUID.randomUUID());
+        SimulatedProcess writer = new SimulatedProcess();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            writer.cache.put("key" + i, "value" + i);
+        }
+        writer.close();
+
+        processes = new SimulatedProcess[processCount];
+        for (int i = 0; i < processCount; i++) {
+            processes[i] = new SimulatedProcess();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (SimulatedProcess process : processes) {
+            process.close();
+        }
+        executorFactory.stop();
+    }
+
+    @Benchmark
+    public void read_entries_in_turn(Blackhole bh) {
+        SimulatedProcess process = processes[++turn % processCount];
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            bh.consume(process.cache.get("key" + i));
+        }
+    }
+
+    private class SimulatedProcess {
+        private final DefaultFileLockContentionHandler contentionHandler = new DefaultFileLockContentionHandler(executorFactory, new InetAddressFactory());
+        private final DefaultCacheAccess cacheAccess;
+        private final PersistentIndexedCache<String, String> cache;
+
+        SimulatedProcess() {
+            FileLockManager lockManager = new DefaultFileLockManager(new ProcessMetaDataProvider() {
+                @Override
+                public String getProcessIdentifier() {
+                    return "pid";
+                }
+
+                @Override
+                public String getProcessDisplayName() {
+                    return "process";
+                }
+            }, contentionHandler);
+            cacheAccess = new DefaultCacheAccess("benchmark cache", new File(cacheDir, "cache.lock"), mode(None), cacheDir, lockManager, new CacheInitializationAction() {
+                @Override
+                public boolean requiresInitialization(FileLock fileLock) {
+                    return false;
+                }
+
+                @Override
+                public void initialize(FileLock fileLock) {
+                }
+            }, executorFactory);
+            cacheAccess.open();
+            InMemoryCacheDecoratorFactory decoratorFactory = new InMemoryCacheDecoratorFactory(true, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+            cache = cacheAccess.newCache(PersistentIndexedCacheParameters.of("entries", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+                .cacheDecorator(decoratorFactory.decorator(ENTRY_COUNT, true)));
+        }
+
+        void close() {
+            cacheAccess.close();
+            contentionHandler.stop();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.metaobject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+
+/**
+ * Measures the lookups made on a bean when a build script accesses a property or calls a method. Includes selecting one of several overloaded methods,
+ * and names that the bean does not have and that are then resolved by the next object in a composite dynamic object, such as an extension or convention.
+ */
+@State(Scope.Benchmark)
+public class BeanDynamicObjectBenchmark {
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final Object[] ONE_ARG = new Object[]{"value"};
+
+    private final BeanDynamicObject dynamicObject = new BeanDynamicObject(new Bean());
+
+    @Benchmark
+    public void getKnownProperty(Blackhole bh) {
+        bh.consume(dynamicObject.tryGetProperty("prop"));
+    }
+
+    @Benchmark
+    public void getUnknownProperty(Blackhole bh) {
+        bh.consume(dynamicObject.tryGetProperty("unknown"));
+    }
+
+    @Benchmark
+    public void setKnownProperty(Blackhole bh) {
+        bh.consume(dynamicObject.trySetProperty("prop", "value"));
+    }
+
+    @Benchmark
+    public void invokeKnownMethod(Blackhole bh) {
+        bh.consume(dynamicObject.tryInvokeMethod("method", ONE_ARG));
+    }
+
+    @Benchmark
+    public void invokeOverloadedMethod(Blackhole bh) {
+        bh.consume(dynamicObject.tryInvokeMethod("overloaded", ONE_ARG));
+    }
+
+    @Benchmark
+    public void invokeUnknownMethod(Blackhole bh) {
+        bh.consume(dynamicObject.tryInvokeMethod("unknown", NO_ARGS));
+    }
+
+    @Benchmark
+    public void hasUnknownMethod(Blackhole bh) {
+        bh.consume(dynamicObject.hasMethod("unknown", ONE_ARG));
+    }
+
+    public static class Bean {
+        private String prop;
+
+        public String getProp() {
+            return prop;
+        }
+
+        public void setProp(String prop) {
+            this.prop = prop;
+        }
+
+        public String method(String value) {
+            return value;
+        }
+
+        public Object overloaded(Object value) {
+            return value;
+        }
+
+        public Object overloaded(Object... values) {
+            return values;
+        }
+
+        public String overloaded(String value) {
+            return value;
+        }
+
+        public Object overloaded(Map<String, ?> values) {
+            return values;
+        }
+
+        public Object overloaded(String value, Object other) {
+            return value;
+        }
+    }
+}
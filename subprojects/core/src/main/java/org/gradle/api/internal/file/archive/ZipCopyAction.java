@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
 import org.apache.tools.zip.UnixStat;
 import org.apache.tools.zip.Zip64RequiredException;
 import org.apache.tools.zip.ZipEntry;
@@ -36,8 +38,12 @@ import org.gradle.internal.IoActions;
 import org.gradle.util.GUtil;
 
 import java.io.File;
+import java.util.Set;
 
 public class ZipCopyAction implements CopyAction {
+    // Files with these extensions are already compressed. Deflating them again takes a lot of time and hardly makes them any smaller, so they are stored instead.
+    private static final Set<String> COMPRESSED_FILE_EXTENSIONS = ImmutableSet.of("jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz");
+
     private final File zipFile;
     private final ZipCompressor compressor;
     private final DocumentationRegistry documentationRegistry;
@@ -101,6 +107,9 @@ public class ZipCopyAction implements CopyAction {
                 ZipEntry archiveEntry = new ZipEntry(fileDetails.getRelativePath().getPathString());
                 archiveEntry.setTime(getArchiveTimeFor(fileDetails));
                 archiveEntry.setUnixMode(UnixStat.FILE_FLAG | fileDetails.getMode());
+                if (isCompressed(fileDetails)) {
+                    archiveEntry.setMethod(ZipEntry.STORED);
+                }
                 zipOutStr.putNextEntry(archiveEntry);
                 fileDetails.copyTo(zipOutStr);
                 zipOutStr.closeEntry();
@@ -123,6 +132,10 @@ public class ZipCopyAction implements CopyAction {
         }
     }
 
+    private static boolean isCompressed(FileCopyDetails details) {
+        return COMPRESSED_FILE_EXTENSIONS.contains(Files.getFileExtension(details.getRelativePath().getLastName()).toLowerCase());
+    }
+
     private long getArchiveTimeFor(FileCopyDetails details) {
         return preserveFileTimestamps ? details.getLastModified() : GUtil.CONSTANT_TIME_FOR_ZIP_ENTRIES;
     }
@@ -23,7 +23,9 @@ import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.specs.Spec;
+import org.gradle.internal.nativeintegration.filesystem.FileMetadataSnapshot;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.nativeintegration.filesystem.FileType;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -50,9 +52,17 @@ public abstract class AbstractDirectoryWalker implements DirectoryWalker {
         List<FileVisitDetails> dirs = new ArrayList<FileVisitDetails>();
         for (int i = 0; !stopFlag.get() && i < children.length; i++) {
             File child = children[i];
-            boolean isFile = child.isFile();
+            // A single stat provides the type, size and timestamp of a file
+            FileMetadataSnapshot metadata = fileSystem.stat(child);
+            if (metadata.getType() == FileType.Missing && child.exists()) {
+                // Neither a file nor a directory, for example a named pipe or a socket
+                continue;
+            }
+            boolean isFile = metadata.getType() == FileType.RegularFile;
             RelativePath childPath = path.append(isFile, child.getName());
-            FileVisitDetails details = new DefaultFileVisitDetails(child, childPath, stopFlag, fileSystem, fileSystem, !isFile);
+            FileVisitDetails details = isFile
+                ? new DefaultFileVisitDetails(child, childPath, stopFlag, fileSystem, fileSystem, false, metadata.getLastModified(), metadata.getLength())
+                : new DefaultFileVisitDetails(child, childPath, stopFlag, fileSystem, fileSystem, true);
             if (DirectoryFileTree.isAllowed(details, spec)) {
                 if (isFile) {
                     visitor.visitFile(details);
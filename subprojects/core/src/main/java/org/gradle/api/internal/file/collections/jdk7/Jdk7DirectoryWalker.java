@@ -76,6 +76,10 @@ public class Jdk7DirectoryWalker implements DirectoryWalker {
 
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (attrs.isOther()) {
+                        // Neither a file nor a directory, for example a named pipe or a socket
+                        return checkStopFlag();
+                    }
                     FileVisitDetails details = getFileVisitDetails(file, attrs, false);
                     if (isAllowed(details, spec)) {
                         if (attrs.isSymbolicLink()) {
@@ -30,7 +30,9 @@ import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class SyncCopyActionDecorator implements CopyAction {
@@ -50,12 +52,17 @@ public class SyncCopyActionDecorator implements CopyAction {
 
     public WorkResult execute(final CopyActionProcessingStream stream) {
         final Set<RelativePath> visited = new HashSet<RelativePath>();
+        final Set<RelativePath> visitedParents = new HashSet<RelativePath>();
 
         WorkResult didWork = delegate.execute(new CopyActionProcessingStream() {
             public void process(final CopyActionProcessingStreamAction action) {
                 stream.process(new CopyActionProcessingStreamAction() {
                     public void processFile(FileCopyDetailsInternal details) {
-                        visited.add(details.getRelativePath());
+                        RelativePath path = details.getRelativePath();
+                        visited.add(path);
+                        for (RelativePath parent = path.getParent(); parent != null && visitedParents.add(parent); parent = parent.getParent()) {
+                            // Keep going until an already recorded parent is found
+                        }
                         action.processFile(details);
                     }
                 });
@@ -63,12 +70,56 @@ public class SyncCopyActionDecorator implements CopyAction {
         });
 
         SyncCopyActionDecoratorFileVisitor fileVisitor = new SyncCopyActionDecoratorFileVisitor(visited, preserveSpec);
-
-        MinimalFileTree walker = new DirectoryFileTree(baseDestDir).postfix();
+        PatternSet walkedPatterns = new PatternSet();
+        StaleDirectorySpec staleDirectories = new StaleDirectorySpec(visited, visitedParents, walkedPatterns.getAsSpec(), fileVisitor.preserveSet.isEmpty());
+        walkedPatterns.include(staleDirectories);
+        MinimalFileTree walker = new DirectoryFileTree(baseDestDir, walkedPatterns).postfix();
         walker.visit(fileVisitor);
+        boolean deletedDirectories = staleDirectories.deleteAll();
         visited.clear();
+        visitedParents.clear();
+
+        return new SimpleWorkResult(didWork.getDidWork() || fileVisitor.didWork || deletedDirectories);
+    }
+
+    /**
+     * Prunes directories of the destination that contain nothing that has been copied, so that they can be deleted as a whole instead of being walked
+     * file by file. Directories are only pruned when nothing needs to be preserved.
+     */
+    private static class StaleDirectorySpec implements Spec<FileTreeElement> {
+        private final Set<RelativePath> visited;
+        private final Set<RelativePath> visitedParents;
+        private final Spec<FileTreeElement> walkedSpec;
+        private final boolean canPrune;
+        private final List<File> staleDirectories = new ArrayList<File>();
+
+        private StaleDirectorySpec(Set<RelativePath> visited, Set<RelativePath> visitedParents, Spec<FileTreeElement> walkedSpec, boolean canPrune) {
+            this.visited = visited;
+            this.visitedParents = visitedParents;
+            this.walkedSpec = walkedSpec;
+            this.canPrune = canPrune;
+        }
 
-        return new SimpleWorkResult(didWork.getDidWork() || fileVisitor.didWork);
+        @Override
+        public boolean isSatisfiedBy(FileTreeElement element) {
+            if (!canPrune || !element.isDirectory()) {
+                return true;
+            }
+            RelativePath path = element.getRelativePath();
+            if (visited.contains(path) || visitedParents.contains(path) || !walkedSpec.isSatisfiedBy(element)) {
+                // Let the walk decide, so that default excludes are left alone as before
+                return true;
+            }
+            staleDirectories.add(element.getFile());
+            return false;
+        }
+
+        boolean deleteAll() {
+            for (File directory : staleDirectories) {
+                GFileUtils.deleteDirectory(directory);
+            }
+            return !staleDirectories.isEmpty();
+        }
     }
 
     private static class SyncCopyActionDecoratorFileVisitor implements FileVisitor {
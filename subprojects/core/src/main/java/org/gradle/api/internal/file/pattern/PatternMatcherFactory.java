@@ -19,6 +19,8 @@ import org.apache.commons.lang.StringUtils;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.specs.Spec;
 
+import java.util.Collection;
+
 public class PatternMatcherFactory {
 
     public static final EndOfPathMatcher END_OF_PATH_MATCHER = new EndOfPathMatcher();
@@ -29,17 +31,32 @@ public class PatternMatcherFactory {
         return new PathMatcherBackedSpec(partialMatchDirs, pathMatcher);
     }
 
+    /**
+     * Returns a matcher that is satisfied when any of the given patterns is satisfied, in the same way as the union of the matchers returned by
+     * {@link #getPatternMatcher(boolean, boolean, String)} for each pattern.
+     */
+    public static Spec<RelativePath> getPatternsMatcher(boolean partialMatchDirs, boolean caseSensitive, Collection<String> patterns) {
+        PatternSetMatcher.Builder builder = new PatternSetMatcher.Builder(partialMatchDirs, caseSensitive);
+        for (String pattern : patterns) {
+            String[] parts = split(pattern);
+            builder.add(parts, compile(parts, 0, caseSensitive));
+        }
+        return builder.build();
+    }
+
     private static PathMatcher compile(boolean caseSensitive, String pattern) {
         if (pattern.length() == 0) {
             return END_OF_PATH_MATCHER;
         }
+        return compile(split(pattern), 0, caseSensitive);
+    }
 
+    private static String[] split(String pattern) {
         // trailing / or \ assumes **
         if (pattern.endsWith("/") || pattern.endsWith("\\")) {
             pattern = pattern + "**";
         }
-        String[] parts = StringUtils.split(pattern, PATH_SEPARATORS);
-        return compile(parts, 0, caseSensitive);
+        return StringUtils.split(pattern, PATH_SEPARATORS);
     }
 
     private static PathMatcher compile(String[] parts, int startIndex, boolean caseSensitive) {
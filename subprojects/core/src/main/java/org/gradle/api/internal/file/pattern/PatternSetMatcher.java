@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.specs.Spec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches a path against a set of patterns at once.
+ *
+ * <p>Case sensitive patterns made of fixed segments are indexed, so that the cost of matching does not grow with the number of such patterns:</p>
+ *
+ * <ul>
+ *     <li>{@code **}{@code /name} patterns, such as most of the default excludes, are looked up by the last segment of the path.</li>
+ *     <li>{@code **}{@code /name/**} patterns are looked up by each segment of the path.</li>
+ *     <li>Patterns starting with a fixed segment, such as {@code com/acme/**}{@code /*.java}, are only evaluated for paths starting with that segment,
+ *     which allows a directory walk to skip a directory that no pattern can match without evaluating each pattern.</li>
+ * </ul>
+ *
+ * <p>All other patterns are evaluated one after the other.</p>
+ */
+class PatternSetMatcher implements Spec<RelativePath> {
+    private final boolean partialMatchDirs;
+    private final Set<String> fileNames;
+    private final Set<String> directoryNames;
+    private final Map<String, List<PathMatcher>> byFirstSegment;
+    private final List<PathMatcher> others;
+
+    private PatternSetMatcher(boolean partialMatchDirs, Set<String> fileNames, Set<String> directoryNames, Map<String, List<PathMatcher>> byFirstSegment, List<PathMatcher> others) {
+        this.partialMatchDirs = partialMatchDirs;
+        this.fileNames = fileNames;
+        this.directoryNames = directoryNames;
+        this.byFirstSegment = byFirstSegment;
+        this.others = others;
+    }
+
+    @Override
+    public String toString() {
+        return "{file-names: " + fileNames + ", directory-names: " + directoryNames + ", by-first-segment: " + byFirstSegment + ", others: " + others + "}";
+    }
+
+    public boolean isSatisfiedBy(RelativePath element) {
+        String[] segments = element.getSegments();
+        if (element.isFile() || !partialMatchDirs) {
+            return matches(segments);
+        } else {
+            return isPrefix(segments);
+        }
+    }
+
+    private boolean matches(String[] segments) {
+        if (segments.length > 0) {
+            if (fileNames.contains(segments[segments.length - 1])) {
+                return true;
+            }
+            if (!directoryNames.isEmpty()) {
+                for (String segment : segments) {
+                    if (directoryNames.contains(segment)) {
+                        return true;
+                    }
+                }
+            }
+            List<PathMatcher> candidates = byFirstSegment.get(segments[0]);
+            if (candidates != null) {
+                for (PathMatcher candidate : candidates) {
+                    if (candidate.matches(segments, 0)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        for (PathMatcher other : others) {
+            if (other.matches(segments, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPrefix(String[] segments) {
+        if (!fileNames.isEmpty() || !directoryNames.isEmpty()) {
+            // A pattern starting with ** might match any path
+            return true;
+        }
+        if (segments.length == 0) {
+            if (!byFirstSegment.isEmpty()) {
+                return true;
+            }
+        } else {
+            List<PathMatcher> candidates = byFirstSegment.get(segments[0]);
+            if (candidates != null) {
+                for (PathMatcher candidate : candidates) {
+                    if (candidate.isPrefix(segments, 0)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        for (PathMatcher other : others) {
+            if (other.isPrefix(segments, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static class Builder {
+        private final boolean partialMatchDirs;
+        private final boolean caseSensitive;
+        private final Set<String> fileNames = new HashSet<String>();
+        private final Set<String> directoryNames = new HashSet<String>();
+        private final Map<String, List<PathMatcher>> byFirstSegment = new HashMap<String, List<PathMatcher>>();
+        private final List<PathMatcher> others = new ArrayList<PathMatcher>();
+
+        Builder(boolean partialMatchDirs, boolean caseSensitive) {
+            this.partialMatchDirs = partialMatchDirs;
+            this.caseSensitive = caseSensitive;
+        }
+
+        /**
+         * Adds a pattern, given as its segments and the matcher compiled from these segments.
+         */
+        void add(String[] parts, PathMatcher matcher) {
+            if (caseSensitive && parts.length > 0) {
+                int pos = 0;
+                while (pos < parts.length && parts[pos].equals("**")) {
+                    pos++;
+                }
+                if (pos == 0 && isFixed(parts[0])) {
+                    List<PathMatcher> matchers = byFirstSegment.get(parts[0]);
+                    if (matchers == null) {
+                        matchers = new ArrayList<PathMatcher>(1);
+                        byFirstSegment.put(parts[0], matchers);
+                    }
+                    matchers.add(matcher);
+                    return;
+                }
+                if (pos > 0 && pos < parts.length && isFixed(parts[pos])) {
+                    if (pos + 1 == parts.length) {
+                        fileNames.add(parts[pos]);
+                        return;
+                    }
+                    if (isAnything(parts, pos + 1)) {
+                        directoryNames.add(parts[pos]);
+                        return;
+                    }
+                }
+            }
+            others.add(matcher);
+        }
+
+        private static boolean isFixed(String part) {
+            return part.indexOf('*') < 0 && part.indexOf('?') < 0;
+        }
+
+        private static boolean isAnything(String[] parts, int startIndex) {
+            for (int i = startIndex; i < parts.length; i++) {
+                if (!parts[i].equals("**")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        PatternSetMatcher build() {
+            return new PatternSetMatcher(partialMatchDirs, fileNames, directoryNames, byFirstSegment, others);
+        }
+    }
+}
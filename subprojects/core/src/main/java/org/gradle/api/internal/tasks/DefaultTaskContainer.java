@@ -26,11 +26,14 @@ import org.gradle.api.Task;
 import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.NamedDomainObjectContainerConfigureDelegate;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.collections.CollectionFilter;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.api.tasks.TaskReference;
 import org.gradle.initialization.ProjectAccessListener;
+import org.gradle.internal.Actions;
 import org.gradle.internal.Transformers;
 import org.gradle.internal.metaobject.DynamicObject;
 import org.gradle.internal.reflect.Instantiator;
@@ -46,10 +49,14 @@ import org.gradle.model.internal.type.ModelType;
 import org.gradle.util.ConfigureUtil;
 import org.gradle.util.GUtil;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.SortedSet;
 
 public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements TaskContainerInternal {
@@ -57,6 +64,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
     private final Set<String> placeholders = Sets.newHashSet();
+    private final Set<String> lazyTasks = Sets.newLinkedHashSet();
     private final NamedEntityInstantiator<Task> instantiator;
 
     public DefaultTaskContainer(MutableModelNode modelNode, ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
@@ -76,9 +84,13 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         Task task = taskFactory.createTask(mutableOptions);
         String name = task.getName();
 
-        if (placeholders.remove(name)) {
+        if (placeholders.remove(name) || (replace && lazyTasks.remove(name))) {
             modelNode.removeLink(name);
         }
+        if (lazyTasks.contains(name)) {
+            throw new InvalidUserDataException(String.format(
+                "Cannot add %s as a task with that name already exists.", task));
+        }
 
         Task existing = findByNameWithoutRules(name);
         if (existing != null) {
@@ -143,6 +155,21 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return task;
     }
 
+    @Override
+    public <T extends Task> Provider<T> createLater(String name, Class<T> type) throws InvalidUserDataException {
+        return createLater(name, type, Actions.<T>doNothing());
+    }
+
+    @Override
+    public <T extends Task> Provider<T> createLater(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException {
+        if (findByNameWithoutRules(name) != null || modelNode.hasLink(name)) {
+            throw new InvalidUserDataException(String.format("Cannot add task '%s' as a task with that name already exists.", name));
+        }
+        addTaskCreator(name, type, configuration, "tasks.createLater(" + name + ")");
+        lazyTasks.add(name);
+        return new TaskProvider<T>(name, type);
+    }
+
     public <T extends Task> T replace(String name, Class<T> type) {
         return type.cast(create(GUtil.map(Task.TASK_NAME, name, Task.TASK_TYPE, type, Task.TASK_OVERWRITE, true)));
     }
@@ -250,27 +277,82 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return super.findByNameWithoutRules(name);
     }
 
+    @Override
+    public void all(Action<? super Task> action) {
+        // Tasks defined using createLater() are passed to the action when they are created, so only visit the existing tasks
+        action = whenObjectAdded(action);
+        for (Task task : new ArrayList<Task>(getStore())) {
+            action.execute(task);
+        }
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        realizeLazyTasks();
+        return super.iterator();
+    }
+
+    @Override
+    public int size() {
+        realizeLazyTasks();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        realizeLazyTasks();
+        return super.isEmpty();
+    }
+
+    @Override
+    public SortedMap<String, Task> getAsMap() {
+        realizeLazyTasks();
+        return super.getAsMap();
+    }
+
+    @Override
+    protected <S extends Task> Index<S> filteredIndex(CollectionFilter<S> filter) {
+        // Filtered views iterate over this container, which creates the lazy tasks, but look up tasks by name using the index
+        return new RealizingIndex<S>(super.filteredIndex(filter));
+    }
+
+    /**
+     * Creates the tasks defined using {@link #createLater(String, Class, Action)} that have not been created yet.
+     */
+    private void realizeLazyTasks() {
+        if (lazyTasks.isEmpty()) {
+            return;
+        }
+        for (String name : new ArrayList<String>(lazyTasks)) {
+            findByName(name);
+        }
+    }
+
     private Task realizeTask(ModelPath taskPath, ModelNode.State minState) {
         return project.getModelRegistry().atStateOrLater(taskPath, ModelType.of(Task.class), minState);
     }
 
     public <T extends TaskInternal> void addPlaceholderAction(final String placeholderName, final Class<T> taskType, final Action<? super T> configure) {
         if (!modelNode.hasLink(placeholderName)) {
-            final ModelType<T> taskModelType = ModelType.of(taskType);
-            ModelPath path = MODEL_PATH.child(placeholderName);
-            modelNode.addLink(
-                ModelRegistrations.of(path)
-                    .action(ModelActionRole.Create, new TaskCreator<T>(placeholderName, taskType, configure, taskModelType))
-                    .withProjection(new UnmanagedModelProjection<T>(taskModelType))
-                    .descriptor(new SimpleModelRuleDescriptor("tasks.addPlaceholderAction(" + placeholderName + ")"))
-                    .build()
-            );
+            addTaskCreator(placeholderName, taskType, configure, "tasks.addPlaceholderAction(" + placeholderName + ")");
         }
         if (findByNameWithoutRules(placeholderName) == null) {
             placeholders.add(placeholderName);
         }
     }
 
+    private <T extends Task> void addTaskCreator(String name, Class<T> taskType, Action<? super T> configure, String descriptor) {
+        ModelType<T> taskModelType = ModelType.of(taskType);
+        ModelPath path = MODEL_PATH.child(name);
+        modelNode.addLink(
+            ModelRegistrations.of(path)
+                .action(ModelActionRole.Create, new TaskCreator<T>(name, taskType, configure, taskModelType))
+                .withProjection(new UnmanagedModelProjection<T>(taskModelType))
+                .descriptor(new SimpleModelRuleDescriptor(descriptor))
+                .build()
+        );
+    }
+
     public <U extends Task> NamedDomainObjectContainer<U> containerWithType(Class<U> type) {
         throw new UnsupportedOperationException();
     }
@@ -295,7 +377,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
     }
 
-    private static class TaskCreator<T extends TaskInternal> implements Action<MutableModelNode> {
+    private static class TaskCreator<T extends Task> implements Action<MutableModelNode> {
         private final String placeholderName;
         private final Class<T> taskType;
         private final Action<? super T> configure;
@@ -311,13 +393,89 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         @Override
         public void execute(final MutableModelNode mutableModelNode) {
             DefaultTaskContainer taskContainer = mutableModelNode.getParent().getPrivateData(ModelType.of(DefaultTaskContainer.class));
-            T task = taskContainer.taskFactory.create(placeholderName, taskType);
+            taskContainer.lazyTasks.remove(placeholderName);
+            T task = taskContainer.instantiator.create(placeholderName, taskType);
             configure.execute(task);
             taskContainer.add(task);
             mutableModelNode.setPrivateData(taskModelType, task);
         }
     }
 
+    /**
+     * The index of a filtered view of this container, which creates the tasks defined using {@link #createLater(String, Class, Action)} before they are looked up.
+     */
+    private class RealizingIndex<S extends Task> implements Index<S> {
+        private final Index<S> delegate;
+
+        RealizingIndex(Index<S> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void put(String name, S value) {
+            delegate.put(name, value);
+        }
+
+        @Override
+        public S get(String name) {
+            if (lazyTasks.contains(name)) {
+                findByName(name);
+            }
+            return delegate.get(name);
+        }
+
+        @Override
+        public void remove(String name) {
+            delegate.remove(name);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public NavigableMap<String, S> asMap() {
+            realizeLazyTasks();
+            return delegate.asMap();
+        }
+
+        @Override
+        public <R extends S> Index<R> filter(CollectionFilter<R> filter) {
+            return new RealizingIndex<R>(delegate.filter(filter));
+        }
+    }
+
+    private class TaskProvider<T extends Task> implements Provider<T> {
+        private final String name;
+        private final Class<T> type;
+
+        TaskProvider(String name, Class<T> type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public T get() {
+            return type.cast(getByName(name));
+        }
+
+        @Override
+        public T getOrNull() {
+            return type.cast(findByName(name));
+        }
+
+        @Override
+        public boolean isPresent() {
+            return findByName(name) != null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("provider(task '%s')", name);
+        }
+    }
+
     @Override
     public <S extends Task> TaskCollection<S> withType(Class<S> type) {
         return new RealizableTaskCollection<S>(type, super.withType(type), modelNode);
@@ -20,6 +20,7 @@ import groovy.lang.Closure;
 import org.gradle.api.Buildable;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskDependency;
 import org.gradle.api.tasks.TaskReference;
 import org.gradle.internal.typeconversion.UnsupportedNotationException;
@@ -102,6 +103,11 @@ public class DefaultTaskDependency extends AbstractTaskDependency {
                 if (callableResult != null) {
                     queue.addFirst(callableResult);
                 }
+            } else if (dependency instanceof Provider) {
+                Object providerResult = ((Provider) dependency).getOrNull();
+                if (providerResult != null) {
+                    queue.addFirst(providerResult);
+                }
             } else if (resolver != null && dependency instanceof TaskReference) {
                 context.add(resolver.resolveTask((TaskReference) dependency));
             } else if (resolver != null && dependency instanceof CharSequence) {
@@ -117,6 +123,7 @@ public class DefaultTaskDependency extends AbstractTaskDependency {
                 formats.add("A TaskDependency instance");
                 formats.add("A Closure instance that returns any of the above types");
                 formats.add("A Callable instance that returns any of the above types");
+                formats.add("A Provider instance that provides any of the above types");
                 formats.add("An Iterable, Collection, Map or array instance that contains any of the above types");
                 throw new UnsupportedNotationException(dependency, String.format("Cannot convert %s to a task.", dependency), null, formats);
             }
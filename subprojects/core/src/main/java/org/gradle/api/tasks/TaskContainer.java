@@ -17,6 +17,7 @@ package org.gradle.api.tasks;
 
 import groovy.lang.Closure;
 import org.gradle.api.*;
+import org.gradle.api.provider.Provider;
 import org.gradle.internal.HasInternalProtocol;
 
 import java.util.Map;
@@ -161,6 +162,36 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      */
     <T extends Task> T create(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 
+    /**
+     * <p>Defines a {@link Task} with the given name and type, without creating it. The task is created, configured using the given action
+     * and added to this container only when it is required: when it is located by name or by path, when this container is iterated, when
+     * it is added to the task graph, or when the value of the returned provider is queried.</p>
+     *
+     * <p>The task is not made available through {@link #withType(Class, Action)} or {@link #whenTaskAdded(Action)} until it is created.</p>
+     *
+     * @param name The name of the task.
+     * @param type The type of task to create.
+     * @param configuration The action to configure the task with, when the task is created.
+     * @return A provider for the task, which creates the task when queried.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 4.0
+     */
+    @Incubating
+    <T extends Task> Provider<T> createLater(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
+
+    /**
+     * <p>Defines a {@link Task} with the given name and type, without creating it. See {@link #createLater(String, Class, Action)} for
+     * when the task is created.</p>
+     *
+     * @param name The name of the task.
+     * @param type The type of task to create.
+     * @return A provider for the task, which creates the task when queried.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 4.0
+     */
+    @Incubating
+    <T extends Task> Provider<T> createLater(String name, Class<T> type) throws InvalidUserDataException;
+
     /**
      * <p>Creates a {@link Task} with the given name and adds it to this container, replacing any existing task with the
      * same name.</p>
@@ -75,12 +75,7 @@ public class PatternSpecFactory {
             return include ? Specs.<FileTreeElement>satisfyAll() : Specs.<FileTreeElement>satisfyNone();
         }
 
-        List<Spec<RelativePath>> matchers = new ArrayList<Spec<RelativePath>>(patterns.size());
-        for (String pattern : patterns) {
-            Spec<RelativePath> patternMatcher = PatternMatcherFactory.getPatternMatcher(include, caseSensitive, pattern);
-            matchers.add(patternMatcher);
-        }
-
-        return new RelativePathSpec(Specs.union(matchers));
+        Spec<RelativePath> patternsMatcher = PatternMatcherFactory.getPatternsMatcher(include, caseSensitive, patterns);
+        return new RelativePathSpec(patternsMatcher);
     }
 }
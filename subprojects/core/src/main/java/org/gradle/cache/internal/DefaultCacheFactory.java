@@ -32,8 +32,10 @@ import org.gradle.internal.serialize.Serializer;
 
 import java.io.Closeable;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
@@ -58,25 +60,36 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
 
     @Override
     public PersistentCache open(File cacheDir, String displayName, @Nullable CacheValidator cacheValidator, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions, Action<? super PersistentCache> initializer) throws CacheOpenException {
+        ReferenceTrackingCache cache;
         lock.lock();
         try {
-            return doOpen(cacheDir, displayName, cacheValidator, properties, lockTarget, lockOptions, initializer);
+            cache = doOpen(cacheDir, displayName, cacheValidator, properties, lockTarget, lockOptions, initializer);
         } finally {
             lock.unlock();
         }
+        // Open (and possibly initialize) the cache outside of the factory lock, so that different caches can be initialized concurrently
+        try {
+            cache.reference.open();
+        } catch (RuntimeException e) {
+            cache.close();
+            throw e;
+        }
+        return cache;
     }
 
     public void close() {
+        // Close the caches outside of the factory lock, see DirCacheReference
+        List<DirCacheReference> caches;
         lock.lock();
         try {
-            CompositeStoppable.stoppable(dirCaches.values()).stop();
+            caches = new ArrayList<DirCacheReference>(dirCaches.values());
         } finally {
-            dirCaches.clear();
             lock.unlock();
         }
+        CompositeStoppable.stoppable(caches).stop();
     }
 
-    private PersistentCache doOpen(File cacheDir, String displayName, @Nullable CacheValidator validator, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions, @Nullable Action<? super PersistentCache> initializer) {
+    private ReferenceTrackingCache doOpen(File cacheDir, String displayName, @Nullable CacheValidator validator, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions, @Nullable Action<? super PersistentCache> initializer) {
         File canonicalDir = FileUtils.canonicalize(cacheDir);
         DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
         if (dirCacheReference == null) {
@@ -86,7 +99,6 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
             } else {
                 cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockTarget, lockOptions, lockManager, executorFactory);
             }
-            cache.open();
             dirCacheReference = new DirCacheReference(cache, properties, lockTarget, lockOptions);
             dirCaches.put(canonicalDir, dirCacheReference);
         } else {
@@ -103,19 +115,40 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         return new ReferenceTrackingCache(dirCacheReference);
     }
 
+    /**
+     * The open lock of a cache is held while the cache is opened, and the cache initializer may use the factory lock, for example to open another cache.
+     * So the open lock is always taken before the factory lock, and never while holding the factory lock.
+     */
     private class DirCacheReference implements Closeable {
         private final Map<String, ?> properties;
         private final CacheBuilder.LockTarget lockTarget;
         private final LockOptions lockOptions;
         private final ReferencablePersistentCache cache;
         private final Set<ReferenceTrackingCache> references = new HashSet<ReferenceTrackingCache>();
+        private final Lock openLock = new ReentrantLock();
+        private boolean opened;
 
         DirCacheReference(ReferencablePersistentCache cache, Map<String, ?> properties, CacheBuilder.LockTarget lockTarget, LockOptions lockOptions) {
             this.cache = cache;
             this.properties = properties;
             this.lockTarget = lockTarget;
             this.lockOptions = lockOptions;
-            onOpen(cache);
+        }
+
+        /**
+         * Opens the backing cache, if not already open. Blocks while another thread is opening the same cache.
+         */
+        public void open() {
+            openLock.lock();
+            try {
+                if (!opened) {
+                    cache.open();
+                    opened = true;
+                    onOpen(cache);
+                }
+            } finally {
+                openLock.unlock();
+            }
         }
 
         public void addReference(ReferenceTrackingCache cache) {
@@ -123,21 +156,40 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         }
 
         public void release(ReferenceTrackingCache cache) {
-            lock.lock();
+            openLock.lock();
             try {
-                if (references.remove(cache) && references.isEmpty()) {
-                    close();
+                lock.lock();
+                try {
+                    if (references.remove(cache) && references.isEmpty()) {
+                        close();
+                    }
+                } finally {
+                    lock.unlock();
                 }
             } finally {
-                lock.unlock();
+                openLock.unlock();
             }
         }
 
         public void close() {
-            onClose(cache);
-            dirCaches.values().remove(this);
-            references.clear();
-            cache.close();
+            openLock.lock();
+            try {
+                // Close while holding the factory lock, so that the cache cannot be opened again until it has been closed
+                lock.lock();
+                try {
+                    dirCaches.values().remove(this);
+                    references.clear();
+                    if (opened) {
+                        onClose(cache);
+                        cache.close();
+                        opened = false;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                openLock.unlock();
+            }
         }
     }
 
@@ -15,6 +15,8 @@
  */
 package org.gradle.cache.internal;
 
+import org.gradle.api.Nullable;
+import org.gradle.api.Transformer;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.internal.filelock.*;
@@ -29,6 +31,9 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.RandomLongIdGenerator;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.progress.BuildOperationDetails;
+import org.gradle.internal.progress.BuildOperationExecutor;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
@@ -44,6 +49,9 @@ import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 public class DefaultFileLockManager implements FileLockManager {
     private static final Logger LOGGER = Logging.getLogger(DefaultFileLockManager.class);
     public static final int DEFAULT_LOCK_TIMEOUT = 60000;
+    // Bounds of the interval between attempts to acquire a lock held by another process, when the owner does not notify that it has released the lock
+    private static final long MIN_WAIT_MS = 10;
+    private static final long MAX_WAIT_MS = 200;
 
     private final Set<File> lockedFiles = new CopyOnWriteArraySet<File>();
     private final ProcessMetaDataProvider metaDataProvider;
@@ -52,21 +60,35 @@ public class DefaultFileLockManager implements FileLockManager {
     private final FileLockContentionHandler fileLockContentionHandler;
     private final long shortTimeoutMs = 10000;
     private final TimeProvider timeProvider = new TrueTimeProvider();
+    private final BuildOperationExecutor buildOperationExecutor;
 
     public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, FileLockContentionHandler fileLockContentionHandler) {
         this(metaDataProvider, DEFAULT_LOCK_TIMEOUT, fileLockContentionHandler);
     }
 
+    /**
+     * Creates a lock manager that reports the time spent waiting for locks held by other processes as build operations.
+     */
+    public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, FileLockContentionHandler fileLockContentionHandler, BuildOperationExecutor buildOperationExecutor) {
+        this(metaDataProvider, DEFAULT_LOCK_TIMEOUT, fileLockContentionHandler, new RandomLongIdGenerator(), buildOperationExecutor);
+    }
+
     public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, int lockTimeoutMs, FileLockContentionHandler fileLockContentionHandler) {
         this(metaDataProvider, lockTimeoutMs, fileLockContentionHandler, new RandomLongIdGenerator());
     }
 
     DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, int lockTimeoutMs, FileLockContentionHandler fileLockContentionHandler,
                            IdGenerator<Long> generator) {
+        this(metaDataProvider, lockTimeoutMs, fileLockContentionHandler, generator, null);
+    }
+
+    DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, int lockTimeoutMs, FileLockContentionHandler fileLockContentionHandler,
+                           IdGenerator<Long> generator, @Nullable BuildOperationExecutor buildOperationExecutor) {
         this.metaDataProvider = metaDataProvider;
         this.lockTimeoutMs = lockTimeoutMs;
         this.fileLockContentionHandler = fileLockContentionHandler;
         this.generator = generator;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public FileLock lock(File target, LockOptions options, String targetDisplayName) throws LockTimeoutException {
@@ -251,6 +273,12 @@ public class DefaultFileLockManager implements FileLockManager {
                     lockedFiles.remove(target);
                 }
             });
+            stoppable.add(new Stoppable() {
+                public void stop() {
+                    // Let any process waiting for the lock retry straight away
+                    fileLockContentionHandler.released(lockId, displayName);
+                }
+            });
             stoppable.stop();
         }
 
@@ -263,7 +291,10 @@ public class DefaultFileLockManager implements FileLockManager {
             CountdownTimer timer = Timers.startTimer(lockTimeoutMs);
 
             // Lock the state region, with the requested mode
-            java.nio.channels.FileLock stateRegionLock = lockStateRegion(lockMode, timer);
+            java.nio.channels.FileLock stateRegionLock = lockFileAccess.tryLockState(lockMode == LockMode.Shared);
+            if (stateRegionLock == null) {
+                stateRegionLock = waitForStateRegion(lockMode, timer);
+            }
             if (stateRegionLock == null) {
                 LockInfo lockInfo = readInformationRegion(Timers.startTimer(shortTimeoutMs));
                 throw new LockTimeoutException(displayName, lockInfo.pid, metaDataProvider.getProcessIdentifier(), lockInfo.operation, operationDisplayName, lockFile);
@@ -317,34 +348,60 @@ public class DefaultFileLockManager implements FileLockManager {
             return out;
         }
 
+        private java.nio.channels.FileLock waitForStateRegion(final LockMode lockMode, final CountdownTimer timer) throws IOException, InterruptedException {
+            if (buildOperationExecutor == null) {
+                return lockStateRegion(lockMode, timer);
+            }
+            BuildOperationDetails operationDetails = BuildOperationDetails.displayName("Wait for " + lockMode.toString().toLowerCase() + " lock on " + displayName).build();
+            return buildOperationExecutor.run(operationDetails, new Transformer<java.nio.channels.FileLock, BuildOperationContext>() {
+                @Override
+                public java.nio.channels.FileLock transform(BuildOperationContext context) {
+                    try {
+                        return lockStateRegion(lockMode, timer);
+                    } catch (Exception e) {
+                        throw throwAsUncheckedException(e);
+                    }
+                }
+            });
+        }
+
         private java.nio.channels.FileLock lockStateRegion(LockMode lockMode, final CountdownTimer timer) throws IOException, InterruptedException {
+            long waitMs = MIN_WAIT_MS;
             do {
                 java.nio.channels.FileLock fileLock = lockFileAccess.tryLockState(lockMode == LockMode.Shared);
                 if (fileLock != null) {
                     return fileLock;
                 }
+                boolean released = false;
                 if (port != -1) { //we don't like the assumption about the port very much
                     LockInfo lockInfo = readInformationRegion(timer);
                     if (lockInfo.port != -1) {
                         LOGGER.debug("The file lock is held by a different Gradle process (pid: {}, operation: {}). Will attempt to ping owner at port {}", lockInfo.pid, lockInfo.operation, lockInfo.port);
                         fileLockContentionHandler.pingOwner(lockInfo.port, lockInfo.lockId, displayName);
+                        // The owner notifies when it has released the lock. Owners running an older Gradle version don't, so also retry periodically
+                        released = fileLockContentionHandler.waitForRelease(lockInfo.lockId, waitMs);
                     } else {
                         LOGGER.debug("The file lock is held by a different Gradle process. I was unable to read on which port the owner listens for lock access requests.");
+                        Thread.sleep(waitMs);
                     }
+                } else {
+                    Thread.sleep(waitMs);
                 }
-                //TODO SF we should inform on the progress/status bar that we're waiting
-                Thread.sleep(200L);
+                waitMs = released ? MIN_WAIT_MS : Math.min(waitMs * 2, MAX_WAIT_MS);
             } while (!timer.hasExpired());
             return null;
         }
 
         private java.nio.channels.FileLock lockInformationRegion(LockMode lockMode, CountdownTimer timer) throws IOException, InterruptedException {
+            // The information region is only ever locked for a short time, so retry quickly at first
+            long waitMs = MIN_WAIT_MS;
             do {
                 java.nio.channels.FileLock fileLock = lockFileAccess.tryLockInfo(lockMode == LockMode.Shared);
                 if (fileLock != null) {
                     return fileLock;
                 }
-                Thread.sleep(200L);
+                Thread.sleep(waitMs);
+                waitMs = Math.min(waitMs * 2, MAX_WAIT_MS);
             }
             while (!timer.hasExpired());
             return null;
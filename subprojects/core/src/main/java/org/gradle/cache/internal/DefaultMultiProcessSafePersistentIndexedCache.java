@@ -19,12 +19,23 @@ import org.gradle.api.Transformer;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
 import org.gradle.internal.Factory;
 
+import java.io.File;
+
+/**
+ * Provides access to a {@link BTreePersistentIndexedCache} from multiple processes.
+ *
+ * <p>The backing cache is opened and closed without marking the file as updated, unless the file does not exist yet, was not unlocked cleanly or
+ * turns out to be corrupt. Only changes to the file mark it as updated, so that other processes can keep using the entries they hold in memory
+ * after reading from this cache.</p>
+ */
 public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements MultiProcessSafePersistentIndexedCache<K, V> {
+    private final File cacheFile;
     private final FileAccess fileAccess;
     private final Factory<BTreePersistentIndexedCache<K, V>> factory;
     private BTreePersistentIndexedCache<K, V> cache;
 
-    public DefaultMultiProcessSafePersistentIndexedCache(Factory<BTreePersistentIndexedCache<K, V>> factory, FileAccess fileAccess) {
+    public DefaultMultiProcessSafePersistentIndexedCache(File cacheFile, Factory<BTreePersistentIndexedCache<K, V>> factory, FileAccess fileAccess) {
+        this.cacheFile = cacheFile;
         this.factory = factory;
         this.fileAccess = fileAccess;
     }
@@ -32,8 +43,9 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     @Override
     public V get(final K key) {
         final BTreePersistentIndexedCache<K, V> cache = getCache();
+        V value;
         try {
-            return fileAccess.readFile(new Factory<V>() {
+            value = fileAccess.readFile(new Factory<V>() {
                 public V create() {
                     return cache.get(key);
                 }
@@ -41,6 +53,10 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
         } catch (FileIntegrityViolationException e) {
             return null;
         }
+        if (cache.isCorrupt()) {
+            rebuildCache();
+        }
+        return value;
     }
 
     @Override
@@ -85,31 +101,64 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     public void finishWork() {
         if (cache != null) {
             try {
-                fileAccess.writeFile(new Runnable() {
-                    public void run() {
-                        cache.close();
-                    }
-                });
+                closeCache();
             } finally {
                 cache = null;
             }
         }
     }
 
+    private void closeCache() {
+        try {
+            fileAccess.readFile(new Factory<Void>() {
+                public Void create() {
+                    cache.close();
+                    return null;
+                }
+            });
+        } catch (FileIntegrityViolationException e) {
+            fileAccess.writeFile(new Runnable() {
+                public void run() {
+                    cache.close();
+                }
+            });
+        }
+    }
+
     @Override
     public void beforeLockRelease(FileLock.State currentCacheState) {
     }
 
     private BTreePersistentIndexedCache<K, V> getCache() {
         if (cache == null) {
-            // Use writeFile because the cache can internally recover from datafile
-            // corruption, so we don't care at this level if it's corrupt
-            fileAccess.writeFile(new Runnable() {
-                public void run() {
-                    cache = factory.create();
+            if (cacheFile.length() > 0) {
+                try {
+                    cache = fileAccess.readFile(factory);
+                } catch (FileIntegrityViolationException e) {
+                    // Open for writing below
                 }
-            });
+            }
+            if (cache == null) {
+                // Use writeFile because a missing or empty file is initialized when it is opened. The cache can internally
+                // recover from datafile corruption, so we don't care at this level if a file that was not unlocked cleanly is corrupt
+                fileAccess.writeFile(new Runnable() {
+                    public void run() {
+                        cache = factory.create();
+                    }
+                });
+            }
+            if (cache.isCorrupt()) {
+                rebuildCache();
+            }
         }
         return cache;
     }
+
+    private void rebuildCache() {
+        fileAccess.writeFile(new Runnable() {
+            public void run() {
+                cache.rebuildIfCorrupt();
+            }
+        });
+    }
 }
@@ -15,14 +15,14 @@
  */
 package org.gradle.cache.internal;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 import org.gradle.internal.Factory;
-import org.gradle.internal.UncheckedException;
 
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class DefaultProducerGuard<T> implements ProducerGuard<T> {
-    private final Set<T> producing = Sets.newHashSet();
+    private final Map<T, KeyLock> producing = Maps.newHashMap();
 
     /**
      * Synchronizes access to some resource, by making sure that 2 threads do not try to produce it at the same time.
@@ -31,6 +31,8 @@ public class DefaultProducerGuard<T> implements ProducerGuard<T> {
      * be 2 producers running concurrently. But once the first one finished producing something, the second factory will
      * be called. In other words, the factory should take care of caching whenever it makes sense.
      *
+     * <p>Each key has its own lock, so a producer finishing only wakes up the threads waiting for the same key.</p>
+     *
      * @param key the key used to synchronize access to a resource
      * @param factory the code that will produce a value for the given key
      * @param <V> the type of the value returned by the producer
@@ -38,22 +40,31 @@ public class DefaultProducerGuard<T> implements ProducerGuard<T> {
      */
     @Override
     public <V> V guardByKey(T key, Factory<V> factory) {
+        KeyLock keyLock;
         synchronized (producing) {
-            while (!producing.add(key)) {
-                try {
-                    producing.wait();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
-                }
+            keyLock = producing.get(key);
+            if (keyLock == null) {
+                keyLock = new KeyLock();
+                producing.put(key, keyLock);
             }
+            keyLock.users++;
         }
+        keyLock.lock();
         try {
             return factory.create();
         } finally {
+            keyLock.unlock();
             synchronized (producing) {
-                producing.remove(key);
-                producing.notifyAll();
+                keyLock.users--;
+                if (keyLock.users == 0) {
+                    producing.remove(key);
+                }
             }
         }
     }
+
+    private static class KeyLock extends ReentrantLock {
+        // Guarded by the producing map
+        int users;
+    }
 }
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.SocketAddress;
 import java.net.SocketException;
 
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
@@ -70,12 +71,33 @@ public class FileLockCommunicator {
         }
     }
 
-    public long receive() throws GracefullyStoppedException {
+    /**
+     * Notifies the given processes, which have previously pinged the owner of the given lock, that the lock has been released.
+     *
+     * <p>Uses the same message as a ping, so that a process that does not understand the notification ignores it, as it does not own the lock.</p>
+     */
+    public void confirmReleased(Iterable<SocketAddress> requesters, long lockId, String displayName) {
+        byte[] bytesToSend;
+        try {
+            bytesToSend = encode(lockId);
+        } catch (IOException e) {
+            throw throwAsUncheckedException(e);
+        }
+        for (SocketAddress requester : requesters) {
+            try {
+                socket.send(new DatagramPacket(bytesToSend, bytesToSend.length, requester));
+            } catch (IOException e) {
+                LOGGER.debug("Failed to notify {} that the lock for {} (lock id: {}) was released", requester, displayName, lockId);
+            }
+        }
+    }
+
+    public FileLockPacket receive() throws GracefullyStoppedException {
         try {
             byte[] bytes = new byte[9];
             DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
             socket.receive(packet);
-            return decode(bytes);
+            return new FileLockPacket(decode(bytes), packet.getSocketAddress());
         } catch (IOException e) {
             if (!stopped) {
                 throw new RuntimeException(e);
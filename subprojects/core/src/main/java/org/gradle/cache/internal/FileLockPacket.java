@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import java.net.SocketAddress;
+
+/**
+ * A message received by a {@link FileLockCommunicator}: either a request to release a lock owned by this process, or a notification that a lock
+ * owned by another process has been released.
+ */
+public class FileLockPacket {
+    private final long lockId;
+    private final SocketAddress sender;
+
+    public FileLockPacket(long lockId, SocketAddress sender) {
+        this.lockId = lockId;
+        this.sender = sender;
+    }
+
+    public long getLockId() {
+        return lockId;
+    }
+
+    public SocketAddress getSender() {
+        return sender;
+    }
+}
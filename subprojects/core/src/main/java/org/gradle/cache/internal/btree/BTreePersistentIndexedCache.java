@@ -53,6 +53,7 @@ public class BTreePersistentIndexedCache<K, V> {
     private final int minIndexChildNodes;
     private final StateCheckBlockStore store;
     private HeaderBlock header;
+    private boolean corrupt;
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         this(cacheFile, keySerializer, valueSerializer, (short) 512, 512);
@@ -81,10 +82,11 @@ public class BTreePersistentIndexedCache<K, V> {
 
     private void open() throws Exception {
         LOGGER.debug("Opening {}", this);
+        corrupt = false;
         try {
             doOpen();
         } catch (CorruptedCacheException e) {
-            rebuild();
+            corrupt = true;
         }
     }
 
@@ -117,6 +119,9 @@ public class BTreePersistentIndexedCache<K, V> {
     }
 
     public V get(K key) {
+        if (corrupt) {
+            return null;
+        }
         try {
             try {
                 DataBlock block = header.getRoot().get(key);
@@ -125,7 +130,7 @@ public class BTreePersistentIndexedCache<K, V> {
                 }
                 return null;
             } catch (CorruptedCacheException e) {
-                rebuild();
+                corrupt = true;
                 return null;
             }
         } catch (Exception e) {
@@ -135,6 +140,7 @@ public class BTreePersistentIndexedCache<K, V> {
 
     public void put(K key, V value) {
         try {
+            rebuildIfCorrupt();
             long hashCode = keyHasher.getHashCode(key);
             Lookup lookup = header.getRoot().find(hashCode);
             DataBlock newBlock = null;
@@ -160,6 +166,7 @@ public class BTreePersistentIndexedCache<K, V> {
 
     public void remove(K key) {
         try {
+            rebuildIfCorrupt();
             Lookup lookup = header.getRoot().find(key);
             if (lookup.entry == null) {
                 return;
@@ -203,15 +210,36 @@ public class BTreePersistentIndexedCache<K, V> {
         return store.isOpen();
     }
 
+    /**
+     * Returns true when this cache has found that its file is corrupt. Reading from a corrupt cache does not change its file, and every entry is
+     * discarded by {@link #rebuildIfCorrupt()} or by the next change to the entries.
+     */
+    public boolean isCorrupt() {
+        return corrupt;
+    }
+
+    public void rebuildIfCorrupt() {
+        if (!corrupt) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            throw new UncheckedIOException(String.format("Could not rebuild %s.", this), e);
+        }
+    }
+
     private void rebuild() throws Exception {
         LOGGER.warn("{} is corrupt. Discarding.", this);
         store.clear();
         close();
         doOpen();
+        corrupt = false;
     }
 
     public void verify() {
         try {
+            rebuildIfCorrupt();
             doVerify();
         } catch (Exception e) {
             throw new UncheckedIOException(String.format("Some problems were found when checking the integrity of %s.",
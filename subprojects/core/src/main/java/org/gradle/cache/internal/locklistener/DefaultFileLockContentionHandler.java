@@ -19,21 +19,33 @@ package org.gradle.cache.internal.locklistener;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.internal.FileLockCommunicator;
+import org.gradle.cache.internal.FileLockPacket;
 import org.gradle.cache.internal.GracefullyStoppedException;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.internal.remote.internal.inet.InetAddressFactory;
 
+import java.net.SocketAddress;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class DefaultFileLockContentionHandler implements FileLockContentionHandler, Stoppable {
     private static final Logger LOGGER = Logging.getLogger(DefaultFileLockContentionHandler.class);
     private final Lock lock = new ReentrantLock();
+    private final Condition lockReleased = lock.newCondition();
     private final Map<Long, Runnable> contendedActions = new HashMap<Long, Runnable>();
+    // Processes that have requested a lock owned by this process
+    private final Map<Long, Set<SocketAddress>> requesters = new HashMap<Long, Set<SocketAddress>>();
+    // Locks owned by other processes that this process is waiting for, and those of them that have been released
+    private final Set<Long> awaitedLocks = new HashSet<Long>();
+    private final Set<Long> releasedLocks = new HashSet<Long>();
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
 
@@ -62,20 +74,32 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
 
             private void doRun() {
                 while (true) {
-                    long lockId;
+                    FileLockPacket packet;
                     try {
-                        lockId = communicator.receive();
+                        packet = communicator.receive();
                     } catch (GracefullyStoppedException e) {
                         return;
                     }
+                    long lockId = packet.getLockId();
                     lock.lock();
                     Runnable action;
                     try {
                         action = contendedActions.get(lockId);
                         if (action == null) {
-                            //received access request for lock that is already closed
+                            if (awaitedLocks.contains(lockId)) {
+                                //received notification that a lock owned by another process has been released
+                                releasedLocks.add(lockId);
+                                lockReleased.signalAll();
+                            }
+                            //otherwise received access request for lock that is already closed
                             continue;
                         }
+                        Set<SocketAddress> lockRequesters = requesters.get(lockId);
+                        if (lockRequesters == null) {
+                            lockRequesters = new HashSet<SocketAddress>();
+                            requesters.put(lockId, lockRequesters);
+                        }
+                        lockRequesters.add(packet.getSender());
                     } finally {
                         lock.unlock();
                     }
@@ -92,10 +116,7 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
             if (communicator == null) {
                 throw new IllegalStateException("Must initialize the handler by reserving the port first.");
             }
-            if (executor == null) {
-                executor = executorFactory.create("File lock request listener");
-                executor.execute(listener());
-            }
+            startListener();
             if (contendedActions.containsKey(lockId)) {
                 throw new UnsupportedOperationException("Multiple contention actions for a given lock are currently not supported.");
             }
@@ -105,8 +126,41 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
         }
     }
 
+    private void startListener() {
+        if (executor == null) {
+            executor = executorFactory.create("File lock request listener");
+            executor.execute(listener());
+        }
+    }
+
     public void pingOwner(int port, long lockId, String displayName) {
-        getCommunicator().pingOwner(port, lockId, displayName);
+        FileLockCommunicator communicator = getCommunicator();
+        lock.lock();
+        try {
+            // Listen for the notification that the owner has released the lock
+            startListener();
+            awaitedLocks.add(lockId);
+        } finally {
+            lock.unlock();
+        }
+        communicator.pingOwner(port, lockId, displayName);
+    }
+
+    public boolean waitForRelease(long lockId, long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (!releasedLocks.remove(lockId)) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = lockReleased.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            awaitedLocks.remove(lockId);
+            lock.unlock();
+        }
     }
 
     private void assertNotStopped() {
@@ -125,11 +179,28 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
         }
     }
 
+    public void released(long lockId, String displayName) {
+        Set<SocketAddress> lockRequesters;
+        FileLockCommunicator communicator;
+        lock.lock();
+        try {
+            lockRequesters = requesters.remove(lockId);
+            communicator = this.communicator;
+            if (lockRequesters == null || stopped) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        communicator.confirmReleased(lockRequesters, lockId, displayName);
+    }
+
     public void stop() {
         lock.lock();
         try {
             stopped = true;
             contendedActions.clear();
+            requesters.clear();
             if (communicator != null) {
                 communicator.stop();
             }
@@ -21,7 +21,23 @@ public interface FileLockContentionHandler {
 
     void stop(long lockId);
 
+    /**
+     * Notifies the processes that have requested the given lock while it was owned by this process that the lock has been released.
+     * Called after the lock has been released and after {@link #stop(long)}.
+     */
+    void released(long lockId, String displayName);
+
     int reservePort();
 
+    /**
+     * Asks the owner of the given lock to release it. Also registers interest in being notified when the owner releases the lock, see {@link #waitForRelease(long, long)}.
+     */
     void pingOwner(int port, long lockId, String displayName);
+
+    /**
+     * Waits until the owner of the given lock, which has previously been pinged, notifies that it has released the lock or until the given timeout expires.
+     *
+     * @return true when the owner has notified that the lock has been released, false when the timeout has expired.
+     */
+    boolean waitForRelease(long lockId, long timeoutMs) throws InterruptedException;
 }
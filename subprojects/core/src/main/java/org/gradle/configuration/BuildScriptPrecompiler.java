@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.groovy.scripts.CachingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.CompileOperation;
+import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler;
+import org.gradle.internal.Actions;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.plugin.management.internal.PluginRequests;
+import org.gradle.plugin.management.internal.PluginRequestsSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles the initial pass of all project build scripts into the persistent script cache concurrently, before the projects are configured.
+ *
+ * <p>The initial pass of every project build script is compiled against the export class loader of the build's root class loader scope,
+ * which is known once the settings have been loaded. The second pass is compiled against the class loader of the project itself, which is only
+ * known after the initial pass has been executed, so it is not precompiled.</p>
+ *
+ * <p>Failures are ignored here. They are reported when the script is compiled again as part of configuring the project.</p>
+ */
+public class BuildScriptPrecompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptPrecompiler.class);
+
+    private final FileCacheBackedScriptClassCompiler scriptClassCompiler;
+    private final CrossBuildInMemoryCachingScriptClassCache inMemoryCache;
+    private final BuildOperationProcessor buildOperationProcessor;
+    private final DocumentationRegistry documentationRegistry;
+    private final PluginRequestsSerializer pluginRequestsSerializer = new PluginRequestsSerializer();
+
+    public BuildScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptClassCompiler, CrossBuildInMemoryCachingScriptClassCache inMemoryCache,
+                                  BuildOperationProcessor buildOperationProcessor, DocumentationRegistry documentationRegistry) {
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.inMemoryCache = inMemoryCache;
+        this.buildOperationProcessor = buildOperationProcessor;
+        this.documentationRegistry = documentationRegistry;
+    }
+
+    public void precompile(final GradleInternal gradle) {
+        if (gradle.getStartParameter().isRecompileScripts() || gradle.getStartParameter().getMaxWorkerCount() < 2) {
+            return;
+        }
+        if (gradle.getRootProject().getChildProjects().isEmpty()) {
+            return;
+        }
+        buildOperationProcessor.run(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                for (Project p : gradle.getRootProject().getAllprojects()) {
+                    ProjectInternal project = (ProjectInternal) p;
+                    ClassLoaderScope baseScope = project.getBaseClassLoaderScope();
+                    if (!baseScope.isLocked()) {
+                        continue;
+                    }
+                    ScriptSource source = CachingScriptSource.of(project.getBuildScriptSource());
+                    ProjectScriptTarget target = new ProjectScriptTarget(project);
+                    CompileOperation<PluginRequests> operation = DefaultScriptPluginFactory.initialPassOperation(source, target, documentationRegistry, pluginRequestsSerializer);
+                    ClassLoader classLoader = baseScope.getExportClassLoader();
+                    if (!source.getResource().getExists() || inMemoryCache.contains(source, classLoader, operation.getId())) {
+                        continue;
+                    }
+                    queue.add(new PrecompileInitialPass(source, target, classLoader, operation));
+                }
+            }
+        });
+    }
+
+    private class PrecompileInitialPass implements RunnableBuildOperation {
+        private final ScriptSource source;
+        private final ScriptTarget target;
+        private final ClassLoader classLoader;
+        private final CompileOperation<PluginRequests> operation;
+
+        PrecompileInitialPass(ScriptSource source, ScriptTarget target, ClassLoader classLoader, CompileOperation<PluginRequests> operation) {
+            this.source = source;
+            this.target = target;
+            this.classLoader = classLoader;
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                scriptClassCompiler.precompile(source, classLoader, operation, target.getScriptClass(), Actions.doNothing());
+            } catch (Exception e) {
+                LOGGER.debug("Could not precompile {}.", source.getDisplayName(), e);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "Precompile " + source.getDisplayName();
+        }
+    }
+}
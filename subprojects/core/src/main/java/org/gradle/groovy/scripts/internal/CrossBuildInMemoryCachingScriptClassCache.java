@@ -54,6 +54,14 @@ public class CrossBuildInMemoryCachingScriptClassCache {
         return compiledScript;
     }
 
+    /**
+     * Returns true when a compiled script for the given source, classloader and operation is already held in memory.
+     */
+    public boolean contains(ScriptSource source, ClassLoader classLoader, String operationId) {
+        CachedCompiledScript cached = cachedCompiledScripts.get(new ScriptCacheKey(source.getClassName(), classLoader, operationId));
+        return cached != null && hasher.hash(source.getResource()).equals(cached.hash);
+    }
+
     private static class CachedCompiledScript {
         private final HashCode hash;
         private final CompiledScript<?, ?> compiledScript;
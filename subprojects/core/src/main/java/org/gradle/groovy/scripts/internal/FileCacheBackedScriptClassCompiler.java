@@ -85,6 +85,27 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         }
 
         HashCode sourceHashCode = hasher.hash(source.getResource());
+        PersistentCache remappedClassesCache = openRemappedClassesCache(source, sourceHashCode, classLoader, operation, scriptBaseClass, verifier);
+
+        File remappedClassesDir = classesDir(remappedClassesCache);
+        File remappedMetadataDir = metadataDir(remappedClassesCache);
+
+        return scriptCompilationHandler.loadFromDir(source, sourceHashCode, classLoader, remappedClassesDir, remappedMetadataDir, operation, scriptBaseClass, classLoaderId);
+    }
+
+    /**
+     * Compiles the given script into the cache, without loading the resulting classes. Does nothing when the compiled script is already present in the cache.
+     * This method can be called concurrently for different scripts.
+     */
+    public <T extends Script, M> void precompile(ScriptSource source, ClassLoader classLoader, CompileOperation<M> operation, Class<T> scriptBaseClass, Action<? super ClassNode> verifier) {
+        assert source.getResource().isContentCached();
+        if (source.getResource().getHasEmptyContent()) {
+            return;
+        }
+        openRemappedClassesCache(source, hasher.hash(source.getResource()), classLoader, operation, scriptBaseClass, verifier);
+    }
+
+    private <T extends Script, M> PersistentCache openRemappedClassesCache(ScriptSource source, HashCode sourceHashCode, ClassLoader classLoader, CompileOperation<M> operation, Class<T> scriptBaseClass, Action<? super ClassNode> verifier) {
         final String sourceHash = HashUtil.compactStringFor(sourceHashCode);
         final String dslId = operation.getId();
         HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(classLoader);
@@ -108,11 +129,7 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
                 "Compiling " + source.getFileName() + " into local compilation cache"))
             .open();
         remappedClassesCache.close();
-
-        File remappedClassesDir = classesDir(remappedClassesCache);
-        File remappedMetadataDir = metadataDir(remappedClassesCache);
-
-        return scriptCompilationHandler.loadFromDir(source, sourceHashCode, classLoader, remappedClassesDir, remappedMetadataDir, operation, scriptBaseClass, classLoaderId);
+        return remappedClassesCache;
     }
 
     private <T extends Script, M> CompiledScript<T, M> emptyCompiledScript(ClassLoaderId classLoaderId, CompileOperation<M> operation) {
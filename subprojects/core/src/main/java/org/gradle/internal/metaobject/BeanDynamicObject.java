@@ -24,6 +24,7 @@ import groovy.lang.MetaMethod;
 import groovy.lang.MetaProperty;
 import groovy.lang.MissingMethodException;
 import groovy.lang.MissingPropertyException;
+import org.codehaus.groovy.runtime.GroovyCategorySupport;
 import org.codehaus.groovy.runtime.InvokerInvocationException;
 import org.codehaus.groovy.runtime.MetaClassHelper;
 import org.codehaus.groovy.runtime.metaclass.MultipleSetterProperty;
@@ -36,6 +37,8 @@ import org.gradle.api.internal.coerce.StringToEnumTransformer;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -44,6 +47,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link DynamicObject} which uses groovy reflection to provide access to the properties and methods of a bean.
@@ -65,6 +71,8 @@ public class BeanDynamicObject extends AbstractDynamicObject {
     private static final Field MISSING_PROPERTY_GET_METHOD;
     private static final Field MISSING_PROPERTY_SET_METHOD;
     private static final Field MISSING_METHOD_METHOD;
+    private static final Reference<MetaMethod> NO_METHOD = new WeakReference<MetaMethod>(null);
+    private static final WeakHashMap<MetaClass, MethodSelections> METHOD_SELECTIONS = new WeakHashMap<MetaClass, MethodSelections>();
     private final Object bean;
     private final boolean includeProperties;
     private final MetaClassAdapter delegate;
@@ -165,6 +173,25 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         return !JavaReflectionUtil.hasDefaultToString(bean);
     }
 
+    /**
+     * Returns the lookup results shared by all beans with the given meta-class, or null when the results of a lookup cannot be reused.
+     */
+    @Nullable
+    private static MethodSelections sharedMethodSelectionsFor(MetaClass metaClass) {
+        // Other meta-class implementations, such as ExpandoMetaClass, can change after they have been initialized
+        if (metaClass.getClass() != MetaClassImpl.class) {
+            return null;
+        }
+        synchronized (METHOD_SELECTIONS) {
+            MethodSelections selections = METHOD_SELECTIONS.get(metaClass);
+            if (selections == null) {
+                selections = new MethodSelections(metaClass);
+                METHOD_SELECTIONS.put(metaClass, selections);
+            }
+            return selections;
+        }
+    }
+
     private MetaClass getMetaClass() {
         if (bean instanceof GroovyObject) {
             return ((GroovyObject) bean).getMetaClass();
@@ -204,6 +231,8 @@ public class BeanDynamicObject extends AbstractDynamicObject {
     }
 
     private class MetaClassAdapter {
+        private MethodSelections selections;
+
         protected String getDisplayName() {
             return BeanDynamicObject.this.getDisplayName();
         }
@@ -522,9 +551,27 @@ public class BeanDynamicObject extends AbstractDynamicObject {
 
         @Nullable
         protected MetaMethod lookupMethod(MetaClass metaClass, String name, Class[] arguments) {
+            MethodSelections selections = methodSelectionsFor(metaClass);
+            if (selections != null) {
+                return selections.pickMethod(metaClass, name, arguments);
+            }
             return metaClass.pickMethod(name, arguments);
         }
 
+        @Nullable
+        private MethodSelections methodSelectionsFor(MetaClass metaClass) {
+            // Category methods are only visible to the current thread
+            if (GroovyCategorySupport.hasCategoryInCurrentThread()) {
+                return null;
+            }
+            MethodSelections selections = this.selections;
+            if (selections == null || !selections.isFor(metaClass)) {
+                selections = sharedMethodSelectionsFor(metaClass);
+                this.selections = selections;
+            }
+            return selections;
+        }
+
         protected DynamicInvokeResult invokeOpaqueMethod(MetaClass metaClass, String name, Object[] arguments) {
             MetaMethod methodMissingMethod = findMethodMissingMethod(metaClass);
             if (methodMissingMethod != null) {
@@ -548,6 +595,72 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
     }
 
+    /**
+     * The methods selected by a meta-class that cannot change, for the arguments that each method was last called with. Selecting a method is
+     * expensive when it has overloads, and a method is usually called with the same argument types over and over again, so remembering the last
+     * selection avoids most of this work. Also remembers when no method was selected, as is the case when the method is provided by some other
+     * object, such as an extension or a convention object.
+     *
+     * <p>Does not strongly reference the meta-class, the argument types or the selected methods, so that the meta-class and the types can be
+     * garbage collected.</p>
+     */
+    private static class MethodSelections {
+        private final WeakReference<MetaClass> metaClass;
+        private final ConcurrentMap<String, MethodSelection> methods = new ConcurrentHashMap<String, MethodSelection>();
+
+        MethodSelections(MetaClass metaClass) {
+            this.metaClass = new WeakReference<MetaClass>(metaClass);
+        }
+
+        boolean isFor(MetaClass metaClass) {
+            return this.metaClass.get() == metaClass;
+        }
+
+        @Nullable
+        MetaMethod pickMethod(MetaClass metaClass, String name, Class[] argumentTypes) {
+            MethodSelection selection = methods.get(name);
+            if (selection != null && selection.isFor(argumentTypes)) {
+                if (selection.method == NO_METHOD) {
+                    return null;
+                }
+                MetaMethod method = selection.method.get();
+                if (method != null) {
+                    return method;
+                }
+            }
+            MetaMethod method = metaClass.pickMethod(name, argumentTypes);
+            methods.put(name, new MethodSelection(argumentTypes, method));
+            return method;
+        }
+    }
+
+    private static class MethodSelection {
+        private final WeakReference<?>[] argumentTypes;
+        private final Reference<MetaMethod> method;
+
+        MethodSelection(Class[] argumentTypes, @Nullable MetaMethod method) {
+            this.argumentTypes = new WeakReference<?>[argumentTypes.length];
+            for (int i = 0; i < argumentTypes.length; i++) {
+                // A null type represents a null argument
+                this.argumentTypes[i] = argumentTypes[i] == null ? null : new WeakReference<Class<?>>(argumentTypes[i]);
+            }
+            this.method = method == null ? NO_METHOD : new WeakReference<MetaMethod>(method);
+        }
+
+        boolean isFor(Class[] argumentTypes) {
+            if (argumentTypes.length != this.argumentTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < argumentTypes.length; i++) {
+                WeakReference<?> type = this.argumentTypes[i];
+                if (type == null ? argumentTypes[i] != null : argumentTypes[i] == null || type.get() != argumentTypes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /*
        The GroovyObject interface defines dynamic property and dynamic method methods. Implementers
        are free to implement their own logic in these methods which makes it invisible to the metaclass.
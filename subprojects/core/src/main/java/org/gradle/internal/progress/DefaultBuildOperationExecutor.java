@@ -22,6 +22,7 @@ import org.gradle.api.Transformer;
 import org.gradle.internal.Transformers;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.GradleThread;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.events.OperationIdentifier;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
@@ -37,14 +38,16 @@ public class DefaultBuildOperationExecutor implements BuildOperationExecutor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBuildOperationExecutor.class);
 
+    private final ListenerManager listenerManager;
     private final BuildOperationListener listener;
     private final TimeProvider timeProvider;
     private final ProgressLoggerFactory progressLoggerFactory;
     private final AtomicLong nextId = new AtomicLong();
     private final ThreadLocal<OperationDetails> currentOperation = new ThreadLocal<OperationDetails>();
 
-    public DefaultBuildOperationExecutor(BuildOperationListener listener, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
-        this.listener = listener;
+    public DefaultBuildOperationExecutor(ListenerManager listenerManager, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
+        this.listenerManager = listenerManager;
+        this.listener = listenerManager.getBroadcaster(BuildOperationListener.class);
         this.timeProvider = timeProvider;
         this.progressLoggerFactory = progressLoggerFactory;
     }
@@ -96,9 +99,16 @@ public class DefaultBuildOperationExecutor implements BuildOperationExecutor {
         currentOperation.setRunning(true);
         this.currentOperation.set(currentOperation);
         try {
-            long startTime = timeProvider.getCurrentTime();
-            BuildOperationInternal operation = new BuildOperationInternal(id, parentId, operationDetails.getName(), operationDetails.getDisplayName(), operationDetails.getOperationDescriptor());
-            listener.started(operation, new OperationStartEvent(startTime));
+            // Only create the events when somebody is listening. The decision is made once per operation, so that a listener is never
+            // notified of the completion of an operation that it did not see start
+            boolean notifyListeners = listenerManager.hasListeners(BuildOperationListener.class);
+            long startTime = 0;
+            BuildOperationInternal operation = null;
+            if (notifyListeners) {
+                startTime = timeProvider.getCurrentTime();
+                operation = new BuildOperationInternal(id, parentId, operationDetails.getName(), operationDetails.getDisplayName(), operationDetails.getOperationDescriptor());
+                listener.started(operation, new OperationStartEvent(startTime));
+            }
 
             T result = null;
             Throwable failure = null;
@@ -114,7 +124,7 @@ public class DefaultBuildOperationExecutor implements BuildOperationExecutor {
                     progressLogger = null;
                 }
 
-                LOGGER.debug("Build operation '{}' started", operation.getDisplayName());
+                LOGGER.debug("Build operation '{}' started", operationDetails.getDisplayName());
                 try {
                     result = factory.transform(context);
                 } finally {
@@ -130,14 +140,16 @@ public class DefaultBuildOperationExecutor implements BuildOperationExecutor {
                 failure = t;
             }
 
-            long endTime = timeProvider.getCurrentTime();
-            listener.finished(operation, new OperationResult(startTime, endTime, context.failure));
+            if (notifyListeners) {
+                long endTime = timeProvider.getCurrentTime();
+                listener.finished(operation, new OperationResult(startTime, endTime, context.failure));
+            }
 
             if (failure != null) {
                 throw UncheckedException.throwAsUncheckedException(failure);
             }
 
-            LOGGER.debug("Build operation '{}' completed", operation.getDisplayName());
+            LOGGER.debug("Build operation '{}' completed", operationDetails.getDisplayName());
             return result;
         } finally {
             this.currentOperation.set(operationBefore);
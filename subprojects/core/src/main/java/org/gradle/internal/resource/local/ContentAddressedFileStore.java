@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Keeps a single copy of each distinct file content, named after the SHA1 hash of the content, and makes the content available at other
+ * locations using hard links. Where a hard link cannot be created, the content is stored only at the destination, so that it is never kept twice.
+ *
+ * Like the other file stores, files are only ever added and never modified once added. Locking is required to add entries.
+ */
+public class ContentAddressedFileStore {
+    private final File baseDir;
+    private volatile boolean hardLinksSupported;
+
+    public ContentAddressedFileStore(File baseDir) {
+        this(baseDir, JavaVersion.current().isJava7Compatible());
+    }
+
+    ContentAddressedFileStore(File baseDir, boolean hardLinksSupported) {
+        this.baseDir = baseDir;
+        this.hardLinksSupported = hardLinksSupported;
+    }
+
+    /**
+     * Makes the content of the given source file available at the given destination, which must not exist.
+     * When the content is already present in this store, the destination is linked to it and the source is left untouched. Otherwise, the source
+     * is moved or copied to the destination, and the destination is added to this store by linking it.
+     *
+     * @param sha1 The SHA1 hash of the content of the source file, as a hex string.
+     */
+    public void materialize(String sha1, File source, File destination, boolean moveSource) {
+        File contentFile = new File(baseDir, sha1.substring(0, Math.min(2, sha1.length())) + "/" + sha1);
+        if (contentFile.isFile() && link(contentFile, destination)) {
+            return;
+        }
+
+        if (moveSource) {
+            GFileUtils.moveFile(source, destination);
+        } else {
+            GFileUtils.copyFile(source, destination);
+        }
+        if (!contentFile.exists()) {
+            // The link is only created once the destination is complete, so a partially written file is never used
+            link(destination, contentFile);
+        }
+    }
+
+    private boolean link(File existing, File link) {
+        if (!hardLinksSupported) {
+            return false;
+        }
+        try {
+            GFileUtils.parentMkdirs(link);
+            Files.createLink(link.toPath(), existing.toPath());
+            return true;
+        } catch (UnsupportedOperationException e) {
+            hardLinksSupported = false;
+            return false;
+        } catch (IOException e) {
+            // For example, the file system does not support links, the maximum number of links has been reached or another process has added the link
+            return false;
+        }
+    }
+}
@@ -19,12 +19,15 @@ import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.hash.HashUtil;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
 import java.util.Set;
 
 /**
  * A file store that stores items grouped by some provided function over the key and an SHA1 hash of the value. This means that files are only ever added and never modified once added, so a resource from this store can be used without locking. Locking is required to add entries.
+ *
+ * When a {@link ContentAddressedFileStore} is provided, the content of each file is kept only once in that store, and entries with the same content are linked to it.
  */
 public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStoreSearcher<K> {
 
@@ -32,21 +35,45 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
     private final TemporaryFileProvider temporaryFileProvider;
     private final Transformer<String, K> grouper;
     private final Transformer<String, K> namer;
+    private final ContentAddressedFileStore contentStore;
 
 
     public GroupedAndNamedUniqueFileStore(PathKeyFileStore delegate, TemporaryFileProvider temporaryFileProvider, Transformer<String, K> grouper, Transformer<String, K> namer) {
+        this(delegate, temporaryFileProvider, grouper, namer, null);
+    }
+
+    public GroupedAndNamedUniqueFileStore(PathKeyFileStore delegate, TemporaryFileProvider temporaryFileProvider, Transformer<String, K> grouper, Transformer<String, K> namer, ContentAddressedFileStore contentStore) {
         this.delegate = delegate;
         this.temporaryFileProvider = temporaryFileProvider;
         this.grouper = grouper;
         this.namer = namer;
+        this.contentStore = contentStore;
     }
 
     public LocallyAvailableResource move(K key, File source) {
-        return delegate.move(toPath(key, getChecksum(source)), source);
+        return store(key, source, true);
     }
 
     public LocallyAvailableResource copy(K key, File source) {
-        return delegate.copy(toPath(key, getChecksum(source)), source);
+        return store(key, source, false);
+    }
+
+    private LocallyAvailableResource store(K key, final File source, final boolean isMove) {
+        final String checksum = getChecksum(source);
+        String path = toPath(key, checksum);
+        if (contentStore == null) {
+            return isMove ? delegate.move(path, source) : delegate.copy(path, source);
+        }
+        LocallyAvailableResource entry = delegate.add(path, new Action<File>() {
+            @Override
+            public void execute(File file) {
+                contentStore.materialize(checksum, source, file, isMove);
+            }
+        });
+        if (isMove && source.exists()) {
+            GFileUtils.deleteQuietly(source);
+        }
+        return entry;
     }
 
     public Set<? extends LocallyAvailableResource> search(K key) {
@@ -77,7 +104,6 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
         //and reexecuting the action isn't acceptable
         final File tempFile = getTempFile();
         addAction.execute(tempFile);
-        final String groupedAndNamedKey = toPath(key, getChecksum(tempFile));
-        return delegate.move(groupedAndNamedKey, tempFile);
+        return store(key, tempFile, true);
     }
 }
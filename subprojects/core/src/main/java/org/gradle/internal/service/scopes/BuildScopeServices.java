@@ -79,6 +79,7 @@ import org.gradle.caching.internal.tasks.TaskExecutionStatisticsEventAdapter;
 import org.gradle.caching.internal.tasks.statistics.TaskExecutionStatisticsListener;
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.BuildScriptPrecompiler;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultInitScriptProcessor;
 import org.gradle.configuration.DefaultScriptPluginFactory;
@@ -142,6 +143,7 @@ import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.operations.logging.BuildOperationLoggerFactory;
 import org.gradle.internal.operations.logging.DefaultBuildOperationLoggerFactory;
 import org.gradle.internal.progress.BuildOperationExecutor;
@@ -380,8 +382,13 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new TaskPathProjectEvaluator(cancellationToken);
     }
 
-    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
-        return new DefaultBuildConfigurer(projectConfigurer);
+    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer, BuildScriptPrecompiler buildScriptPrecompiler) {
+        return new DefaultBuildConfigurer(projectConfigurer, buildScriptPrecompiler);
+    }
+
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptCompiler, CrossBuildInMemoryCachingScriptClassCache cache,
+                                                                  BuildOperationProcessor buildOperationProcessor, DocumentationRegistry documentationRegistry) {
+        return new BuildScriptPrecompiler(scriptCompiler, cache, buildOperationProcessor, documentationRegistry);
     }
 
     protected ProjectAccessListener createProjectAccessListener() {
@@ -21,7 +21,6 @@ import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.internal.progress.BuildOperationExecutor;
-import org.gradle.internal.progress.BuildOperationListener;
 import org.gradle.internal.progress.DefaultBuildOperationExecutor;
 import org.gradle.internal.service.scopes.GlobalScopeServices;
 import org.gradle.internal.time.TimeProvider;
@@ -37,12 +36,12 @@ public class TestGlobalScopeServices extends GlobalScopeServices {
     }
 
     BuildOperationExecutor createBuildOperationExecutor(ListenerManager listenerManager, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
-        return new ProjectBuilderBuildOperationExecutor(listenerManager.getBroadcaster(BuildOperationListener.class), timeProvider, progressLoggerFactory);
+        return new ProjectBuilderBuildOperationExecutor(listenerManager, timeProvider, progressLoggerFactory);
     }
 
     private static class ProjectBuilderBuildOperationExecutor extends DefaultBuildOperationExecutor {
-        ProjectBuilderBuildOperationExecutor(BuildOperationListener listener, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
-            super(listener, timeProvider, progressLoggerFactory);
+        ProjectBuilderBuildOperationExecutor(ListenerManager listenerManager, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
+            super(listenerManager, timeProvider, progressLoggerFactory);
             createRunningRootOperation("ProjectBuilder");
         }
     }
@@ -36,4 +36,34 @@ class DefaultFileTreeElementTest extends Specification {
         expect:
         e.mode == 0644
     }
+
+    def "copies content of file to target file"() {
+        def f = tmpDir.createFile("f")
+        f.text = "content"
+        def target = tmpDir.file("dir/target")
+        target.text = "other content"
+        def e = new DefaultFileTreeElement(f, null, Stub(Chmod), Stub(Stat))
+
+        when:
+        e.copyTo(target)
+
+        then:
+        target.text == "content"
+    }
+
+    def "does not rewrite target file that already has the same content"() {
+        def f = tmpDir.createFile("f")
+        f.text = "content"
+        def target = tmpDir.file("target")
+        target.text = "content"
+        target.lastModified = 1000
+        def e = new DefaultFileTreeElement(f, null, Stub(Chmod), Stub(Stat))
+
+        when:
+        e.copyTo(target)
+
+        then:
+        target.text == "content"
+        target.lastModified() == 1000
+    }
 }
@@ -31,6 +31,9 @@ import org.junit.Rule
 import org.junit.Test
 import spock.lang.Specification
 
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+
 import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit
 import static org.hamcrest.Matchers.equalTo
 
@@ -74,6 +77,28 @@ class ZipCopyActionTest extends Specification {
         expandDir.file("file2").assertContents(equalTo("contents of file2"))
     }
 
+    void storesEntriesThatAreAlreadyCompressed() {
+        given:
+        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipOutputStream.DEFLATED), new DocumentationRegistry(), encoding, false)
+        zip(file("lib/library.jar"), file("dist.ZIP"), file("file.txt"))
+
+        when:
+        def archive = new ZipFile(zipFile)
+        def methods = Collections.list(archive.entries()).collectEntries { [it.name, it.method] }
+        archive.close()
+
+        then:
+        methods == ["lib/library.jar": ZipEntry.STORED, "dist.ZIP": ZipEntry.STORED, "file.txt": ZipEntry.DEFLATED]
+
+        when:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("lib/library.jar").assertContents(equalTo("contents of lib/library.jar"))
+        expandDir.file("file.txt").assertContents(equalTo("contents of file.txt"))
+    }
+
     void zipFileContainsExpectedPermissions() {
         given:
         zip(dir("dir"), file("file"))
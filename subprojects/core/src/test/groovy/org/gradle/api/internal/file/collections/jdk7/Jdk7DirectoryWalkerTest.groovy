@@ -107,7 +107,33 @@ class Jdk7DirectoryWalkerTest extends Specification {
         !visited.contains(doesNotExist.absolutePath)
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ReproducibleDirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(TestFiles.fileSystem()), new Jdk7DirectoryWalker(TestFiles.fileSystem()), new ReproducibleDirectoryWalker(TestFiles.fileSystem())]
+    }
+
+    @Requires(TestPrecondition.UNIX_DERIVATIVE)
+    @Unroll
+    def "named pipes are ignored - walker: #walkerInstance.class.simpleName"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        def textFile = rootDir.file("a.txt").createFile()
+        def pipe = rootDir.file("a/pipe")
+        pipe.parentFile.mkdirs()
+        assert ["mkfifo", pipe.absolutePath].execute().waitFor() == 0
+
+        def fileTree = new DirectoryFileTree(rootDir, new PatternSet(), { walkerInstance } as Factory, TestFiles.fileSystem(), false)
+        def visitedFiles = []
+        def visitedDirs = []
+        def fileVisitor = [visitFile: { visitedFiles << it.file }, visitDir: { visitedDirs << it.file }] as FileVisitor
+
+        when:
+        fileTree.visit(fileVisitor)
+
+        then:
+        visitedFiles == [textFile]
+        visitedDirs == [rootDir.file("a")]
+
+        where:
+        walkerInstance << [new DefaultDirectoryWalker(TestFiles.fileSystem()), new Jdk7DirectoryWalker(TestFiles.fileSystem()), new ReproducibleDirectoryWalker(TestFiles.fileSystem())]
     }
 
     def "both DirectoryWalker implementations return same set of files and attributes"() {
@@ -116,8 +142,8 @@ class Jdk7DirectoryWalkerTest extends Specification {
         generateFilesAndSubDirectories(rootDir, 10, 5, 3, 1, new AtomicInteger(0))
 
         when:
-        def visitedWithJdk7Walker = walkFiles(rootDir, new Jdk7DirectoryWalker())
-        def visitedWithDefaultWalker = walkFiles(rootDir, new DefaultDirectoryWalker())
+        def visitedWithJdk7Walker = walkFiles(rootDir, new Jdk7DirectoryWalker(TestFiles.fileSystem()))
+        def visitedWithDefaultWalker = walkFiles(rootDir, new DefaultDirectoryWalker(TestFiles.fileSystem()))
 
         then:
         visitedWithDefaultWalker.size() == 340
@@ -189,7 +215,7 @@ class Jdk7DirectoryWalkerTest extends Specification {
         link.delete()
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ReproducibleDirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(TestFiles.fileSystem()), new Jdk7DirectoryWalker(TestFiles.fileSystem()), new ReproducibleDirectoryWalker(TestFiles.fileSystem())]
     }
 
     @Requires(TestPrecondition.SYMLINKS)
@@ -220,7 +246,7 @@ class Jdk7DirectoryWalkerTest extends Specification {
         link.delete()
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ReproducibleDirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(TestFiles.fileSystem()), new Jdk7DirectoryWalker(TestFiles.fileSystem()), new ReproducibleDirectoryWalker(TestFiles.fileSystem())]
     }
 
     @Requires(TestPrecondition.SYMLINKS)
@@ -249,7 +275,7 @@ class Jdk7DirectoryWalkerTest extends Specification {
         link.delete()
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ReproducibleDirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(TestFiles.fileSystem()), new Jdk7DirectoryWalker(TestFiles.fileSystem()), new ReproducibleDirectoryWalker(TestFiles.fileSystem())]
     }
 
     @Issue("GRADLE-3400")
@@ -283,10 +309,11 @@ class Jdk7DirectoryWalkerTest extends Specification {
         link.delete()
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ReproducibleDirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(TestFiles.fileSystem()), new Jdk7DirectoryWalker(TestFiles.fileSystem()), new ReproducibleDirectoryWalker(TestFiles.fileSystem())]
     }
 
-    def "file walker sees a snapshot of file metadata even if files are deleted after walking has started"() {
+    @Unroll
+    def "file walker sees a snapshot of file metadata even if files are deleted after walking has started - walker: #walkerInstance.class.simpleName"() {
         given:
         def rootDir = tmpDir.createDir("root")
         def minimumTimestamp = (System.currentTimeMillis()/1000 * 1000) - 1000
@@ -296,7 +323,6 @@ class Jdk7DirectoryWalkerTest extends Specification {
         file2 << '12345'
         def file3 = rootDir.createFile("a/b/3.txt")
         file3 << '12345'
-        def walkerInstance = new Jdk7DirectoryWalker()
         def fileTree = new DirectoryFileTree(rootDir, new PatternSet(), { walkerInstance } as Factory, TestFiles.fileSystem(), false)
         def visitedFiles = []
         def visitedDirectories = []
@@ -315,6 +341,9 @@ class Jdk7DirectoryWalkerTest extends Specification {
         visitedDirectories.every {
             it.isDirectory()
         }
+
+        where:
+        walkerInstance << [new DefaultDirectoryWalker(TestFiles.fileSystem()), new Jdk7DirectoryWalker(TestFiles.fileSystem()), new ReproducibleDirectoryWalker(TestFiles.fileSystem())]
     }
 
 }
@@ -54,4 +54,28 @@ class SyncCopyActionDecoratorTest extends WorkspaceTest {
         file("dest").assertHasDescendants("subdir/included.txt", "included.txt");
     }
 
+    void deletesDirectoriesThatContainNothingThatWasCopied() {
+        given:
+        file("src").with {
+            createFile("subdir/included.txt")
+        }
+
+        file("dest").with {
+            createFile("subdir/included.txt")
+            createFile("extra/nested/extra.txt")
+            createFile("extra/extra.txt")
+        }
+
+        when:
+        def result = copier.sync({
+            it.from "src"
+            it.into "dest"
+        } as Action)
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants("subdir/included.txt")
+        !file("dest/extra").exists()
+    }
+
 }
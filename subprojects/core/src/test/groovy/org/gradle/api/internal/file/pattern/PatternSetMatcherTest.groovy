@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern
+
+import org.apache.tools.ant.DirectoryScanner
+import org.gradle.api.file.RelativePath
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PatternSetMatcherTest extends Specification {
+    static final List<String> PATTERNS = ["**/CVS", "**/.git/**", "**/*~", "a/b/**/*.java", "a/**", "a\\c", "b/", "*/x/**", "**/a/**/b", "**/?b", ""]
+    static final List<String> SEGMENTS = ["a", "b", "c", "x", "ab", "CVS", "cvs", ".git", "Foo.java", "foo~"]
+
+    @Unroll
+    def "matches the same paths as the patterns it is made of when partialMatchDirs = #partialMatchDirs and caseSensitive = #caseSensitive"() {
+        def random = new Random(42)
+
+        expect:
+        1000.times {
+            def patterns = (0..<random.nextInt(5)).collect { PATTERNS[random.nextInt(PATTERNS.size())] }
+            def matcher = PatternMatcherFactory.getPatternsMatcher(partialMatchDirs, caseSensitive, patterns)
+            def singleMatchers = patterns.collect { PatternMatcherFactory.getPatternMatcher(partialMatchDirs, caseSensitive, it) }
+            def path = new RelativePath(random.nextBoolean(), (0..<random.nextInt(5)).collect { SEGMENTS[random.nextInt(SEGMENTS.size())] } as String[])
+            assert matcher.isSatisfiedBy(path) == singleMatchers.any { it.isSatisfiedBy(path) }, "patterns $patterns, path $path"
+        }
+
+        where:
+        partialMatchDirs | caseSensitive
+        true             | true
+        true             | false
+        false            | true
+        false            | false
+    }
+
+    def "matches the default excludes"() {
+        def matcher = PatternMatcherFactory.getPatternsMatcher(false, true, DirectoryScanner.defaultExcludes as List)
+
+        expect:
+        matcher.isSatisfiedBy(file("src", ".gitignore"))
+        matcher.isSatisfiedBy(file("src", ".git", "config"))
+        matcher.isSatisfiedBy(dir("src", "CVS"))
+        matcher.isSatisfiedBy(file("src", "Foo.java~"))
+        !matcher.isSatisfiedBy(file("src", "Foo.java"))
+        !matcher.isSatisfiedBy(dir("src", "git"))
+    }
+
+    def "only accepts directories that may contain a match of a pattern starting with a fixed segment"() {
+        def matcher = PatternMatcherFactory.getPatternsMatcher(true, true, ["com/acme/**/*.java", "org/gradle/*.java"])
+
+        expect:
+        matcher.isSatisfiedBy(dir())
+        matcher.isSatisfiedBy(dir("com"))
+        matcher.isSatisfiedBy(dir("com", "acme", "util"))
+        matcher.isSatisfiedBy(dir("org", "gradle"))
+        !matcher.isSatisfiedBy(dir("net"))
+        !matcher.isSatisfiedBy(dir("com", "other"))
+        !matcher.isSatisfiedBy(dir("org", "gradle", "api"))
+        matcher.isSatisfiedBy(file("com", "acme", "Foo.java"))
+        !matcher.isSatisfiedBy(file("com", "Foo.java"))
+    }
+
+    private static RelativePath file(String... segments) {
+        new RelativePath(true, segments)
+    }
+
+    private static RelativePath dir(String... segments) {
+        new RelativePath(false, segments)
+    }
+}
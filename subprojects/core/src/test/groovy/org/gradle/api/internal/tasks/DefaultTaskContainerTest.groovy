@@ -31,6 +31,7 @@ import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.model.internal.registry.DefaultModelRegistry
 import org.gradle.util.GUtil
 import spock.lang.Specification
+import spock.lang.Unroll
 
 import static java.util.Collections.singletonMap
 
@@ -356,6 +357,150 @@ public class DefaultTaskContainerTest extends Specification {
         container.names == ['task1', 'task2'] as SortedSet
     }
 
+    void "task defined using createLater is not created until it is requested"() {
+        def action = Mock(Action)
+
+        when:
+        def provider = container.createLater("task", DefaultTask, action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+
+        and:
+        container.names == ['task'] as SortedSet
+
+        when:
+        def result = container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> { task(it[0], it[1]) }
+        1 * action.execute(_)
+
+        and:
+        provider.present
+        provider.get() == result
+    }
+
+    void "task defined using createLater is created when provider is queried"() {
+        given:
+        def provider = container.createLater("task", DefaultTask)
+
+        when:
+        def result = provider.get()
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> { task(it[0], it[1]) }
+
+        and:
+        container.findByName("task") == result
+    }
+
+    void "task defined using createLater is created when container is iterated"() {
+        given:
+        addTask("task1")
+        container.createLater("task2", DefaultTask)
+
+        when:
+        def tasks = container.toList()
+
+        then:
+        1 * taskFactory.create("task2", DefaultTask) >> { task(it[0], it[1]) }
+
+        and:
+        tasks*.name == ['task1', 'task2']
+    }
+
+    @Unroll
+    void "task defined using createLater is created when filtered view is queried using #method"() {
+        given:
+        addTask("task1")
+        container.createLater("task2", DefaultTask)
+
+        when:
+        def result = query(container.matching { it.name != "other" })
+
+        then:
+        1 * taskFactory.create("task2", DefaultTask) >> { task(it[0], it[1]) }
+
+        and:
+        result == expected
+
+        where:
+        method       | query                                        | expected
+        "iterator"   | { tasks -> tasks.collect { it.name } }       | ['task1', 'task2']
+        "size"       | { tasks -> tasks.size() }                    | 2
+        "getAsMap"   | { tasks -> tasks.asMap.keySet() as List }    | ['task1', 'task2']
+        "getNames"   | { tasks -> tasks.names as List }             | ['task1', 'task2']
+        "findByName" | { tasks -> tasks.findByName("task2").name }  | "task2"
+    }
+
+    void "task defined using createLater is created when view filtered by type is queried"() {
+        given:
+        addTask("task1")
+        container.createLater("task2", DefaultTask)
+
+        when:
+        def tasks = container.withType(DefaultTask).matching { true }
+
+        then:
+        0 * taskFactory._
+
+        when:
+        def names = tasks*.name
+
+        then:
+        1 * taskFactory.create("task2", DefaultTask) >> { task(it[0], it[1]) }
+
+        and:
+        names == ['task2']
+        tasks.asMap.keySet() as List == ['task2']
+    }
+
+    void "all action is not passed task defined using createLater until it is created"() {
+        def action = Mock(Action)
+
+        given:
+        container.createLater("task", DefaultTask)
+
+        when:
+        container.all(action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+
+        when:
+        container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> { task(it[0], it[1]) }
+        1 * action.execute({ it.name == "task" })
+    }
+
+    void "cannot define task using createLater when task with that name already exists"() {
+        given:
+        addTask("task")
+
+        when:
+        container.createLater("task", DefaultTask)
+
+        then:
+        def ex = thrown(InvalidUserDataException)
+        ex.message == "Cannot add task 'task' as a task with that name already exists."
+    }
+
+    void "cannot create task when task with that name has been defined using createLater"() {
+        given:
+        container.createLater("task", DefaultTask)
+
+        when:
+        addTask("task")
+
+        then:
+        thrown(InvalidUserDataException)
+    }
+
     void "maybeCreate creates new task"() {
         given:
         def options = singletonMap(Task.TASK_NAME, "task")
@@ -20,6 +20,7 @@ import org.gradle.internal.typeconversion.UnsupportedNotationException
 import java.util.concurrent.Callable
 import org.gradle.api.Buildable
 import org.gradle.api.Task
+import org.gradle.api.provider.Provider
 import org.gradle.api.tasks.TaskDependency
 import org.gradle.util.JUnit4GroovyMockery
 import org.gradle.util.WrapUtil
@@ -158,6 +159,20 @@ public class DefaultTaskDependencyTest {
         assertThat(dependency.getDependencies(task), isEmpty());
     }
 
+    @Test
+    public void canDependOnAProvider() {
+        Provider provider = context.mock(Provider)
+
+        dependency.add(provider)
+
+        context.checking {
+            one(provider).getOrNull()
+            will(returnValue(otherTask))
+        }
+
+        assertThat(dependency.getDependencies(task), equalTo(toSet(otherTask)));
+    }
+
     @Test
     public void failsForOtherTypes() {
         dependency.add(12)
@@ -18,8 +18,10 @@ package org.gradle.cache.internal
 import org.gradle.api.Action
 import org.gradle.cache.CacheBuilder
 import org.gradle.cache.CacheValidator
+import org.gradle.cache.PersistentCache
 import org.gradle.cache.internal.locklistener.NoOpFileLockContentionHandler
 import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.test.fixtures.ConcurrentTestUtil
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -220,4 +222,54 @@ class DefaultCacheFactoryTest extends Specification {
         cleanup:
         factory.close()
     }
+
+    public void "can open another cache from a different thread while a cache is being initialized"() {
+        def otherDir = tmpDir.file("other")
+        def thread
+        Action<PersistentCache> initializer = {
+            thread = new Thread({
+                factory.open(otherDir, null, null, [prop: 'value'], CacheBuilder.LockTarget.DefaultTarget, mode(Exclusive), null).close()
+            })
+            thread.start()
+            thread.join(10000)
+        }
+
+        when:
+        def cache = factory.open(tmpDir.file("cache"), null, null, [prop: 'value'], CacheBuilder.LockTarget.DefaultTarget, mode(Exclusive), initializer)
+
+        then:
+        !thread.alive
+
+        cleanup:
+        cache?.close()
+        factory.close()
+    }
+
+    public void "can close factory while a cache is being initialized by an initializer that opens another cache"() {
+        def otherDir = tmpDir.file("other")
+        def closer = new Thread({ factory.close() })
+        def opener
+        Action<PersistentCache> initializer = {
+            closer.start()
+            ConcurrentTestUtil.poll { assert closer.state == Thread.State.WAITING }
+            opener = new Thread({
+                factory.open(otherDir, null, null, [prop: 'value'], CacheBuilder.LockTarget.DefaultTarget, mode(Exclusive), null).close()
+            })
+            opener.start()
+            opener.join(10000)
+        }
+
+        when:
+        def cache = factory.open(tmpDir.file("cache"), null, null, [prop: 'value'], CacheBuilder.LockTarget.DefaultTarget, mode(Exclusive), initializer)
+        closer.join(10000)
+
+        then:
+        !opener.alive
+        !closer.alive
+        1 * closed.execute({ it.baseDir == tmpDir.file("cache") })
+
+        cleanup:
+        cache?.close()
+        factory.close()
+    }
 }
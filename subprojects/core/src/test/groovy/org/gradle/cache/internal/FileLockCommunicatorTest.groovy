@@ -26,6 +26,7 @@ class FileLockCommunicatorTest extends ConcurrentSpecification {
 
     def communicator = new FileLockCommunicator(new InetAddressFactory())
     Long receivedId
+    FileLockPacket receivedPacket
 
     def cleanup() {
         communicator.stop()
@@ -46,7 +47,7 @@ class FileLockCommunicatorTest extends ConcurrentSpecification {
 
     def "can receive lock id"() {
         start {
-            receivedId = communicator.receive()
+            receivedId = communicator.receive().lockId
         }
 
         poll {
@@ -62,6 +63,32 @@ class FileLockCommunicatorTest extends ConcurrentSpecification {
         }
     }
 
+    def "can notify requester that lock was released"() {
+        def requester = new FileLockCommunicator(new InetAddressFactory())
+        start {
+            receivedPacket = communicator.receive()
+        }
+        requester.pingOwner(communicator.getPort(), 155, "lock")
+        poll {
+            assert receivedPacket != null
+        }
+
+        start {
+            receivedId = requester.receive().lockId
+        }
+
+        when:
+        communicator.confirmReleased([receivedPacket.sender], 155, "lock")
+
+        then:
+        poll {
+            assert receivedId == 155
+        }
+
+        cleanup:
+        requester.stop()
+    }
+
     def "may not receive after the stop"() {
         communicator.stop()
         when:
@@ -17,23 +17,87 @@ package org.gradle.cache.internal
 
 import org.gradle.internal.Factory
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class MultiProcessSafePersistentIndexedCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final cacheFile = tmpDir.file("cache.bin")
     final FileAccess fileAccess = Mock()
     final Factory<BTreePersistentIndexedCache<String, String>> factory = Mock()
-    final cache = new DefaultMultiProcessSafePersistentIndexedCache<String, String>(factory, fileAccess)
+    final cache = new DefaultMultiProcessSafePersistentIndexedCache<String, String>(cacheFile, factory, fileAccess)
     final BTreePersistentIndexedCache<String, String> backingCache = Mock()
 
+    def setup() {
+        cacheFile.text = "content"
+    }
+
     def "opens cache on first access"() {
         when:
         cache.get("value")
 
         then:
+        1 * fileAccess.readFile(factory) >> { Factory action -> action.create() }
+        1 * factory.create() >> backingCache
+    }
+
+    def "opens cache for writing when file was not unlocked cleanly"() {
+        when:
+        cache.get("value")
+
+        then:
+        1 * fileAccess.readFile(factory) >> { throw new FileIntegrityViolationException("not clean") }
+        1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
+        1 * factory.create() >> backingCache
+    }
+
+    def "opens cache for writing when file does not exist"() {
+        given:
+        cacheFile.delete()
+
+        when:
+        cache.get("value")
+
+        then:
+        0 * fileAccess.readFile(factory)
         1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
         1 * factory.create() >> backingCache
     }
 
+    def "rebuilds cache while holding write lock when file is corrupt"() {
+        when:
+        cache.get("value")
+
+        then:
+        1 * fileAccess.readFile(factory) >> { Factory action -> action.create() }
+        1 * factory.create() >> backingCache
+        2 * backingCache.isCorrupt() >>> [true, false]
+        1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
+        1 * backingCache.rebuildIfCorrupt()
+    }
+
+    def "rebuilds cache while holding write lock when entry is corrupt"() {
+        given:
+        cacheOpened()
+
+        when:
+        def result = cache.get("value")
+
+        then:
+        result == null
+
+        and:
+        1 * fileAccess.readFile(!null) >> { Factory action -> action.create() }
+        1 * backingCache.get("value") >> null
+        1 * backingCache.isCorrupt() >> true
+
+        then:
+        1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
+        1 * backingCache.rebuildIfCorrupt()
+        0 * _._
+    }
+
     def "holds read lock while getting entry from cache"() {
         given:
         cacheOpened()
@@ -47,6 +111,7 @@ class MultiProcessSafePersistentIndexedCacheTest extends Specification {
         and:
         1 * fileAccess.readFile(!null) >> { Factory action -> action.create() }
         1 * backingCache.get("value") >> "result"
+        1 * backingCache.isCorrupt() >> false
         0 * _._
     }
 
@@ -76,7 +141,20 @@ class MultiProcessSafePersistentIndexedCacheTest extends Specification {
         0 * _._
     }
 
-    def "holds write lock while closing cache"() {
+    def "holds read lock while closing cache"() {
+        given:
+        cacheOpened()
+
+        when:
+        cache.finishWork()
+
+        then:
+        1 * fileAccess.readFile(!null) >> { Factory action -> action.create() }
+        1 * backingCache.close()
+        0 * _._
+    }
+
+    def "holds write lock while closing cache when file was not unlocked cleanly"() {
         given:
         cacheOpened()
 
@@ -84,6 +162,7 @@ class MultiProcessSafePersistentIndexedCacheTest extends Specification {
         cache.finishWork()
 
         then:
+        1 * fileAccess.readFile(!null) >> { throw new FileIntegrityViolationException("not clean") }
         1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
         1 * backingCache.close()
         0 * _._
@@ -97,7 +176,7 @@ class MultiProcessSafePersistentIndexedCacheTest extends Specification {
         cache.finishWork()
 
         then:
-        1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
+        1 * fileAccess.readFile(!null) >> { Factory action -> action.create() }
         1 * backingCache.close()
         0 * _._
     }
@@ -117,7 +196,7 @@ class MultiProcessSafePersistentIndexedCacheTest extends Specification {
         cache.finishWork()
 
         then:
-        1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
+        1 * fileAccess.readFile(!null) >> { Factory action -> action.create() }
         1 * backingCache.close()
         0 * _._
 
@@ -129,7 +208,7 @@ class MultiProcessSafePersistentIndexedCacheTest extends Specification {
     }
 
     def cacheOpened() {
-        1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
+        1 * fileAccess.readFile(factory) >> { Factory action -> action.create() }
         1 * factory.create() >> backingCache
 
         cache.get("something")
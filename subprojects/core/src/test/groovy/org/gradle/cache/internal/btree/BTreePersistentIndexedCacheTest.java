@@ -338,6 +338,27 @@ public class BTreePersistentIndexedCacheTest {
         cache.close();
     }
 
+    @Test
+    public void doesNotChangeACorruptCacheFileUntilRebuilt() throws IOException {
+        cacheFile.createNewFile();
+        cacheFile.write("some junk");
+
+        BTreePersistentIndexedCache<String, Integer> cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer);
+
+        assertThat(cache.isCorrupt(), equalTo(true));
+        assertNull(cache.get("key_1"));
+        assertThat(cacheFile.getText(), equalTo("some junk"));
+
+        cache.rebuildIfCorrupt();
+
+        assertThat(cache.isCorrupt(), equalTo(false));
+        assertThat(cacheFile.getText(), not(equalTo("some junk")));
+        assertNull(cache.get("key_1"));
+        cache.verify();
+
+        cache.close();
+    }
+
     @Test
     public void handlesOpeningATruncatedCacheFile() throws IOException {
         BTreePersistentIndexedCache<String, Integer> cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer);
@@ -53,6 +53,46 @@ class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
         }
     }
 
+    def "notifies requesters when the lock is released"() {
+        def action = new AtomicBoolean()
+        int port = handler.reservePort()
+        handler.start(10, { action.set(true) })
+
+        when:
+        client.pingOwner(port, 10, "lock 1")
+        poll {
+            assert action.get()
+        }
+        handler.stop(10)
+        handler.released(10, "lock 1")
+
+        then:
+        client.waitForRelease(10, 5000)
+    }
+
+    def "waiting for release times out when the owner does not release the lock"() {
+        int port = handler.reservePort()
+        handler.start(10, {} as Runnable)
+
+        when:
+        client.pingOwner(port, 10, "lock 1")
+
+        then:
+        !client.waitForRelease(10, 100)
+    }
+
+    def "pinging the owner starts the listener thread"() {
+        def factory = Mock(ExecutorFactory)
+        client = new DefaultFileLockContentionHandler(factory, addressFactory)
+
+        when:
+        client.pingOwner(handler.reservePort(), 10, "lock 1")
+
+        then:
+        1 * factory.create(_ as String) >> Mock(StoppableExecutor)
+        0 * factory._
+    }
+
     def "there is only one executor thread"() {
         def factory = Mock(ExecutorFactory)
         handler = new DefaultFileLockContentionHandler(factory, addressFactory)
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectScript
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.UriScriptSource
+import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationWorkerRegistry
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
+import org.gradle.internal.operations.DefaultBuildOperationWorkerRegistry
+import org.gradle.internal.progress.TestBuildOperationExecutor
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+class BuildScriptPrecompilerTest extends ConcurrentSpec {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def scriptClassCompiler = Mock(FileCacheBackedScriptClassCompiler)
+    def inMemoryCache = Mock(CrossBuildInMemoryCachingScriptClassCache)
+    def classLoader = Mock(ClassLoader)
+    def startParameter = new StartParameter()
+    ProjectInternal rootProject
+    def gradle = Stub(GradleInternal) {
+        getStartParameter() >> startParameter
+        getRootProject() >> { rootProject }
+    }
+    def workerRegistry = new DefaultBuildOperationWorkerRegistry(2)
+    def buildOperationProcessor = new DefaultBuildOperationProcessor(workerRegistry, new TestBuildOperationExecutor(), new DefaultBuildOperationQueueFactory(), new DefaultExecutorFactory(), 2)
+    def precompiler = new BuildScriptPrecompiler(scriptClassCompiler, inMemoryCache, buildOperationProcessor, new DocumentationRegistry())
+    BuildOperationWorkerRegistry.Completion outerOperationCompletion
+
+    def setup() {
+        startParameter.maxWorkerCount = 2
+        outerOperationCompletion = workerRegistry.operationStart()
+    }
+
+    def cleanup() {
+        outerOperationCompletion.operationFinish()
+        workerRegistry.stop()
+    }
+
+    def "compiles the initial pass of the build script of each project concurrently"() {
+        def a = project("a")
+        def b = project("b")
+        rootProjectWith(a, b)
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        1 * scriptClassCompiler.precompile({ it.displayName == rootProject.buildScriptSource.displayName }, classLoader, _, ProjectScript, _)
+        1 * scriptClassCompiler.precompile({ it.displayName == a.buildScriptSource.displayName }, classLoader, _, ProjectScript, _) >> {
+            instant.aStarted
+            thread.blockUntil.bStarted
+        }
+        1 * scriptClassCompiler.precompile({ it.displayName == b.buildScriptSource.displayName }, classLoader, _, ProjectScript, _) >> {
+            instant.bStarted
+            thread.blockUntil.aStarted
+        }
+        0 * scriptClassCompiler._
+    }
+
+    def "ignores failure to compile a build script"() {
+        def a = project("a")
+        rootProjectWith(a)
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        1 * scriptClassCompiler.precompile({ it.displayName == rootProject.buildScriptSource.displayName }, classLoader, _, ProjectScript, _) >> {
+            throw new RuntimeException("broken")
+        }
+        1 * scriptClassCompiler.precompile({ it.displayName == a.buildScriptSource.displayName }, classLoader, _, ProjectScript, _)
+        0 * scriptClassCompiler._
+    }
+
+    def "does not compile build scripts when the build has a single project"() {
+        rootProjectWith()
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        0 * scriptClassCompiler._
+        0 * inMemoryCache._
+    }
+
+    def "does not compile build scripts when scripts are recompiled"() {
+        rootProjectWith(project("a"))
+        startParameter.recompileScripts = true
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        0 * scriptClassCompiler._
+        0 * inMemoryCache._
+    }
+
+    def "does not compile build scripts when a single worker is used"() {
+        rootProjectWith(project("a"))
+        startParameter.maxWorkerCount = 1
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        0 * scriptClassCompiler._
+        0 * inMemoryCache._
+    }
+
+    def "does not compile build scripts that are already in memory or that do not exist"() {
+        def a = project("a")
+        def b = project("b", false)
+        rootProjectWith(a, b)
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        1 * inMemoryCache.contains({ it.displayName == rootProject.buildScriptSource.displayName }, classLoader, _) >> true
+        1 * inMemoryCache.contains({ it.displayName == a.buildScriptSource.displayName }, classLoader, _) >> false
+        1 * scriptClassCompiler.precompile({ it.displayName == a.buildScriptSource.displayName }, classLoader, _, ProjectScript, _)
+        0 * scriptClassCompiler._
+    }
+
+    def "does not compile build scripts of projects whose base class loader scope is not ready"() {
+        def a = project("a", true, false)
+        rootProjectWith(a)
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        1 * scriptClassCompiler.precompile({ it.displayName == rootProject.buildScriptSource.displayName }, classLoader, _, ProjectScript, _)
+        0 * scriptClassCompiler._
+    }
+
+    private void rootProjectWith(ProjectInternal... children) {
+        def root = project("root")
+        rootProject = Stub(ProjectInternal) {
+            getChildProjects() >> children.collectEntries { [it.name, it] }
+            getAllprojects() >> ([root] + (children as List)).toSet()
+            getBuildScriptSource() >> root.buildScriptSource
+        }
+    }
+
+    private ProjectInternal project(String name, boolean hasBuildScript = true, boolean baseScopeLocked = true) {
+        def scriptFile = tmpDir.file("$name/build.gradle")
+        if (hasBuildScript) {
+            scriptFile.text = "println '$name'"
+        }
+        ScriptSource buildScriptSource = new UriScriptSource("build file", scriptFile)
+        def baseScope = Stub(ClassLoaderScope) {
+            isLocked() >> baseScopeLocked
+            getExportClassLoader() >> classLoader
+        }
+        Stub(ProjectInternal) {
+            getName() >> name
+            getBuildScriptSource() >> buildScriptSource
+            getBaseClassLoaderScope() >> baseScope
+        }
+    }
+}
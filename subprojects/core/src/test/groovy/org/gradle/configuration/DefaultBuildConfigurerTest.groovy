@@ -26,7 +26,8 @@ class DefaultBuildConfigurerTest extends Specification {
     private gradle = Mock(GradleInternal)
     private rootProject = Mock(ProjectInternal)
     private projectConfigurer = Mock(ProjectConfigurer)
-    private configurer = new DefaultBuildConfigurer(projectConfigurer)
+    private buildScriptPrecompiler = Mock(BuildScriptPrecompiler)
+    private configurer = new DefaultBuildConfigurer(projectConfigurer, buildScriptPrecompiler)
 
     def setup() {
         gradle.startParameter >> startParameter
@@ -37,6 +38,9 @@ class DefaultBuildConfigurerTest extends Specification {
         when:
         configurer.configure(gradle)
 
+        then:
+        1 * buildScriptPrecompiler.precompile(gradle)
+
         then:
         1 * projectConfigurer.configureHierarchy(rootProject)
     }
@@ -48,5 +52,6 @@ class DefaultBuildConfigurerTest extends Specification {
         then:
         startParameter.isConfigureOnDemand() >> true
         1 * projectConfigurer.configure(rootProject)
+        0 * buildScriptPrecompiler._
     }
 }
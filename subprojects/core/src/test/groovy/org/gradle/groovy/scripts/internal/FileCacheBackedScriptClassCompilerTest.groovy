@@ -107,6 +107,46 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         0 * scriptCompilationHandler._
     }
 
+    def "precompiles classes into cache directory without loading them"() {
+        def initializer
+
+        when:
+        compiler.precompile(source, classLoader, operation, Script, verifier)
+
+        then:
+        1 * hasher.hash(resource) >> HashCode.fromString("0123")
+        1 * cacheRepository.cache({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }) >> localCacheBuilder
+        1 * localCacheBuilder.withInitializer(!null) >> { args ->
+            initializer = args[0]
+            localCacheBuilder
+        }
+        1 * localCacheBuilder.withDisplayName(!null) >> localCacheBuilder
+        1 * localCacheBuilder.withValidator(!null) >> localCacheBuilder
+        1 * localCacheBuilder.open() >> {
+            initializer.execute(localCache)
+            localCache
+        }
+
+        1 * cacheRepository.cache({ it =~ "scripts/\\p{XDigit}+/TransformerId/TransformerId\\p{XDigit}+" }) >> globalCacheBuilder
+        1 * globalCacheBuilder.withDisplayName(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.withInitializer(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.withValidator(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.open() >> globalCache
+
+        0 * scriptCompilationHandler._
+    }
+
+    def "does not precompile empty script"() {
+        when:
+        compiler.precompile(source, classLoader, operation, Script, verifier)
+
+        then:
+        1 * resource.hasEmptyContent >> true
+        0 * hasher._
+        0 * cacheRepository._
+        0 * scriptCompilationHandler._
+    }
+
     def "passes CacheValidator to cache builders"() {
         setup:
         hasher.hash(resource) >> HashCode.fromString("0123")
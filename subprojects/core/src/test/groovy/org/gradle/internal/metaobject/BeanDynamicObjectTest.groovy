@@ -699,6 +699,51 @@ class BeanDynamicObjectTest extends Specification {
         e.message == "Could not find method unknown() for arguments [] on object of type ${BeanWithMixInMethods.name}."
     }
 
+    def "can get property and invoke method added to meta-class of groovy object after lookup failed"() {
+        def bean = new Bean()
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        !dynamicObject.hasProperty("added")
+        !dynamicObject.tryGetProperty("added").found
+        !dynamicObject.tryInvokeMethod("addedMethod", [] as Object[]).found
+
+        when:
+        bean.metaClass.added = "value"
+        bean.metaClass.addedMethod = { -> "result" }
+
+        then:
+        dynamicObject.hasProperty("added")
+        dynamicObject.getProperty("added") == "value"
+        dynamicObject.invokeMethod("addedMethod", [] as Object[]) == "result"
+
+        and:
+        !new BeanDynamicObject(new Bean()).hasProperty("added")
+    }
+
+    def "selects overloaded method for the arguments of each invocation"() {
+        def dynamicObject = new BeanDynamicObject(new Bean())
+
+        expect:
+        dynamicObject.invokeMethod("overlap", [Integer] as Object[]) == Class
+        dynamicObject.invokeMethod("overlap", [0] as Object[]) == Number
+        dynamicObject.invokeMethod("overlap", [Integer] as Object[]) == Class
+        new BeanDynamicObject(new Bean()).invokeMethod("overlap", [0] as Object[]) == Number
+        !dynamicObject.hasMethod("overlap", ["string"] as Object[])
+        dynamicObject.hasMethod("overlap", [Long] as Object[])
+    }
+
+    def "can invoke category method after lookup failed"() {
+        def dynamicObject = new BeanDynamicObject(new Bean())
+
+        expect:
+        !dynamicObject.tryInvokeMethod("categoryMethod", [] as Object[]).found
+        use(BeanCategory) {
+            dynamicObject.invokeMethod("categoryMethod", [] as Object[]) == "category"
+        }
+        !dynamicObject.tryInvokeMethod("categoryMethod", [] as Object[]).found
+    }
+
     def "includes toString() of bean in missing method error message when has custom implementation"() {
         def bean = new Bean() {
             @Override
@@ -795,6 +840,12 @@ class BeanDynamicObjectTest extends Specification {
         }
     }
 
+    static class BeanCategory {
+        static String categoryMethod(Bean bean) {
+            return "category"
+        }
+    }
+
     static class EnumBean {
         SomeEnum prop
 
@@ -19,6 +19,7 @@ package org.gradle.internal.progress
 import org.gradle.api.Action
 import org.gradle.api.Transformer
 import org.gradle.internal.concurrent.GradleThread
+import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.progress.ProgressLogger
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.operations.BuildOperationContext
@@ -27,9 +28,14 @@ import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
 class DefaultBuildOperationExecutorTest extends ConcurrentSpec {
     def listener = Mock(BuildOperationListener)
+    def hasListeners = true
+    def listenerManager = Stub(ListenerManager) {
+        getBroadcaster(BuildOperationListener) >> listener
+        hasListeners(BuildOperationListener) >> { hasListeners }
+    }
     def timeProvider = Mock(TimeProvider)
     def progressLoggerFactory = Mock(ProgressLoggerFactory)
-    def operationExecutor = new DefaultBuildOperationExecutor(listener, timeProvider, progressLoggerFactory)
+    def operationExecutor = new DefaultBuildOperationExecutor(listenerManager, timeProvider, progressLoggerFactory)
 
     def "fires events when operation starts and finishes successfully"() {
         def action = Mock(Transformer)
@@ -128,6 +134,23 @@ class DefaultBuildOperationExecutorTest extends ConcurrentSpec {
         }
     }
 
+    def "does not create events when there are no listeners"() {
+        def action = Mock(Transformer)
+        def operationDetails = BuildOperationDetails.displayName("<some-operation>").build()
+        hasListeners = false
+
+        when:
+        def result = operationExecutor.run(operationDetails, action)
+
+        then:
+        result == "result"
+
+        and:
+        1 * action.transform(_) >> "result"
+        0 * timeProvider._
+        0 * listener._
+    }
+
     def "action can mark operation as failed without throwing an exception"() {
         def action = Mock(Transformer)
         def failure = new RuntimeException()
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+@UsesNativeServices
+class ContentAddressedFileStoreTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    ContentAddressedFileStore contentStore
+
+    def setup() {
+        contentStore = new ContentAddressedFileStore(temporaryFolder.createDir("content"))
+    }
+
+    def "copies content into store and makes it available at destination"() {
+        def source = temporaryFolder.createFile("source")
+        source.text = "content"
+        def destination = temporaryFolder.file("store/a/a")
+
+        when:
+        contentStore.materialize("abcdef", source, destination, false)
+
+        then:
+        destination.text == "content"
+        temporaryFolder.file("content/ab/abcdef").text == "content"
+        source.exists()
+    }
+
+    def "moves content into store"() {
+        def source = temporaryFolder.createFile("source")
+        source.text = "content"
+        def destination = temporaryFolder.file("store/a/a")
+
+        when:
+        contentStore.materialize("abcdef", source, destination, true)
+
+        then:
+        destination.text == "content"
+        temporaryFolder.file("content/ab/abcdef").text == "content"
+        !source.exists()
+    }
+
+    def "reuses content that is already present in store"() {
+        def source1 = temporaryFolder.createFile("source1")
+        source1.text = "content"
+        def source2 = temporaryFolder.createFile("source2")
+        source2.text = "content"
+        def destination1 = temporaryFolder.file("store/a/a")
+        def destination2 = temporaryFolder.file("store/b/b")
+
+        when:
+        contentStore.materialize("abcdef", source1, destination1, true)
+        contentStore.materialize("abcdef", source2, destination2, true)
+
+        then:
+        destination1.text == "content"
+        destination2.text == "content"
+        temporaryFolder.file("content/ab").list() as List == ["abcdef"]
+        !source1.exists()
+        source2.exists()
+    }
+
+    def "links destination and stored content to a single copy"() {
+        def source = temporaryFolder.createFile("source")
+        source.text = "content"
+        def destination = temporaryFolder.file("store/a/a")
+
+        when:
+        contentStore.materialize("abcdef", source, destination, true)
+
+        then:
+        Files.isSameFile(destination.toPath(), temporaryFolder.file("content/ab/abcdef").toPath())
+    }
+
+    def "stores content only at destination when hard links cannot be created"() {
+        def contentStore = new ContentAddressedFileStore(temporaryFolder.createDir("content"), false)
+        def source1 = temporaryFolder.createFile("source1")
+        source1.text = "content"
+        def source2 = temporaryFolder.createFile("source2")
+        source2.text = "content"
+        def destination1 = temporaryFolder.file("store/a/a")
+        def destination2 = temporaryFolder.file("store/b/b")
+
+        when:
+        contentStore.materialize("abcdef", source1, destination1, true)
+        contentStore.materialize("abcdef", source2, destination2, false)
+
+        then:
+        destination1.text == "content"
+        destination2.text == "content"
+        temporaryFolder.file("content").list() as List == []
+        !source1.exists()
+        source2.exists()
+    }
+}
@@ -22,10 +22,17 @@ public class NoOpFileLockContentionHandler implements FileLockContentionHandler
 
     public void stop(long lockId) {}
 
+    public void released(long lockId, String displayName) {}
+
     public int reservePort() {
         return -1;
     }
 
     public void pingOwner(int port, long lockId, String displayName) {
     }
+
+    public boolean waitForRelease(long lockId, long timeoutMs) throws InterruptedException {
+        Thread.sleep(timeoutMs);
+        return false;
+    }
 }
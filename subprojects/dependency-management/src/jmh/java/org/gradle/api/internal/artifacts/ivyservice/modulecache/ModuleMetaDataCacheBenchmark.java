@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Transformer;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.component.external.descriptor.Artifact;
+import org.gradle.internal.component.external.descriptor.MavenScope;
+import org.gradle.internal.component.external.descriptor.MutableModuleDescriptorState;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultMutableMavenModuleResolveMetadata;
+import org.gradle.internal.component.external.model.MavenDependencyMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.component.model.Exclude;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.util.BuildCommencedTimeProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures looking up the meta-data of every module of a large dependency graph from a warm cache, as a build does when the modules of a graph have all
+ * been resolved before. The cache is written by the setup and read back from disk by each iteration.
+ */
+@State(Scope.Benchmark)
+public class ModuleMetaDataCacheBenchmark {
+    private static final ModuleComponentRepository REPOSITORY = (ModuleComponentRepository) Proxy.newProxyInstance(
+        ModuleComponentRepository.class.getClassLoader(), new Class<?>[]{ModuleComponentRepository.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getId")) {
+                    return "repo";
+                }
+                throw new UnsupportedOperationException();
+            }
+        });
+
+    @Param({"5000"})
+    int moduleCount;
+
+    private File cacheDir;
+    private final List<BTreePersistentIndexedCache<?, ?>> caches = Lists.newArrayList();
+    private final List<ModuleComponentIdentifier> modules = Lists.newArrayList();
+    private ModuleMetaDataCache cache;
+
+    @Setup
+    public void prepare() throws IOException {
+        cacheDir = File.createTempFile("jmh", "cache");
+        cacheDir.delete();
+        cacheDir.mkdirs();
+
+        ImmutableModuleIdentifierFactory moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory();
+        cache = new DefaultModuleMetaDataCache(new BuildCommencedTimeProvider(), new BenchmarkCacheLockingManager(), moduleIdentifierFactory, new ModuleExclusions(moduleIdentifierFactory));
+        for (int i = 0; i < moduleCount; i++) {
+            ModuleComponentIdentifier componentId = DefaultModuleComponentIdentifier.newId("org.group" + (i % 50), "module" + i, "1." + i);
+            modules.add(componentId);
+            List<DependencyMetadata> dependencies = Lists.newArrayList();
+            for (int j = 1; j <= 5; j++) {
+                int dependency = (i + j * 7) % moduleCount;
+                dependencies.add(new MavenDependencyMetadata(MavenScope.Compile, false, DefaultModuleVersionSelector.newSelector("org.group" + (dependency % 50), "module" + dependency, "1." + dependency),
+                    Collections.<Artifact>emptyList(), Collections.<Exclude>emptyList()));
+            }
+            cache.cacheMetaData(REPOSITORY, new DefaultMutableMavenModuleResolveMetadata(DefaultModuleVersionIdentifier.newId(componentId), componentId,
+                new MutableModuleDescriptorState(componentId), "jar", false, ImmutableList.copyOf(dependencies)).asImmutable());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (BTreePersistentIndexedCache<?, ?> indexedCache : caches) {
+            indexedCache.close();
+        }
+        FileUtils.deleteDirectory(cacheDir);
+    }
+
+    @Benchmark
+    public void lookupAllModules(Blackhole bh) {
+        for (ModuleComponentIdentifier module : modules) {
+            bh.consume(cache.getCachedModuleDescriptor(REPOSITORY, module).getMetaData());
+        }
+    }
+
+    private class BenchmarkCacheLockingManager implements CacheLockingManager {
+        @Override
+        public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+            final BTreePersistentIndexedCache<K, V> indexedCache = new BTreePersistentIndexedCache<K, V>(new File(cacheDir, cacheName + ".bin"), keySerializer, valueSerializer);
+            caches.add(indexedCache);
+            return new PersistentIndexedCache<K, V>() {
+                @Override
+                public V get(K key) {
+                    return indexedCache.get(key);
+                }
+
+                @Override
+                public V get(K key, Transformer<? extends V, ? super K> producer) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void put(K key, V value) {
+                    indexedCache.put(key, value);
+                }
+
+                @Override
+                public void remove(K key) {
+                    indexedCache.remove(key);
+                }
+            };
+        }
+
+        @Override
+        public synchronized <T> T useCache(Factory<? extends T> action) {
+            return action.create();
+        }
+
+        @Override
+        public synchronized void useCache(Runnable action) {
+            action.run();
+        }
+
+        @Override
+        public <T> T withFileLock(Factory<? extends T> action) {
+            return action.create();
+        }
+    }
+}
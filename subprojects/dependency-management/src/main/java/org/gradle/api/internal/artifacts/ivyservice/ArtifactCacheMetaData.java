@@ -31,11 +31,9 @@ public interface ArtifactCacheMetaData {
     File getFileStoreDirectory();
 
     /**
-     * Returns the root directory for the meta-data file store.
-     *
-     * @return Metadata store location
+     * Returns the root directory for the store that holds a single copy of each distinct artifact content, which the file store links to.
      */
-    File getMetaDataStoreDirectory();
+    File getContentStoreDirectory();
 
     /**
      * Returns the root directory for the transforms cache.
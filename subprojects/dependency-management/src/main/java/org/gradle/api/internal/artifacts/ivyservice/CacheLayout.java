@@ -22,7 +22,8 @@ import java.io.File;
 public enum CacheLayout {
     ROOT(null, "modules", 2),
     FILE_STORE(ROOT, "files", 1),
-    META_DATA(ROOT, "metadata", 23),
+    CONTENT_STORE(ROOT, "content", 1),
+    META_DATA(ROOT, "metadata", 24),
     TRANSFORMS(null, "transforms", 1),
     TRANSFORMS_META_DATA(TRANSFORMS, "metadata", 1),
     TRANSFORMS_STORE(TRANSFORMS, "files", 1);
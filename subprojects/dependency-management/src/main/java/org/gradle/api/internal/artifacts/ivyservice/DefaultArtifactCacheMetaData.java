@@ -54,8 +54,8 @@ public class DefaultArtifactCacheMetaData implements ArtifactCacheMetaData, Cach
     }
 
     @Override
-    public File getMetaDataStoreDirectory() {
-        return new File(createCacheRelativeDir(CacheLayout.META_DATA), "descriptors");
+    public File getContentStoreDirectory() {
+        return createCacheRelativeDir(CacheLayout.CONTENT_STORE);
     }
 
     private File createCacheRelativeDir(CacheLayout cacheLayout) {
@@ -15,12 +15,14 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.Maps;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomDomParser.PomElement;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomReader.PomDependencyData;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.MavenDependencyKey;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDependencyMgt;
@@ -34,19 +36,25 @@ import org.gradle.internal.component.external.model.DefaultMutableMavenModuleRes
 import org.gradle.internal.component.external.model.MutableMavenModuleResolveMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This based on a copy of org.apache.ivy.plugins.parser.m2.PomModuleDescriptorParser, but now heavily refactored.
+ *
+ * <p>An instance is shared by all projects of a build. It keeps the parsed content of the parent and imported POMs that it reads, as these are
+ * typically referenced by many other POMs.</p>
  */
 public final class GradlePomModuleDescriptorParser extends AbstractModuleDescriptorParser<MutableMavenModuleResolveMetadata> {
     private static final Logger LOGGER = LoggerFactory.getLogger(GradlePomModuleDescriptorParser.class);
@@ -55,6 +63,7 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     private final VersionSelectorScheme mavenVersionSelectorScheme;
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
     private final ModuleExclusions moduleExclusions;
+    private final Map<File, ParsedPom> parsedPoms = new ConcurrentHashMap<File, ParsedPom>();
 
     public GradlePomModuleDescriptorParser(VersionSelectorScheme gradleVersionSelectorScheme, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions) {
         this.gradleVersionSelectorScheme = gradleVersionSelectorScheme;
@@ -96,6 +105,10 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
                     pomReader.getParentGroupId(),
                     pomReader.getParentArtifactId(),
                     pomReader.getParentVersion());
+            if (pomReader.getGroupId().equals(parentId.getGroup()) && pomReader.getArtifactId().equals(parentId.getModule()) && Objects.equal(pomReader.getVersion(), parentId.getVersion())) {
+                // Otherwise the same POM would be parsed as its own parent over and over again
+                throw new MetaDataParseException(String.format("POM %s declares itself as its parent.", parentId));
+            }
             PomReader parentPomReader = parseParentPom(parserSettings, parentId, pomReader.getAllPomProperties());
             pomReader.setPomParent(parentPomReader);
         }
@@ -200,9 +213,36 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
 
     private PomReader parsePom(DescriptorParseContext parseContext, ModuleComponentIdentifier parentId, Map<String, String> childProperties) throws IOException, SAXException {
         LocallyAvailableExternalResource localResource = parseContext.getMetaDataArtifact(parentId, ArtifactType.MAVEN_POM);
-        PomReader pomReader = new PomReader(localResource, moduleIdentifierFactory, childProperties);
+        PomReader pomReader = new PomReader(localResource, getParsedPom(localResource), moduleIdentifierFactory, childProperties);
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(pomReader, gradleVersionSelectorScheme, mavenVersionSelectorScheme, moduleIdentifierFactory, moduleExclusions);
         doParsePom(parseContext, mdBuilder, pomReader);
         return pomReader;
     }
+
+    /**
+     * Returns the parsed content of the given POM, reusing the content parsed earlier for the same file when the file has not changed since.
+     */
+    private PomElement getParsedPom(LocallyAvailableExternalResource resource) {
+        LocallyAvailableResource localResource = resource.getLocalResource();
+        File file = localResource.getFile();
+        ParsedPom parsedPom = parsedPoms.get(file);
+        if (parsedPom == null || parsedPom.lastModified != localResource.getLastModified() || parsedPom.length != localResource.getContentLength()) {
+            // Parsing the same file concurrently is harmless, both threads calculate the same result
+            parsedPom = new ParsedPom(localResource.getLastModified(), localResource.getContentLength(), PomReader.parse(resource));
+            parsedPoms.put(file, parsedPom);
+        }
+        return parsedPom.projectElement;
+    }
+
+    private static class ParsedPom {
+        private final long lastModified;
+        private final long length;
+        private final PomElement projectElement;
+
+        ParsedPom(long lastModified, long length, PomElement projectElement) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.projectElement = projectElement;
+        }
+    }
 }
@@ -16,39 +16,173 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
 
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.io.IOUtils;
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Reads a POM into a tree of {@link PomElement} using a streaming parser. Only the elements that are used to resolve dependencies are kept,
+ * so that the build, reporting and other sections of a POM do not need to be held in memory.
+ */
 public final class PomDomParser {
-    private PomDomParser() {}
+    private static final Set<String> PROJECT_ELEMENTS = ImmutableSet.of("groupId", "artifactId", "version", "packaging", "description", "parent",
+        "distributionManagement", "properties", "dependencies", "dependencyManagement", "profiles");
+    private static final Set<String> PROFILES_ELEMENTS = ImmutableSet.of("profile");
+    private static final Set<String> PROFILE_ELEMENTS = ImmutableSet.of("id", "activation", "properties", "dependencies", "dependencyManagement");
+    private static final byte[] M2_ENTITIES_RESOURCE;
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        byte[] bytes;
+        try {
+            bytes = IOUtils.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        M2_ENTITIES_RESOURCE = bytes;
+
+        // Set the context classloader the bootstrap classloader, to work around the way that JAXP locates implementation classes
+        // This should ensure that the JAXP classes provided by the JVM are used, rather than some other implementation
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(ClassLoaderUtils.getPlatformClassLoader());
+        try {
+            XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_VALIDATING, false);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+            XML_INPUT_FACTORY.setXMLResolver(new XMLResolver() {
+                public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) {
+                    if ((systemID != null) && systemID.endsWith("m2-entities.ent")) {
+                        return new ByteArrayInputStream(M2_ENTITIES_RESOURCE);
+                    }
+                    return null;
+                }
+            });
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
 
-    public static String getTextContent(Element element) {
-        StringBuilder result = new StringBuilder();
+    private PomDomParser() {}
 
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node child = childNodes.item(i);
+    /**
+     * Parses the given POM content and returns its root element.
+     */
+    public static PomElement parse(InputStream inputStream, String systemId) throws IOException, XMLStreamException {
+        // Set the context classloader the bootstrap classloader, to work around the way that JAXP locates implementation classes
+        // This should ensure that the JAXP classes provided by the JVM are used, rather than some other implementation
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(ClassLoaderUtils.getPlatformClassLoader());
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(systemId, new AddDTDFilterInputStream(inputStream));
+            try {
+                while (reader.hasNext() && reader.next() != XMLStreamReader.START_ELEMENT) {
+                    // Skip the prolog
+                }
+                if (!reader.isStartElement()) {
+                    throw new XMLStreamException("No root element found", reader.getLocation());
+                }
+                PomElement root = readElement(reader, PROJECT_ELEMENTS);
+                while (reader.hasNext()) {
+                    // Check that the rest of the document is well formed
+                    reader.next();
+                }
+                return root;
+            } finally {
+                reader.close();
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
 
-            switch (child.getNodeType()) {
-                case Node.CDATA_SECTION_NODE:
-                case Node.TEXT_NODE:
-                    result.append(child.getNodeValue());
+    /**
+     * Reads the element that the reader is positioned at, keeping only those child elements whose name is in the given set, or all child elements when the set is null.
+     */
+    private static PomElement readElement(XMLStreamReader reader, @Nullable Set<String> retainedChildren) throws XMLStreamException {
+        String name = nameOf(reader);
+        String text = "";
+        StringBuilder textBuilder = null;
+        List<PomElement> children = null;
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamReader.START_ELEMENT:
+                    String childName = nameOf(reader);
+                    if (retainedChildren == null || retainedChildren.contains(childName)) {
+                        if (children == null) {
+                            children = new ArrayList<PomElement>();
+                        }
+                        children.add(readElement(reader, retainedChildrenOf(retainedChildren, childName)));
+                    } else {
+                        skipElement(reader);
+                    }
                     break;
+                case XMLStreamReader.CHARACTERS:
+                case XMLStreamReader.CDATA:
+                case XMLStreamReader.SPACE:
+                    if (textBuilder != null) {
+                        textBuilder.append(reader.getText());
+                    } else if (text.length() == 0) {
+                        text = reader.getText();
+                    } else {
+                        textBuilder = new StringBuilder(text).append(reader.getText());
+                    }
+                    break;
+                case XMLStreamReader.END_ELEMENT:
+                    return new PomElement(name, textBuilder == null ? text : textBuilder.toString(), children == null ? Collections.<PomElement>emptyList() : children);
                 default:
                     break;
             }
         }
+    }
+
+    @Nullable
+    private static Set<String> retainedChildrenOf(@Nullable Set<String> retainedSiblings, String name) {
+        if (retainedSiblings == PROJECT_ELEMENTS && name.equals("profiles")) {
+            return PROFILES_ELEMENTS;
+        }
+        if (retainedSiblings == PROFILES_ELEMENTS) {
+            return PROFILE_ELEMENTS;
+        }
+        return null;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamReader.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamReader.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String nameOf(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        String localName = reader.getLocalName();
+        return prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
+    }
 
-        return result.toString();
+    public static String getTextContent(PomElement element) {
+        return element.getText();
     }
 
-    public static String getFirstChildText(Element parentElem, String name) {
-        Element node = getFirstChildElement(parentElem, name);
+    public static String getFirstChildText(PomElement parentElem, String name) {
+        PomElement node = getFirstChildElement(parentElem, name);
         if (node != null) {
             return getTextContent(node);
         } else {
@@ -56,32 +190,50 @@ public final class PomDomParser {
         }
     }
 
-    public static Element getFirstChildElement(Element parentElem, String name) {
+    public static PomElement getFirstChildElement(PomElement parentElem, String name) {
         if (parentElem == null) {
             return null;
         }
-        NodeList childs = parentElem.getChildNodes();
-        for (int i = 0; i < childs.getLength(); i++) {
-            Node node = childs.item(i);
-            if (node instanceof Element && name.equals(node.getNodeName())) {
-                return (Element) node;
+        for (PomElement child : parentElem.getChildren()) {
+            if (name.equals(child.getName())) {
+                return child;
             }
         }
         return null;
     }
 
-    public static List<Element> getAllChilds(Element parent) {
-        List<Element> r = new LinkedList<Element>();
-        if (parent != null) {
-            NodeList childs = parent.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element) {
-                    r.add((Element) node);
-                }
-            }
+    public static List<PomElement> getAllChilds(PomElement parent) {
+        if (parent == null) {
+            return Collections.emptyList();
+        }
+        return parent.getChildren();
+    }
+
+    /**
+     * An element of a POM, with the text it directly contains and its child elements.
+     */
+    public static final class PomElement {
+        private final String name;
+        private final String text;
+        private final List<PomElement> children;
+
+        PomElement(String name, String text, List<PomElement> children) {
+            this.name = name;
+            this.text = text;
+            this.children = children;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public List<PomElement> getChildren() {
+            return children;
         }
-        return r;
     }
 
     public static final class AddDTDFilterInputStream extends FilterInputStream {
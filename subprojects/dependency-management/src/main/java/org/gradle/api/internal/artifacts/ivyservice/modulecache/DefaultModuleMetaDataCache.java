@@ -18,39 +18,47 @@ package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 import com.google.common.base.Objects;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
-import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentIdentifierSerializer;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
-import org.gradle.internal.hash.HashValue;
-import org.gradle.internal.resource.local.LocallyAvailableResource;
-import org.gradle.internal.resource.local.PathKeyFileStore;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 import org.gradle.util.BuildCommencedTimeProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Stores the meta-data of each module in a single indexed cache. An entry holds the serialized module descriptor along with the cache details, so that
+ * looking up a module reads one record from one file, rather than an index entry plus a separate descriptor file per module.
+ */
 public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultModuleMetaDataCache.class);
 
     private final BuildCommencedTimeProvider timeProvider;
     private final CacheLockingManager cacheLockingManager;
 
-    private final ModuleMetadataStore moduleMetadataStore;
+    private final ModuleMetadataSerializer moduleMetadataSerializer = new ModuleMetadataSerializer();
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    private final ModuleExclusions moduleExclusions;
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
 
-    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions) {
+    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions) {
         this.timeProvider = timeProvider;
         this.cacheLockingManager = cacheLockingManager;
-
-        moduleMetadataStore = new ModuleMetadataStore(new PathKeyFileStore(artifactCacheMetaData.getMetaDataStoreDirectory()), new ModuleMetadataSerializer(), moduleIdentifierFactory, moduleExclusions);
+        this.moduleIdentifierFactory = moduleIdentifierFactory;
+        this.moduleExclusions = moduleExclusions;
     }
 
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> getCache() {
@@ -77,12 +85,7 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
                 if (entry.isMissing()) {
                     return new DefaultCachedMetaData(entry, null, timeProvider);
                 }
-                MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
-                if (metadata == null) {
-                    // Descriptor file has been deleted - ignore the entry
-                    cache.remove(key);
-                    return null;
-                }
+                MutableModuleComponentResolveMetadata metadata = readModuleDescriptor(key, entry.moduleDescriptor);
                 return new DefaultCachedMetaData(entry, entry.configure(metadata), timeProvider);
             }
         });
@@ -101,8 +104,7 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
         return cacheLockingManager.useCache(new Factory<CachedMetaData>() {
             @Override
             public CachedMetaData create() {
-                LocallyAvailableResource resource = moduleMetadataStore.putModuleDescriptor(key, metadata);
-                ModuleMetadataCacheEntry entry = createEntry(metadata, resource.getSha1());
+                ModuleMetadataCacheEntry entry = createEntry(metadata, writeModuleDescriptor(metadata));
                 getCache().put(key, entry);
                 return new DefaultCachedMetaData(entry, null, timeProvider);
             }
@@ -113,8 +115,36 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
         return new ModuleComponentAtRepositoryKey(repository.getId(), id);
     }
 
-    private ModuleMetadataCacheEntry createEntry(ModuleComponentResolveMetadata metaData, HashValue moduleDescriptorHash) {
-        return ModuleMetadataCacheEntry.forMetaData(metaData, timeProvider.getCurrentTime(), moduleDescriptorHash.asBigInteger());
+    private ModuleMetadataCacheEntry createEntry(ModuleComponentResolveMetadata metaData, byte[] moduleDescriptor) {
+        return ModuleMetadataCacheEntry.forMetaData(metaData, timeProvider.getCurrentTime(), moduleDescriptor);
+    }
+
+    private MutableModuleComponentResolveMetadata readModuleDescriptor(ModuleComponentAtRepositoryKey key, byte[] moduleDescriptor) {
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(moduleDescriptor));
+            try {
+                return moduleMetadataSerializer.read(decoder, moduleIdentifierFactory, moduleExclusions);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Could not load module metadata for " + key.getComponentId() + " from repository " + key.getRepositoryId(), e);
+        }
+    }
+
+    private byte[] writeModuleDescriptor(ModuleComponentResolveMetadata metadata) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+            try {
+                moduleMetadataSerializer.write(encoder, metadata);
+            } finally {
+                encoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return outputStream.toByteArray();
     }
 
     private static class RevisionKeySerializer extends AbstractSerializer<ModuleComponentAtRepositoryKey> {
@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
 import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.hash.HashUtil;
 
 import java.math.BigInteger;
 
@@ -30,21 +31,25 @@ class ModuleMetadataCacheEntry {
     final long createTimestamp;
     final ModuleSource moduleSource;
     final BigInteger moduleDescriptorHash;
+    // Serialized using ModuleMetadataSerializer, null for a missing module
+    final byte[] moduleDescriptor;
 
-    ModuleMetadataCacheEntry(byte type, boolean isChanging, long createTimestamp, BigInteger moduleDescriptorHash, ModuleSource moduleSource) {
+    ModuleMetadataCacheEntry(byte type, boolean isChanging, long createTimestamp, BigInteger moduleDescriptorHash, ModuleSource moduleSource, byte[] moduleDescriptor) {
         this.type = type;
         this.isChanging = isChanging;
         this.createTimestamp = createTimestamp;
         this.moduleSource = moduleSource;
         this.moduleDescriptorHash = moduleDescriptorHash;
+        this.moduleDescriptor = moduleDescriptor;
     }
 
     public static ModuleMetadataCacheEntry forMissingModule(long createTimestamp) {
         return new MissingModuleCacheEntry(createTimestamp);
     }
 
-    public static ModuleMetadataCacheEntry forMetaData(ModuleComponentResolveMetadata metaData, long createTimestamp, BigInteger moduleDescriptorHash) {
-        return new ModuleMetadataCacheEntry(TYPE_PRESENT, metaData.isChanging(), createTimestamp, moduleDescriptorHash, metaData.getSource());
+    public static ModuleMetadataCacheEntry forMetaData(ModuleComponentResolveMetadata metaData, long createTimestamp, byte[] moduleDescriptor) {
+        BigInteger moduleDescriptorHash = HashUtil.sha1(moduleDescriptor).asBigInteger();
+        return new ModuleMetadataCacheEntry(TYPE_PRESENT, metaData.isChanging(), createTimestamp, moduleDescriptorHash, metaData.getSource(), moduleDescriptor);
     }
 
     public boolean isMissing() {
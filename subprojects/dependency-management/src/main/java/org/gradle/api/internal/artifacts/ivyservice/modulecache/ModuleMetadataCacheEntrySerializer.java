@@ -40,6 +40,7 @@ class ModuleMetadataCacheEntrySerializer extends AbstractSerializer<ModuleMetada
                 moduleSourceSerializer.write(encoder, value.moduleSource);
                 byte[] hash = value.moduleDescriptorHash.toByteArray();
                 encoder.writeBinary(hash);
+                encoder.writeBinary(value.moduleDescriptor);
                 break;
             default:
                 throw new IllegalArgumentException("Don't know how to serialize meta-data entry: " + value);
@@ -58,7 +59,8 @@ class ModuleMetadataCacheEntrySerializer extends AbstractSerializer<ModuleMetada
                 ModuleSource moduleSource = moduleSourceSerializer.read(decoder);
                 byte[] encodedHash = decoder.readBinary();
                 BigInteger hash = new BigInteger(encodedHash);
-                return new ModuleMetadataCacheEntry(ModuleMetadataCacheEntry.TYPE_PRESENT, isChanging, createTimestamp, hash, moduleSource);
+                byte[] moduleDescriptor = decoder.readBinary();
+                return new ModuleMetadataCacheEntry(ModuleMetadataCacheEntry.TYPE_PRESENT, isChanging, createTimestamp, hash, moduleSource, moduleDescriptor);
             default:
                 throw new IllegalArgumentException("Don't know how to deserialize meta-data entry of type " + type);
         }
@@ -26,7 +26,11 @@ import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.DefaultProducerGuard;
+import org.gradle.cache.internal.FileLock;
 import org.gradle.cache.internal.FileLockManager;
+import org.gradle.cache.internal.ProducerGuard;
+import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.Stoppable;
@@ -39,24 +43,29 @@ import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.internal.util.BiFunction;
 
 import java.io.File;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_META_DATA;
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_STORE;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultTransformedFileCache implements TransformedFileCache, Stoppable {
+    // Transforms are locked using a fixed number of lock files, so that lock files do not accumulate in the cache
+    private static final int LOCK_STRIPES = 64;
+
     private final PersistentCache cache;
     private final PersistentIndexedCache<HashCode, List<File>> indexedCache;
     private final FileStore<String> fileStore;
-    private final Object lock = new Object();
-    private final Set<HashCode> transforming = new HashSet<HashCode>();
+    private final File locksDirectory;
+    private final FileLockManager fileLockManager;
+    private final ProducerGuard<HashCode> producerGuard = new DefaultProducerGuard<HashCode>();
+    private final ProducerGuard<Integer> lockStripeGuard = new DefaultProducerGuard<Integer>();
 
-    public DefaultTransformedFileCache(ArtifactCacheMetaData artifactCacheMetaData, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory) {
+    public DefaultTransformedFileCache(ArtifactCacheMetaData artifactCacheMetaData, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileLockManager fileLockManager) {
+        this.fileLockManager = fileLockManager;
         File transformsStoreDirectory = artifactCacheMetaData.getTransformsStoreDirectory();
         File filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
+        locksDirectory = new File(transformsStoreDirectory, TRANSFORMS_META_DATA.getKey() + "/locks");
         fileStore = new PathKeyFileStore(filesOutputDirectory);
         cache = cacheRepository
                 .cache(transformsStoreDirectory)
@@ -77,62 +86,84 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
 
     @Override
     public List<File> getResult(final File inputFile, final HashCode inputsHash, final BiFunction<List<File>, File, File> transformer) {
-        // Apply locking so that only this process is writing to the file store and only a single thread is running this particular transform
-        transforming(inputsHash);
-        try {
-            return cache.withFileLock(new Factory<List<File>>() {
-                @Override
-                public List<File> create() {
-                    List<File> files = indexedCache.get(inputsHash);
-                    if (files != null) {
-                        boolean allExist = true;
-                        for (File file : files) {
-                            if (!file.exists()) {
-                                allExist = false;
-                                break;
-                            }
-                        }
-                        if (allExist) {
-                            return files;
-                        }
-                        // Else, recreate outputs
-                    }
+        // Apply locking so that only a single thread in this process is running this particular transform. Transforms with different inputs run concurrently,
+        // unless they share a lock file
+        return producerGuard.guardByKey(inputsHash, new Factory<List<File>>() {
+            @Override
+            public List<File> create() {
+                List<File> files = loadResult(inputsHash);
+                if (files != null) {
+                    return files;
+                }
 
-                    // File store takes care of cleaning up on failure/crash
-                    String key = inputFile.getName() + "/" + inputsHash;
-                    TransformAction action = new TransformAction(transformer, inputFile);
-                    try {
-                        fileStore.add(key, action);
-                    } catch (FileStoreAddActionException e) {
-                        throw UncheckedException.throwAsUncheckedException(e.getCause());
+                // A lock file can only be locked once by this process, so transforms that share a lock file run one at a time in this process
+                final int lockStripe = (inputsHash.asInt() & Integer.MAX_VALUE) % LOCK_STRIPES;
+                return lockStripeGuard.guardByKey(lockStripe, new Factory<List<File>>() {
+                    @Override
+                    public List<File> create() {
+                        return runTransform(inputFile, inputsHash, lockStripe, transformer);
                     }
+                });
+            }
+        });
+    }
 
-                    indexedCache.put(inputsHash, action.result);
-                    return action.result;
-                }
-            });
+    private List<File> runTransform(File inputFile, HashCode inputsHash, int lockStripe, BiFunction<List<File>, File, File> transformer) {
+        // Apply locking so that only a single process is running this particular transform. The lock on the cache is not held while the
+        // transform runs, so that other processes can use the cache for other transforms in the meantime
+        String key = inputFile.getName() + "/" + inputsHash;
+        FileLock transformLock = fileLockManager.lock(new File(locksDirectory, String.valueOf(lockStripe)), mode(FileLockManager.LockMode.Exclusive).useCrossVersionImplementation(), "transform of " + inputFile.getName());
+        try {
+            // Another process may have run the transform while this process was waiting for the lock
+            List<File> files = loadResult(inputsHash);
+            if (files != null) {
+                return files;
+            }
+
+            // File store takes care of cleaning up on failure/crash
+            TransformAction action = new TransformAction(transformer, inputFile);
+            try {
+                fileStore.add(key, action);
+            } catch (FileStoreAddActionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+
+            storeResult(inputsHash, action.result);
+            return action.result;
         } finally {
-            notTransforming(inputsHash);
+            transformLock.close();
         }
     }
 
-    private void transforming(HashCode inputsHash) {
-        synchronized (lock) {
-            while (!transforming.add(inputsHash)) {
-                try {
-                    lock.wait();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
+    /**
+     * Returns the result of a previous execution of the transform, or null when there is no result or some of its files have gone missing.
+     */
+    private List<File> loadResult(final HashCode inputsHash) {
+        return cache.withFileLock(new Factory<List<File>>() {
+            @Override
+            public List<File> create() {
+                List<File> files = indexedCache.get(inputsHash);
+                if (files == null) {
+                    return null;
+                }
+                for (File file : files) {
+                    if (!file.exists()) {
+                        // Recreate outputs
+                        return null;
+                    }
                 }
+                return files;
             }
-        }
+        });
     }
 
-    private void notTransforming(HashCode inputsHash) {
-        synchronized (lock) {
-            transforming.remove(inputsHash);
-            lock.notifyAll();
-        }
+    private void storeResult(final HashCode inputsHash, final List<File> files) {
+        cache.withFileLock(Factories.toFactory(new Runnable() {
+            @Override
+            public void run() {
+                indexedCache.put(inputsHash, files);
+            }
+        }));
     }
 
     private static class TransformAction implements Action<File> {
@@ -19,6 +19,7 @@ package org.gradle.api.internal.filestore.ivy;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.resource.local.ContentAddressedFileStore;
 import org.gradle.internal.resource.local.GroupedAndNamedUniqueFileStore;
 import org.gradle.internal.resource.local.PathKeyFileStore;
 
@@ -39,4 +40,8 @@ public class ArtifactIdentifierFileStore extends GroupedAndNamedUniqueFileStore<
     public ArtifactIdentifierFileStore(PathKeyFileStore pathKeyFileStore, TemporaryFileProvider temporaryFileProvider) {
         super(pathKeyFileStore, temporaryFileProvider, GROUP, NAME);
     }
+
+    public ArtifactIdentifierFileStore(PathKeyFileStore pathKeyFileStore, TemporaryFileProvider temporaryFileProvider, ContentAddressedFileStore contentStore) {
+        super(pathKeyFileStore, temporaryFileProvider, GROUP, NAME, contentStore);
+    }
 }
@@ -39,16 +39,16 @@ class DefaultArtifactCacheMetaDataTest extends Specification {
         fileStore == new File(testCacheDir, CacheLayout.FILE_STORE.key)
     }
 
-    def "calculates metadata store directory"() {
+    def "calculates content store directory"() {
         given:
         TestFile testCacheDir = temporaryFolder.file("test/cache")
         scopeMapping.getBaseDirectory(null, CacheLayout.ROOT.key, VersionStrategy.SharedCache) >> testCacheDir
 
         when:
         def metaData = new DefaultArtifactCacheMetaData(scopeMapping)
-        File metadataStore = metaData.getMetaDataStoreDirectory()
+        File contentStore = metaData.getContentStoreDirectory()
 
         then:
-        metadataStore == new File(testCacheDir, CacheLayout.META_DATA.key + '/descriptors')
+        contentStore == new File(testCacheDir, CacheLayout.CONTENT_STORE.key)
     }
 }
@@ -2452,4 +2452,113 @@ class GradlePomModuleDescriptorParserTest extends AbstractGradlePomModuleDescrip
         then:
         thrown(MetaDataParseException)
     }
+
+    def "reuses parent pom for poms that override its properties"() {
+        given:
+        def parent = tmpDir.file("parent.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>parent</artifactId>
+    <version>version-one</version>
+
+    <properties>
+        <artifacttwo.version>1</artifacttwo.version>
+    </properties>
+
+    <dependencies>
+        <dependency>
+            <groupId>group-one</groupId>
+            <artifactId>artifacttwo</artifactId>
+            <version>\${artifacttwo.version}</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        def childPom = { String artifactId, String version ->
+            tmpDir.file("${artifactId}.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>${artifactId}</artifactId>
+    <version>version-one</version>
+
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent</artifactId>
+        <version>version-one</version>
+    </parent>
+
+    <properties>
+        <artifacttwo.version>${version}</artifacttwo.version>
+    </properties>
+</project>
+"""
+        }
+
+        and:
+        parseContext.getMetaDataArtifact(_, MAVEN_POM) >> { new DefaultLocallyAvailableExternalResource(parent.toURI(), new DefaultLocallyAvailableResource(parent)) }
+
+        when:
+        def metadata1 = parser.parseMetaData(parseContext, childPom('child-one', '2'), true)
+        def metadata2 = parser.parseMetaData(parseContext, childPom('child-two', '3'), true)
+
+        then:
+        single(metadata1.dependencies).requested == moduleId('group-one', 'artifacttwo', '2')
+        single(metadata2.dependencies).requested == moduleId('group-one', 'artifacttwo', '3')
+    }
+
+    def "reads parent pom again when it has changed"() {
+        given:
+        def parent = tmpDir.file("parent.xml")
+        def writeParent = { String version ->
+            parent.text = """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>parent</artifactId>
+    <version>version-one</version>
+
+    <dependencies>
+        <dependency>
+            <groupId>group-one</groupId>
+            <artifactId>artifacttwo</artifactId>
+            <version>${version}</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        }
+        pomFile << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent</artifactId>
+        <version>version-one</version>
+    </parent>
+</project>
+"""
+
+        and:
+        parseContext.getMetaDataArtifact(_, MAVEN_POM) >> { new DefaultLocallyAvailableExternalResource(parent.toURI(), new DefaultLocallyAvailableResource(parent)) }
+
+        when:
+        writeParent('1')
+        parsePom()
+
+        then:
+        single(metadata.dependencies).requested == moduleId('group-one', 'artifacttwo', '1')
+
+        when:
+        writeParent('1.1')
+        parsePom()
+
+        then:
+        single(metadata.dependencies).requested == moduleId('group-one', 'artifacttwo', '1.1')
+    }
 }
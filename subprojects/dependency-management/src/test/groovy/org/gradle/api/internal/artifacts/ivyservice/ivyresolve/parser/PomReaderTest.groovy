@@ -101,6 +101,37 @@ class PomReaderTest extends AbstractPomReaderTest {
         pomReader.relocation == null
     }
 
+    def "parse POM with entities, CDATA sections and comments"() {
+        when:
+        pomFile << """<?xml version="1.0" encoding="UTF-8"?>
+<!-- A comment -->
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group&amp;one</groupId>
+    <artifactId><![CDATA[artifact]]>-<!-- a comment -->one</artifactId>
+    <version>
+        version-one
+    </version>
+    <description>The first&nbsp;test artifact &copy;</description>
+    <build>
+        <plugins>
+            <plugin>
+                <artifactId>plugin</artifactId>
+                <version>plugin-version</version>
+            </plugin>
+        </plugins>
+    </build>
+</project>
+"""
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+
+        then:
+        pomReader.groupId == 'group&one'
+        pomReader.artifactId == 'artifact-one'
+        pomReader.version == 'version-one'
+        pomReader.description == 'The first\u00a0test artifact \u00a9'
+    }
+
     def "use custom properties in POM project coordinates"() {
         when:
         pomFile << """
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions
+import org.gradle.internal.Factory
+import org.gradle.internal.component.external.descriptor.MutableModuleDescriptorState
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultMutableMavenModuleResolveMetadata
+import org.gradle.internal.component.external.model.MavenModuleResolveMetadata
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import org.gradle.util.BuildCommencedTimeProvider
+import spock.lang.Specification
+
+class DefaultModuleMetaDataCacheTest extends Specification {
+    def timeProvider = Stub(BuildCommencedTimeProvider) {
+        getCurrentTime() >> 100
+    }
+    def cacheLockingManager = Stub(CacheLockingManager) {
+        createCache(_, _, _) >> { name, keySerializer, valueSerializer -> new InMemoryIndexedCache(valueSerializer) }
+        useCache(_ as Factory) >> { Factory action -> action.create() }
+    }
+    def moduleIdentifierFactory = Stub(ImmutableModuleIdentifierFactory) {
+        module(_, _) >> { args -> DefaultModuleIdentifier.newId(*args) }
+    }
+    def repository = Stub(ModuleComponentRepository) {
+        getId() >> "repo"
+    }
+    def otherRepository = Stub(ModuleComponentRepository) {
+        getId() >> "other"
+    }
+    def componentId = DefaultModuleComponentIdentifier.newId("org.test", "testArtifact", "1.0")
+    def cache = new DefaultModuleMetaDataCache(timeProvider, cacheLockingManager, moduleIdentifierFactory, new ModuleExclusions(moduleIdentifierFactory))
+
+    def "returns null for module that has not been cached"() {
+        expect:
+        cache.getCachedModuleDescriptor(repository, componentId) == null
+    }
+
+    def "reads module descriptor back from cache entry"() {
+        def metadata = mavenMetadata("jar")
+
+        when:
+        def stored = cache.cacheMetaData(repository, metadata)
+        def cached = cache.getCachedModuleDescriptor(repository, componentId)
+
+        then:
+        !cached.missing
+        cached.descriptorHash == stored.descriptorHash
+        cached.metaData instanceof MavenModuleResolveMetadata
+        cached.metaData.componentId == componentId
+        cached.metaData.packaging == "jar"
+        !cached.metaData.changing
+
+        and:
+        cache.getCachedModuleDescriptor(otherRepository, componentId) == null
+    }
+
+    def "descriptor hash changes when module descriptor changes"() {
+        when:
+        def first = cache.cacheMetaData(repository, mavenMetadata("jar"))
+        def same = cache.cacheMetaData(repository, mavenMetadata("jar"))
+        def changed = cache.cacheMetaData(repository, mavenMetadata("war"))
+
+        then:
+        first.descriptorHash == same.descriptorHash
+        first.descriptorHash != changed.descriptorHash
+        cache.getCachedModuleDescriptor(repository, componentId).metaData.packaging == "war"
+    }
+
+    def "caches missing module"() {
+        when:
+        cache.cacheMissing(repository, componentId)
+        def cached = cache.getCachedModuleDescriptor(repository, componentId)
+
+        then:
+        cached.missing
+        cached.metaData == null
+    }
+
+    def mavenMetadata(String packaging) {
+        def id = DefaultModuleVersionIdentifier.newId(componentId)
+        return new DefaultMutableMavenModuleResolveMetadata(id, componentId, new MutableModuleDescriptorState(componentId), packaging, false, []).asImmutable()
+    }
+}
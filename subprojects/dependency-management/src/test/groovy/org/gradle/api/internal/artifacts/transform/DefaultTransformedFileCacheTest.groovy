@@ -21,6 +21,8 @@ import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory
 import org.gradle.cache.internal.CacheScopeMapping
 import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.FileLock
+import org.gradle.cache.internal.FileLockManager
 import org.gradle.internal.util.BiFunction
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -36,13 +38,15 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
     def scopeMapping = Stub(CacheScopeMapping)
     def cacheRepo = new DefaultCacheRepository(scopeMapping, new InMemoryCacheFactory())
     def decorator = Stub(InMemoryCacheDecoratorFactory)
+    def fileLockManager = Mock(FileLockManager)
     def cache
 
     def setup() {
         scopeMapping.getBaseDirectory(_, _, _) >> tmpDir.testDirectory
         scopeMapping.getRootDirectory(_) >> tmpDir.testDirectory
         artifactCacheMetaData.transformsStoreDirectory >> tmpDir.file("output")
-        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator)
+        _ * fileLockManager.lock(_, _, _) >> Stub(FileLock)
+        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, fileLockManager)
     }
 
     def "reuses result for given file and transform"() {
@@ -154,6 +158,73 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         instant.b_done > instant.a
     }
 
+    def "holds a lock for the inputs while running the transform"() {
+        def transform = Mock(BiFunction)
+        def lock = Mock(FileLock)
+        def inputFile = tmpDir.file("a")
+
+        when:
+        cache.getResult(inputFile, HashCode.fromInt(123), transform)
+
+        then:
+        1 * fileLockManager.lock(tmpDir.file("output/metadata/locks/59"), _, _) >> lock
+
+        then:
+        1 * transform.apply(inputFile, _) >> { File file, File dir -> [file] }
+
+        then:
+        1 * lock.close()
+        0 * transform._
+
+        when:
+        cache.getResult(inputFile, HashCode.fromInt(123), transform)
+
+        then:
+        0 * fileLockManager._
+        0 * transform._
+    }
+
+    def "uses a fixed number of lock files"() {
+        def lockFiles = [] as Set
+
+        when:
+        (0..<200).each { index ->
+            cache.getResult(new File("a"), HashCode.fromInt(index * 7919)) { file, outDir -> [file] }
+        }
+
+        then:
+        200 * fileLockManager.lock(_, _, _) >> { File target, options, displayName ->
+            lockFiles << target
+            Stub(FileLock)
+        }
+        lockFiles.size() == 64
+        lockFiles*.parentFile.unique() == [tmpDir.file("output/metadata/locks")]
+    }
+
+    def "transforms that share a lock file run one at a time"() {
+        when:
+        async {
+            start {
+                cache.getResult(new File("a"), HashCode.fromInt(123)) { file, outDir ->
+                    instant.a
+                    thread.block()
+                    instant.a_done
+                    [file]
+                }
+            }
+            start {
+                thread.blockUntil.a
+                cache.getResult(new File("b"), HashCode.fromInt(123 + 64)) { file, outDir ->
+                    instant.b
+                    [file]
+                }
+            }
+        }
+
+        then:
+        instant.b > instant.a_done
+    }
+
     def "does not reuse result when transform inputs are different"() {
         def transform1 = Mock(BiFunction)
         def transform2 = Mock(BiFunction)
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.java.compile.incremental
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.CompilationOutputsFixture
+
+class IncrementalAnnotationProcessingIntegrationTest extends AbstractIntegrationSpec {
+
+    CompilationOutputsFixture outputs
+
+    def setup() {
+        executer.requireOwnGradleUserHomeDir()
+        outputs = new CompilationOutputsFixture(file("app/build/classes"))
+
+        settingsFile << "include 'processor', 'app'"
+        buildFile << """
+            allprojects {
+                apply plugin: 'java'
+            }
+            project(':app') {
+                configurations {
+                    processor
+                }
+                dependencies {
+                    compileOnly project(':processor')
+                    processor project(':processor')
+                }
+                compileJava {
+                    options.incremental = true
+                    options.annotationProcessorPath = configurations.processor
+                }
+            }
+        """
+
+        file("processor/src/main/java/Helper.java") << "public @interface Helper {}"
+        file("processor/src/main/java/Service.java") << "public @interface Service {}"
+        file("processor/src/main/java/HelperProcessor.java") << """
+            import javax.annotation.processing.*;
+            import javax.lang.model.SourceVersion;
+            import javax.lang.model.element.*;
+            import java.io.*;
+            import java.util.*;
+
+            @SupportedAnnotationTypes("Helper")
+            public class HelperProcessor extends AbstractProcessor {
+                @Override
+                public SourceVersion getSupportedSourceVersion() {
+                    return SourceVersion.latestSupported();
+                }
+
+                @Override
+                public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                    for (TypeElement annotation : annotations) {
+                        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                            String name = element.getSimpleName() + "Helper";
+                            try {
+                                Writer writer = processingEnv.getFiler().createSourceFile(name, element).openWriter();
+                                try {
+                                    writer.write("class " + name + " { }");
+                                } finally {
+                                    writer.close();
+                                }
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+        """
+        file("processor/src/main/java/ServiceRegistryProcessor.java") << """
+            import javax.annotation.processing.*;
+            import javax.lang.model.SourceVersion;
+            import javax.lang.model.element.*;
+            import java.io.*;
+            import java.util.*;
+
+            @SupportedAnnotationTypes("Service")
+            public class ServiceRegistryProcessor extends AbstractProcessor {
+                @Override
+                public SourceVersion getSupportedSourceVersion() {
+                    return SourceVersion.latestSupported();
+                }
+
+                @Override
+                public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                    Set<String> services = new TreeSet<String>();
+                    for (TypeElement annotation : annotations) {
+                        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                            services.add(element.getSimpleName().toString());
+                        }
+                    }
+                    if (services.isEmpty()) {
+                        return true;
+                    }
+                    StringBuilder serviceNames = new StringBuilder();
+                    for (String service : services) {
+                        serviceNames.append(serviceNames.length() == 0 ? "" : ", ").append('"').append(service).append('"');
+                    }
+                    try {
+                        Writer writer = processingEnv.getFiler().createSourceFile("ServiceRegistry").openWriter();
+                        try {
+                            writer.write("class ServiceRegistry { String[] services = { " + serviceNames + " }; }");
+                        } finally {
+                            writer.close();
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return true;
+                }
+            }
+        """
+        file("processor/src/main/resources/META-INF/services/javax.annotation.processing.Processor") << """
+            HelperProcessor
+            ServiceRegistryProcessor
+        """
+        file("processor/src/main/resources/META-INF/gradle/incremental.annotation.processors") << """
+            HelperProcessor,isolating
+            ServiceRegistryProcessor,aggregating
+        """
+    }
+
+    private File java(String className, String body) {
+        def f = file("app/src/main/java/${className}.java")
+        f.text = body
+        f
+    }
+
+    def "recompiles the type generated by an isolating processor when its origin changes"() {
+        java "A", "@Helper class A {}"
+        java "B", "@Helper class B {}"
+        java "C", "class C {}"
+
+        outputs.snapshot { run "app:compileJava" }
+
+        when:
+        java "A", "@Helper class A { /* change */ }"
+        run "app:compileJava"
+
+        then:
+        outputs.recompiledClasses 'A', 'AHelper'
+    }
+
+    def "deletes the type generated by an isolating processor when its origin is removed"() {
+        def a = java "A", "@Helper class A {}"
+        java "B", "@Helper class B {}"
+
+        outputs.snapshot { run "app:compileJava" }
+
+        when:
+        assert a.delete()
+        run "app:compileJava"
+
+        then:
+        outputs.noneRecompiled()
+        outputs.deletedClasses 'A', 'AHelper'
+        file("app/build/classes/main/BHelper.class").isFile()
+    }
+
+    def "regenerates the type generated by an aggregating processor when an annotated type is added"() {
+        java "A", "@Service class A {}"
+        java "B", "@Service class B {}"
+        java "C", "class C {}"
+
+        outputs.snapshot { run "app:compileJava" }
+
+        when:
+        java "D", "@Service class D {}"
+        run "app:compileJava"
+
+        then:
+        outputs.recompiledClasses 'A', 'B', 'D', 'ServiceRegistry'
+        file("app/build/classes/main/ServiceRegistry.java").text.contains('"A", "B", "D"')
+    }
+
+    def "regenerates the type generated by an aggregating processor when an annotated type is removed"() {
+        def a = java "A", "@Service class A {}"
+        java "B", "@Service class B {}"
+
+        outputs.snapshot { run "app:compileJava" }
+
+        when:
+        assert a.delete()
+        run "app:compileJava"
+
+        then:
+        outputs.recompiledClasses 'B', 'ServiceRegistry'
+        outputs.deletedClasses 'A'
+        file("app/build/classes/main/ServiceRegistry.java").text.contains('{ "B" }')
+    }
+}
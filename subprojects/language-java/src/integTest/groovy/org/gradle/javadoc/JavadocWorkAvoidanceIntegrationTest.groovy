@@ -167,7 +167,34 @@ class JavadocWorkAvoidanceIntegrationTest extends AbstractIntegrationSpec {
             ":a:compileJava", ":a:processResources", ":a:classes", ":b:javadoc", ":a:javadoc")
     }
 
-    def "duplicates in an upstream jar are not ignored"() {
+    def "does not regenerate javadoc when only the implementation of an upstream class changes"() {
+        given:
+        succeeds(":a:javadoc")
+
+        when:
+        file('b/src/main/java/B.java').text = '''
+            public class B {
+                public int truth() { return 42; }
+            }
+        '''
+        succeeds(":a:javadoc")
+        then:
+        result.assertTasksNotSkipped(":b:compileJava", ":b:classes", ":b:jar")
+        result.assertTasksSkipped(":a:compileJava", ":a:javadoc")
+
+        when:
+        file('b/src/main/java/B.java').text = '''
+            public class B {
+                public int truth() { return 42; }
+                public String name() { return "b"; }
+            }
+        '''
+        succeeds(":a:javadoc")
+        then:
+        result.assertTasksNotSkipped(":b:compileJava", ":b:classes", ":b:jar", ":a:compileJava", ":a:javadoc")
+    }
+
+    def "changes to resources in an upstream jar do not regenerate javadoc"() {
         given:
         file("a/build.gradle") << '''
             dependencies {
@@ -207,22 +234,15 @@ class JavadocWorkAvoidanceIntegrationTest extends AbstractIntegrationSpec {
         when:
         succeeds(":a:javadoc")
         then:
-        result.assertTasksNotSkipped(":a:javadoc")
         result.assertTasksSkipped(":b:compileJava", ":b:processResources", ":b:classes", ":b:jar",
-            ":a:compileJava", ":a:processResources", ":a:classes", ":b:javadoc")
+            ":a:compileJava", ":a:processResources", ":a:classes", ":b:javadoc", ":a:javadoc")
+
         when:
         // change the first duplicate
         original.text = "changed to something else"
-        succeeds("duplicate")
-        then:
-        // check that the upstream jar definitely changed
-        oldHash != externalJar.md5Hash
-
-        when:
-        succeeds(":a:javadoc")
+        succeeds("duplicate", ":a:javadoc")
         then:
-        result.assertTasksNotSkipped(":a:javadoc")
         result.assertTasksSkipped(":b:compileJava", ":b:processResources", ":b:classes", ":b:jar",
-            ":a:compileJava", ":a:processResources", ":a:classes", ":b:javadoc")
+            ":a:compileJava", ":a:processResources", ":a:classes", ":b:javadoc", ":a:javadoc")
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures how long it takes to load the class set analysis of a source set, and to look up the information needed to calculate what to recompile.
+ */
+@State(Scope.Benchmark)
+public class ClassSetAnalysisDataBenchmark {
+    private static final int DEPENDENCIES_PER_CLASS = 10;
+
+    @Param({"1000", "20000"})
+    int classCount;
+
+    private final ClassSetAnalysisData.Serializer serializer = new ClassSetAnalysisData.Serializer();
+    private byte[] serialized;
+    private ClassSetAnalysisData data;
+    private String[] classNames;
+    private int i;
+
+    @Setup
+    public void prepare() throws Exception {
+        Random random = new Random(42);
+        classNames = new String[classCount];
+        for (int i = 0; i < classCount; i++) {
+            classNames[i] = "org/gradle/sample/package" + (i % 100) + "/Class" + i;
+        }
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        for (int i = 0; i < classCount; i++) {
+            Set<String> dependencies = new HashSet<String>();
+            for (int j = 0; j < DEPENDENCIES_PER_CLASS; j++) {
+                dependencies.add(classNames[random.nextInt(classCount)]);
+            }
+            Set<Integer> constants = new HashSet<Integer>();
+            constants.add(random.nextInt());
+            Set<String> superTypes = Collections.singleton(classNames[random.nextInt(classCount)]);
+            accumulator.addClass(new File(classNames[i] + ".class"), new ClassAnalysis(classNames[i], dependencies, false, constants, Collections.<Integer>emptySet(), superTypes));
+        }
+        data = accumulator.getAnalysis();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OutputStreamBackedEncoder(outputStream), data);
+        serialized = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public void load(Blackhole bh) throws Exception {
+        bh.consume(serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(serialized))));
+    }
+
+    @Benchmark
+    public void lookup(Blackhole bh) {
+        String className = classNames[++i % classCount];
+        bh.consume(data.getDependents(className));
+        bh.consume(data.getConstants(className));
+        bh.consume(data.getChildren(className));
+    }
+}
@@ -16,8 +16,13 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.CharStreams;
+import com.google.common.io.Files;
+import org.apache.tools.zip.ZipEntry;
 import org.apache.tools.zip.ZipFile;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
@@ -27,26 +32,63 @@ import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.file.collections.MinimalFileSet;
 import org.gradle.api.internal.tasks.AbstractTaskDependency;
 import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.FileUtils;
 import org.gradle.internal.nativeintegration.filesystem.FileType;
+import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.util.DeprecationLogger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 public class AnnotationProcessorDetector {
+    private static final String PROCESSOR_SERVICE_RESOURCE = "META-INF/services/javax.annotation.processing.Processor";
+    private static final String INCREMENTAL_PROCESSOR_RESOURCE = "META-INF/gradle/incremental.annotation.processors";
+
     private final FileCollectionFactory fileCollectionFactory;
     private final FileContentCache<Boolean> cache;
+    private final FileContentCache<List<AnnotationProcessorDeclaration>> declarationCache;
 
     public AnnotationProcessorDetector(FileCollectionFactory fileCollectionFactory, FileContentCacheFactory cacheFactory) {
         this.fileCollectionFactory = fileCollectionFactory;
         cache = cacheFactory.newCache("annotation-processors", 20000, new AnnotationServiceLocator(), BaseSerializerFactory.BOOLEAN_SERIALIZER);
+        declarationCache = cacheFactory.newCache("annotation-processor-declarations", 20000, new AnnotationProcessorDeclarationLocator(), new ListSerializer<AnnotationProcessorDeclaration>(new AnnotationProcessorDeclarationSerializer()));
+    }
+
+    /**
+     * Determines the annotation processors that will run given some compile options and annotation processor path, and whether they support incremental compilation.
+     *
+     * <p>Processors that are named using the {@code -processor} compiler argument are never treated as incremental.</p>
+     */
+    public Set<AnnotationProcessorDeclaration> detectProcessors(CompileOptions compileOptions, FileCollection annotationProcessorPath) {
+        Set<AnnotationProcessorDeclaration> processors = new LinkedHashSet<AnnotationProcessorDeclaration>();
+        if (checkExplicitProcessorOption(compileOptions)) {
+            int pos = compileOptions.getCompilerArgs().indexOf("-processor");
+            for (String className : Splitter.on(',').trimResults().omitEmptyStrings().split(compileOptions.getCompilerArgs().get(pos + 1))) {
+                processors.add(new AnnotationProcessorDeclaration(className, IncrementalAnnotationProcessorType.UNKNOWN));
+            }
+            return processors;
+        }
+        for (File file : annotationProcessorPath) {
+            processors.addAll(declarationCache.get(file));
+        }
+        return processors;
     }
 
     /**
@@ -115,14 +157,14 @@ public class AnnotationProcessorDetector {
         @Override
         public Boolean calculate(File file, FileType fileType) {
             if (fileType == FileType.Directory) {
-                return new File(file, "META-INF/services/javax.annotation.processing.Processor").isFile();
+                return new File(file, PROCESSOR_SERVICE_RESOURCE).isFile();
             }
 
             if (fileType == FileType.RegularFile && FileUtils.isJar(file.getName())) {
                 try {
                     ZipFile zipFile = new ZipFile(file);
                     try {
-                        return zipFile.getEntry("META-INF/services/javax.annotation.processing.Processor") != null;
+                        return zipFile.getEntry(PROCESSOR_SERVICE_RESOURCE) != null;
                     } finally {
                         zipFile.close();
                     }
@@ -134,4 +176,90 @@ public class AnnotationProcessorDetector {
             return false;
         }
     }
+
+    private static class AnnotationProcessorDeclarationLocator implements FileContentCacheFactory.Calculator<List<AnnotationProcessorDeclaration>> {
+        @Override
+        public List<AnnotationProcessorDeclaration> calculate(File file, FileType fileType) {
+            try {
+                if (fileType == FileType.Directory) {
+                    return toDeclarations(readLines(new File(file, PROCESSOR_SERVICE_RESOURCE)), readLines(new File(file, INCREMENTAL_PROCESSOR_RESOURCE)));
+                }
+                if (fileType == FileType.RegularFile && FileUtils.isJar(file.getName())) {
+                    ZipFile zipFile = new ZipFile(file);
+                    try {
+                        return toDeclarations(readLines(zipFile, PROCESSOR_SERVICE_RESOURCE), readLines(zipFile, INCREMENTAL_PROCESSOR_RESOURCE));
+                    } finally {
+                        zipFile.close();
+                    }
+                }
+            } catch (IOException e) {
+                // Malformed jars are reported when looking for processors on the compile classpath, and cannot contain processors
+            }
+            return Collections.emptyList();
+        }
+
+        private static List<String> readLines(File file) throws IOException {
+            if (!file.isFile()) {
+                return Collections.emptyList();
+            }
+            return Files.readLines(file, Charsets.UTF_8);
+        }
+
+        private static List<String> readLines(ZipFile zipFile, String path) throws IOException {
+            ZipEntry entry = zipFile.getEntry(path);
+            if (entry == null) {
+                return Collections.emptyList();
+            }
+            InputStream inputStream = zipFile.getInputStream(entry);
+            try {
+                return CharStreams.readLines(new InputStreamReader(inputStream, Charsets.UTF_8));
+            } finally {
+                inputStream.close();
+            }
+        }
+
+        private static List<AnnotationProcessorDeclaration> toDeclarations(List<String> processorNames, List<String> incrementalProcessors) {
+            Map<String, IncrementalAnnotationProcessorType> types = new HashMap<String, IncrementalAnnotationProcessorType>();
+            for (String line : incrementalProcessors) {
+                List<String> parts = Splitter.on(',').trimResults().splitToList(stripComment(line));
+                if (parts.size() == 2) {
+                    try {
+                        types.put(parts.get(0), IncrementalAnnotationProcessorType.valueOf(parts.get(1).toUpperCase(Locale.US)));
+                    } catch (IllegalArgumentException e) {
+                        // Not a type we know about, treat the processor as not incremental
+                    }
+                }
+            }
+            ImmutableList.Builder<AnnotationProcessorDeclaration> declarations = ImmutableList.builder();
+            for (String line : processorNames) {
+                String className = stripComment(line).trim();
+                if (className.isEmpty()) {
+                    continue;
+                }
+                IncrementalAnnotationProcessorType type = types.get(className);
+                declarations.add(new AnnotationProcessorDeclaration(className, type == null ? IncrementalAnnotationProcessorType.UNKNOWN : type));
+            }
+            return declarations.build();
+        }
+
+        private static String stripComment(String line) {
+            int pos = line.indexOf('#');
+            return pos >= 0 ? line.substring(0, pos) : line;
+        }
+    }
+
+    private static class AnnotationProcessorDeclarationSerializer extends AbstractSerializer<AnnotationProcessorDeclaration> {
+        @Override
+        public AnnotationProcessorDeclaration read(Decoder decoder) throws Exception {
+            String className = decoder.readString();
+            IncrementalAnnotationProcessorType type = IncrementalAnnotationProcessorType.values()[decoder.readSmallInt()];
+            return new AnnotationProcessorDeclaration(className, type);
+        }
+
+        @Override
+        public void write(Encoder encoder, AnnotationProcessorDeclaration value) throws Exception {
+            encoder.writeString(value.getClassName());
+            encoder.writeSmallInt(value.getType().ordinal());
+        }
+    }
 }
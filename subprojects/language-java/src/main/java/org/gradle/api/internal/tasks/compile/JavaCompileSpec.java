@@ -16,10 +16,13 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.compile.CompileOptions;
 
 import java.io.File;
 import java.util.List;
+import java.util.Set;
 
 public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     CompileOptions getCompileOptions();
@@ -39,4 +42,12 @@ public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     List<File> getAnnotationProcessorPath();
 
     void setAnnotationProcessorPath(List<File> path);
+
+    /**
+     * The incremental annotation processors to load from the annotation processor path and track. When null, the compiler discovers the processors itself.
+     */
+    @Nullable
+    Set<AnnotationProcessorDeclaration> getEffectiveAnnotationProcessors();
+
+    void setEffectiveAnnotationProcessors(@Nullable Set<AnnotationProcessorDeclaration> annotationProcessors);
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.concurrent.CompositeStoppable;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Keeps the standard file manager of a Java compiler between compilations made in the same process, so that the jars of a compile classpath are opened
+ * and indexed once rather than by every compilation. This matters most in a compiler daemon, which runs many compilations against the same jars.
+ *
+ * <p>A file manager is used by one compilation at a time, and its locations are reset before it is reused. Options such as {@code -bootclasspath} are
+ * remembered by the file manager in a way that cannot be reset, so a file manager is only reused by a compilation that passes the same such options.
+ * A file manager is discarded when one of the jars it may have opened has changed since it was last used, when such a jar was modified too recently to
+ * tell a later change from its timestamp, or when the file manager has seen more than a given number of jars. The jars are left open between compilations,
+ * so no file manager is kept when this number is 0.</p>
+ */
+public class JavaFileManagerCache {
+    private static final Set<String> RESETTABLE_LOCATIONS = ImmutableSet.of("CLASS_OUTPUT", "SOURCE_OUTPUT", "NATIVE_HEADER_OUTPUT", "CLASS_PATH", "SOURCE_PATH", "ANNOTATION_PROCESSOR_PATH", "PLATFORM_CLASS_PATH");
+    // The file manager options that set one of the locations above
+    private static final Set<String> RESETTABLE_OPTIONS = ImmutableSet.of("-d", "-s", "-h", "-classpath", "-cp", "--class-path", "-sourcepath", "--source-path", "-processorpath", "--processor-path");
+    // Covers the timestamp resolution of the file systems in common use
+    private static final long TIMESTAMP_RESOLUTION = 2000;
+
+    private final int maxFiles;
+    private final Map<Key, CachedFileManager> idle = new HashMap<Key, CachedFileManager>();
+
+    public JavaFileManagerCache(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * Returns a file manager for the given compiler, for use by a single compilation with the given options. The file manager must be returned using
+     * {@link #release(CachedFileManager)}.
+     */
+    public CachedFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options) {
+        Key key = new Key(compiler.getClass(), charset);
+        CachedFileManager fileManager;
+        synchronized (idle) {
+            fileManager = idle.remove(key);
+        }
+        if (fileManager != null) {
+            if (fileManager.canReuse(options) && fileManager.resetLocations()) {
+                return fileManager;
+            }
+            fileManager.close();
+        }
+        fileManager = new CachedFileManager(key, compiler.getStandardFileManager(null, null, charset));
+        fileManager.fileManagerOptions = fileManager.getFileManagerOptions(options);
+        return fileManager;
+    }
+
+    public void release(CachedFileManager fileManager) {
+        if (fileManager.files.size() <= maxFiles && maxFiles > 0) {
+            synchronized (idle) {
+                if (!idle.containsKey(fileManager.key)) {
+                    idle.put(fileManager.key, fileManager);
+                    return;
+                }
+            }
+        }
+        fileManager.close();
+    }
+
+    public static class CachedFileManager {
+        private final Key key;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, FileState> files = new HashMap<File, FileState>();
+        private List<String> fileManagerOptions;
+
+        private CachedFileManager(Key key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        /**
+         * Records the given files, which the compilation may open using this file manager, along with the jars they refer to from their manifest.
+         */
+        public void useFiles(Iterable<File> files) {
+            long now = System.currentTimeMillis();
+            for (File file : files) {
+                useFile(file, now);
+            }
+        }
+
+        private void useFile(File file, long now) {
+            if (files.containsKey(file) || !file.isFile()) {
+                return;
+            }
+            files.put(file, new FileState(file, now));
+            for (File referencedFile : getManifestClassPath(file)) {
+                useFile(referencedFile, now);
+            }
+        }
+
+        private boolean canReuse(List<String> options) {
+            for (Map.Entry<File, FileState> entry : files.entrySet()) {
+                if (!entry.getValue().matches(entry.getKey())) {
+                    return false;
+                }
+            }
+            return fileManagerOptions.equals(getFileManagerOptions(options));
+        }
+
+        /**
+         * Returns the options that the file manager handles and that are not undone by resetting its locations.
+         */
+        private List<String> getFileManagerOptions(List<String> options) {
+            List<String> result = new ArrayList<String>();
+            int index = 0;
+            while (index < options.size()) {
+                String option = options.get(index++);
+                int argCount = fileManager.isSupportedOption(option);
+                if (argCount < 0) {
+                    continue;
+                }
+                List<String> arguments = options.subList(index, Math.min(index + argCount, options.size()));
+                index += arguments.size();
+                if (!RESETTABLE_OPTIONS.contains(option)) {
+                    result.add(option);
+                    result.addAll(arguments);
+                }
+            }
+            return result;
+        }
+
+        private boolean resetLocations() {
+            try {
+                for (StandardLocation location : StandardLocation.values()) {
+                    if (RESETTABLE_LOCATIONS.contains(location.name())) {
+                        fileManager.setLocation(location, null);
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                return false;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        private void close() {
+            CompositeStoppable.stoppable(fileManager).stop();
+        }
+    }
+
+    /**
+     * Returns the files listed in the {@code Class-Path} attribute of the manifest of the given jar, which the compiler opens as well.
+     */
+    private static List<File> getManifestClassPath(File jar) {
+        List<File> result = new ArrayList<File>();
+        try {
+            JarFile jarFile = new JarFile(jar);
+            try {
+                Manifest manifest = jarFile.getManifest();
+                String classPath = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+                if (classPath != null) {
+                    StringTokenizer tokenizer = new StringTokenizer(classPath);
+                    while (tokenizer.hasMoreTokens()) {
+                        result.add(new File(jar.getParentFile(), tokenizer.nextToken()));
+                    }
+                }
+            } finally {
+                jarFile.close();
+            }
+        } catch (IOException e) {
+            // Not a jar, which the compiler ignores as well
+        }
+        return result;
+    }
+
+    private static class FileState {
+        private final long length;
+        private final long lastModified;
+        private final boolean recentlyModified;
+
+        FileState(File file, long now) {
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+            this.recentlyModified = lastModified > now - TIMESTAMP_RESOLUTION;
+        }
+
+        /**
+         * Returns true when the file has not changed. A file that was modified shortly before it was recorded may have changed again since without a
+         * change to its timestamp, so it is never considered unchanged.
+         */
+        boolean matches(File file) {
+            return !recentlyModified && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    private static class Key {
+        private final Class<?> compilerType;
+        private final Charset charset;
+
+        Key(Class<?> compilerType, @Nullable Charset charset) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return compilerType.equals(other.compilerType) && Objects.equal(charset, other.charset);
+        }
+
+        @Override
+        public int hashCode() {
+            return compilerType.hashCode() ^ Objects.hashCode(charset);
+        }
+    }
+}
@@ -15,10 +15,12 @@
  */
 package org.gradle.api.internal.tasks.compile;
 
-import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingCompileTask;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.Factory;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,12 +28,16 @@ import org.slf4j.LoggerFactory;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
+    // Windows does not allow an open jar to be replaced, so do not keep jars open there
+    private static final JavaFileManagerCache FILE_MANAGERS = new JavaFileManagerCache(OperatingSystem.current().isWindows() ? 0 : 2000);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
 
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
@@ -42,21 +48,50 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
-        if (!success) {
-            throw new CompilationFailedException();
+        AnnotationProcessingResult annotationProcessingResult = new AnnotationProcessingResult();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        CompileOptions compileOptions = spec.getCompileOptions();
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        JavaFileManagerCache.CachedFileManager fileManager = FILE_MANAGERS.acquire(compiler, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null, options);
+        try {
+            fileManager.useFiles(getArchives(spec));
+            JavaCompiler.CompilationTask task = createCompileTask(spec, options, compiler, fileManager.getFileManager(), annotationProcessingResult);
+            boolean success = task.call();
+            if (!success) {
+                throw new CompilationFailedException();
+            }
+        } finally {
+            FILE_MANAGERS.release(fileManager);
         }
 
-        return new SimpleWorkResult(true);
+        return new JdkJavaCompilerResult(annotationProcessingResult);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, List<String> options, JavaCompiler compiler, StandardJavaFileManager fileManager, AnnotationProcessingResult annotationProcessingResult) {
         Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
-        return compiler.getTask(null, null, null, options, null, compilationUnits);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+        if (spec.getEffectiveAnnotationProcessors() != null) {
+            task = new AnnotationProcessingCompileTask(task, spec.getEffectiveAnnotationProcessors(), spec.getAnnotationProcessorPath(), annotationProcessingResult);
+        }
+        return task;
+    }
+
+    /**
+     * Returns the files that the compiler may open as archives and keep open between compilations.
+     */
+    private static List<File> getArchives(JavaCompileSpec spec) {
+        List<File> files = new ArrayList<File>();
+        if (spec.getCompileClasspath() != null) {
+            files.addAll(spec.getCompileClasspath());
+        }
+        String bootClasspath = spec.getCompileOptions().getBootClasspath();
+        if (bootClasspath != null) {
+            for (String path : bootClasspath.split(File.pathSeparator)) {
+                if (path.length() > 0) {
+                    files.add(new File(path));
+                }
+            }
+        }
+        return files;
     }
 }
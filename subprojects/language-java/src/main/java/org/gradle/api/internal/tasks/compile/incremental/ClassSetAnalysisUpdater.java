@@ -19,19 +19,23 @@ package org.gradle.api.internal.tasks.compile.incremental;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
-import org.gradle.api.internal.cache.Stash;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.JdkJavaCompilerResult;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
 
 import java.io.File;
+import java.util.Map;
 import java.util.Set;
 
 public class ClassSetAnalysisUpdater {
@@ -44,19 +48,19 @@ public class ClassSetAnalysisUpdater {
         }
     };
 
-    private final Stash<ClassSetAnalysisData> stash;
+    private final LocalClassSetAnalysisStore stash;
     private final FileOperations fileOperations;
     private ClassDependenciesAnalyzer analyzer;
     private final FileHasher fileHasher;
 
-    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
+    public ClassSetAnalysisUpdater(LocalClassSetAnalysisStore stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
         this.stash = stash;
         this.fileOperations = fileOperations;
         this.analyzer = analyzer;
         this.fileHasher = fileHasher;
     }
 
-    public void updateAnalysis(JavaCompileSpec spec) {
+    public void updateAnalysis(JavaCompileSpec spec, WorkResult result) {
         Timer clock = Timers.startTimer();
         Set<File> baseDirs = Sets.newLinkedHashSet();
         baseDirs.add(spec.getDestinationDir());
@@ -66,7 +70,48 @@ public class ClassSetAnalysisUpdater {
             fileOperations.fileTree(baseDir).visit(analyzer);
         }
         ClassSetAnalysisData data = analyzer.getAnalysis();
+        data = data.withAnnotationProcessingResult(getAnnotationProcessingResult(spec, result, data));
         stash.put(data);
         LOG.info("Class dependency analysis for incremental compilation took {}.", clock.getElapsed());
     }
+
+    private AnnotationProcessingResult getAnnotationProcessingResult(JavaCompileSpec spec, WorkResult result, ClassSetAnalysisData data) {
+        if (spec.getEffectiveAnnotationProcessors() == null) {
+            return new AnnotationProcessingResult();
+        }
+        if (!(result instanceof JdkJavaCompilerResult)) {
+            AnnotationProcessingResult unknownResult = new AnnotationProcessingResult();
+            unknownResult.setFullRebuildCause("the generated types of the annotation processors are only tracked when compiling in-process");
+            return unknownResult;
+        }
+        AnnotationProcessingResult current = ((JdkJavaCompilerResult) result).getAnnotationProcessingResult();
+        ClassSetAnalysisData previousData = stash.get();
+        if (previousData == null) {
+            return current;
+        }
+
+        // Keep the types generated from origins that were not recompiled, as long as they still exist
+        AnnotationProcessingResult merged = new AnnotationProcessingResult();
+        Set<String> classNames = Sets.newHashSet(data.getClassNames());
+        for (Map.Entry<String, Set<String>> entry : previousData.getAnnotationProcessingResult().getGeneratedTypesByOrigin().entrySet()) {
+            String origin = entry.getKey();
+            if (!current.getGeneratedTypesByOrigin().containsKey(origin) && classNames.contains(origin) && classNames.containsAll(entry.getValue())) {
+                for (String generatedType : entry.getValue()) {
+                    merged.addGeneratedType(generatedType, origin);
+                }
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : current.getGeneratedTypesByOrigin().entrySet()) {
+            for (String generatedType : entry.getValue()) {
+                merged.addGeneratedType(generatedType, entry.getKey());
+            }
+        }
+        // All aggregated types are recompiled together, so the aggregating processors have seen all of them
+        merged.getAggregatedTypes().addAll(current.getAggregatedTypes());
+        merged.getGeneratedTypesDependingOnAllOthers().addAll(current.getGeneratedTypesDependingOnAllOthers());
+        if (current.getFullRebuildCause() != null) {
+            merged.setFullRebuildCause(current.getFullRebuildCause());
+        }
+        return merged;
+    }
 }
@@ -16,32 +16,42 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import java.util.Set;
+
 class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
 
     private final Compiler<JavaCompileSpec> delegate;
     private final JarClasspathSnapshotWriter writer;
     private final ClassSetAnalysisUpdater updater;
+    private final Set<AnnotationProcessorDeclaration> annotationProcessors;
 
     public IncrementalCompilationFinalizer(Compiler<JavaCompileSpec> delegate, JarClasspathSnapshotWriter writer,
-                                           ClassSetAnalysisUpdater updater) {
+                                           ClassSetAnalysisUpdater updater, @Nullable Set<AnnotationProcessorDeclaration> annotationProcessors) {
         this.delegate = delegate;
         this.writer = writer;
         this.updater = updater;
+        this.annotationProcessors = annotationProcessors;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
+        if (annotationProcessors != null) {
+            // Track the types generated by the processors, so that the next compilation can be incremental
+            spec.setEffectiveAnnotationProcessors(annotationProcessors);
+        }
         WorkResult out = delegate.execute(spec);
 
         if (!(out instanceof RecompilationNotNecessary)) {
             //if recompilation was skipped
             //there's no point in updating because we have exactly the same output classes)
-            updater.updateAnalysis(spec);
+            updater.updateAnalysis(spec, out);
         }
 
         writer.storeJarSnapshots(spec.getCompileClasspath());
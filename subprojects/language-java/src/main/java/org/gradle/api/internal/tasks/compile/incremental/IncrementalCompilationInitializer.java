@@ -64,6 +64,8 @@ class IncrementalCompilationInitializer {
             String path = staleClass.replaceAll("\\.", "/");
             classesToDelete.include(path.concat(".class"));
             classesToDelete.include(path.concat("$*.class"));
+            //annotation processors write generated sources to the destination directory, unless told otherwise
+            classesToDelete.include(path.concat(".java"));
 
             //the stale class might be a source class that was deleted
             //it's no harm to include it in sourceToCompile anyway
@@ -22,9 +22,14 @@ import org.gradle.api.internal.tasks.compile.incremental.jar.JarChangeProcessor;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
 import static org.gradle.internal.FileUtils.hasExtension;
 
 public class RecompilationSpecProvider {
@@ -40,6 +45,11 @@ public class RecompilationSpecProvider {
     public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot) {
         //creating an action that will be executed against all changes
         RecompilationSpec spec = new RecompilationSpec();
+        AnnotationProcessingResult annotationProcessingResult = previousCompilation.getAnnotationProcessingResult();
+        if (annotationProcessingResult.getFullRebuildCause() != null) {
+            spec.setFullRebuildCause(annotationProcessingResult.getFullRebuildCause(), null);
+            return spec;
+        }
         JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(previousCompilation, sourceToNameConverter);
         ClassChangeProcessor classChangeProcessor = new ClassChangeProcessor(previousCompilation);
         JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(fileOperations, jarClasspathSnapshot, previousCompilation);
@@ -52,9 +62,46 @@ public class RecompilationSpecProvider {
             return action.spec;
         }
         inputs.removed(action);
+        if (action.spec.getFullRebuildCause() == null) {
+            addAnnotationProcessingDependents(annotationProcessingResult, action.spec.getClassNames());
+        }
         return action.spec;
     }
 
+    static void addAnnotationProcessingDependents(AnnotationProcessingResult annotationProcessingResult, Collection<String> classNames) {
+        if (classNames.isEmpty()) {
+            return;
+        }
+        // Aggregating processors need to see all of the types they processed before, and regenerate their outputs
+        if (!annotationProcessingResult.getAggregatedTypes().isEmpty() || !annotationProcessingResult.getGeneratedTypesDependingOnAllOthers().isEmpty()) {
+            classNames.addAll(annotationProcessingResult.getAggregatedTypes());
+            classNames.addAll(annotationProcessingResult.getGeneratedTypesDependingOnAllOthers());
+        }
+        // A type generated by an isolating processor is regenerated by recompiling its origin, and is stale whenever its origin is recompiled.
+        // Generated types can be the origin of other generated types, so repeat until nothing more is added
+        boolean added;
+        do {
+            added = false;
+            for (Map.Entry<String, Set<String>> entry : annotationProcessingResult.getGeneratedTypesByOrigin().entrySet()) {
+                String origin = entry.getKey();
+                Set<String> generatedTypes = entry.getValue();
+                if (classNames.contains(origin) || containsAny(classNames, generatedTypes)) {
+                    added |= classNames.add(origin);
+                    added |= classNames.addAll(generatedTypes);
+                }
+            }
+        } while (added);
+    }
+
+    private static boolean containsAny(Collection<String> classNames, Set<String> candidates) {
+        for (String candidate : candidates) {
+            if (classNames.contains(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static class InputChangeAction implements Action<InputFileDetails> {
         private final RecompilationSpec spec;
         private final JavaChangeProcessor javaChangeProcessor;
@@ -45,8 +45,8 @@ public class ClassSetAnalysis {
             }
             for (String dependentClass : dependentClasses) {
                 result.add(dependentClass);
-                Set<String> children = data.classesToChildren.get(dependentClass);
-                if (children != null && children.contains(cls)) {
+                Set<String> children = data.getChildren(dependentClass);
+                if (children.contains(cls)) {
                     System.out.println("children = " + children);
                 }
             }
@@ -16,219 +16,484 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.SetSerializer;
 
 import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import static org.gradle.internal.serialize.BaseSerializerFactory.INTEGER_SERIALIZER;
-
+/**
+ * The dependency analysis of a set of classes.
+ *
+ * <p>The analysis can be very large for big source sets, and is loaded on every incremental compilation in order to look up only a few classes.
+ * To keep it cheap to load and to hold, each class name is stored once in a table and the relations between classes are stored as lists of
+ * indexes into this table, packed into flat int arrays. Lookups only create the (small) sets they return.</p>
+ */
 public class ClassSetAnalysisData {
-    final Map<String, String> filePathToClassName;
-    final Map<String, DependentsSet> dependents;
-    final Map<String, Set<Integer>> classesToConstants;
-    final Map<Integer, Set<String>> literalsToClasses;
-    final Map<String, Set<String>> classesToChildren;
+    private static final byte NO_DEPENDENTS = 0;
+    private static final byte DEPENDENTS = 1;
+    private static final byte DEPENDENCY_TO_ALL = 2;
+
+    private final StringTable classNames;
+    private final StringTable filePaths;
+    // The class for each file path
+    private final int[] fileClasses;
+    // One of NO_DEPENDENTS, DEPENDENTS or DEPENDENCY_TO_ALL for each class
+    private final byte[] dependentsKinds;
+    // Only contains the classes that are a dependency to all and have a reason
+    private final Map<Integer, String> dependencyToAllReasons;
+    private final IntLists dependents;
+    private final IntLists classesToConstants;
+    private final IntLists classesToChildren;
+    private final int[] literals;
+    private final IntLists literalsToClasses;
+    private final AnnotationProcessingResult annotationProcessingResult;
 
     public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Multimap<String, Integer> classesToConstants, Multimap<Integer, String> literalsToClasses, Multimap<String, String> classesToChildren) {
-        this(filePathToClassName, dependents, asMap(classesToConstants), asMap(literalsToClasses), asMap(classesToChildren));
+        this(filePathToClassName, dependents, classesToConstants.asMap(), literalsToClasses.asMap(), classesToChildren.asMap(), new AnnotationProcessingResult());
+    }
+
+    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, ? extends Collection<Integer>> classesToConstants, Map<Integer, ? extends Collection<String>> literalsToClasses, Map<String, ? extends Collection<String>> classesToChildren) {
+        this(filePathToClassName, dependents, classesToConstants, literalsToClasses, classesToChildren, new AnnotationProcessingResult());
+    }
+
+    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, ? extends Collection<Integer>> classesToConstants, Map<Integer, ? extends Collection<String>> literalsToClasses, Map<String, ? extends Collection<String>> classesToChildren, AnnotationProcessingResult annotationProcessingResult) {
+        this(new Builder(filePathToClassName, dependents, classesToConstants, literalsToClasses, classesToChildren), annotationProcessingResult);
     }
 
-    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, Set<Integer>> classesToConstants, Map<Integer, Set<String>> literalsToClasses, Map<String, Set<String>> classesToChildren) {
-        this.filePathToClassName = filePathToClassName;
+    private ClassSetAnalysisData(Builder builder, AnnotationProcessingResult annotationProcessingResult) {
+        this(builder.classNames(), builder.filePaths, builder.fileClasses, builder.dependentsKinds, builder.dependencyToAllReasons, builder.dependents,
+            builder.classesToConstants, builder.classesToChildren, builder.literals, builder.literalsToClasses, annotationProcessingResult);
+    }
+
+    private ClassSetAnalysisData(String[] classNames, String[] filePaths, int[] fileClasses, byte[] dependentsKinds, Map<Integer, String> dependencyToAllReasons, IntLists dependents,
+                                 IntLists classesToConstants, IntLists classesToChildren, int[] literals, IntLists literalsToClasses, AnnotationProcessingResult annotationProcessingResult) {
+        this.classNames = new StringTable(classNames);
+        this.filePaths = new StringTable(filePaths);
+        this.fileClasses = fileClasses;
+        this.dependentsKinds = dependentsKinds;
+        this.dependencyToAllReasons = dependencyToAllReasons;
         this.dependents = dependents;
         this.classesToConstants = classesToConstants;
-        this.literalsToClasses = literalsToClasses;
         this.classesToChildren = classesToChildren;
+        this.literals = literals;
+        this.literalsToClasses = literalsToClasses;
+        this.annotationProcessingResult = annotationProcessingResult;
     }
 
-    private static <K, V> Map<K, Set<V>> asMap(Multimap<K, V> multimap) {
-        ImmutableMap.Builder<K, Set<V>> builder = ImmutableMap.builder();
-        for (K key : multimap.keySet()) {
-            builder.put(key, ImmutableSet.copyOf(multimap.get(key)));
-        }
-        return builder.build();
+    private ClassSetAnalysisData(ClassSetAnalysisData data, AnnotationProcessingResult annotationProcessingResult) {
+        this.classNames = data.classNames;
+        this.filePaths = data.filePaths;
+        this.fileClasses = data.fileClasses;
+        this.dependentsKinds = data.dependentsKinds;
+        this.dependencyToAllReasons = data.dependencyToAllReasons;
+        this.dependents = data.dependents;
+        this.classesToConstants = data.classesToConstants;
+        this.classesToChildren = data.classesToChildren;
+        this.literals = data.literals;
+        this.literalsToClasses = data.literalsToClasses;
+        this.annotationProcessingResult = annotationProcessingResult;
+    }
+
+    public ClassSetAnalysisData withAnnotationProcessingResult(AnnotationProcessingResult annotationProcessingResult) {
+        return new ClassSetAnalysisData(this, annotationProcessingResult);
+    }
+
+    public Collection<String> getClassNames() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return classNames.get(fileClasses[index]);
+            }
+
+            @Override
+            public int size() {
+                return fileClasses.length;
+            }
+        };
+    }
+
+    /**
+     * Which types were generated by incremental annotation processors, and which types they were generated from.
+     */
+    public AnnotationProcessingResult getAnnotationProcessingResult() {
+        return annotationProcessingResult;
     }
 
     public String getClassNameForFile(String filePath) {
-        return filePathToClassName.get(filePath);
+        int file = filePaths.indexOf(filePath);
+        return file < 0 ? null : classNames.get(fileClasses[file]);
     }
 
     public DependentsSet getDependents(String className) {
-        return dependents.get(className);
+        int cls = classNames.indexOf(className);
+        if (cls < 0) {
+            return null;
+        }
+        switch (dependentsKinds[cls]) {
+            case DEPENDENTS:
+                return new DefaultDependentsSet(getClassNames(dependents, cls));
+            case DEPENDENCY_TO_ALL:
+                String reason = dependencyToAllReasons.get(cls);
+                return reason == null ? DependencyToAll.INSTANCE : new DependencyToAll(reason);
+            default:
+                return null;
+        }
     }
 
     public Set<Integer> getConstants(String className) {
-        Set<Integer> integers = classesToConstants.get(className);
-        if (integers == null) {
+        int cls = classNames.indexOf(className);
+        if (cls < 0 || classesToConstants.length(cls) == 0) {
             return Collections.emptySet();
         }
-        return integers;
+        ImmutableSet.Builder<Integer> builder = ImmutableSet.builder();
+        for (int i = 0; i < classesToConstants.length(cls); i++) {
+            builder.add(classesToConstants.get(cls, i));
+        }
+        return builder.build();
     }
 
     public Set<String> getChildren(String className) {
-        Set<String> children = classesToChildren.get(className);
-        return children == null ? Collections.<String>emptySet() : children;
+        int cls = classNames.indexOf(className);
+        return cls < 0 ? Collections.<String>emptySet() : getClassNames(classesToChildren, cls);
     }
 
-    public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
-        private static final SetSerializer<Integer> INTEGER_SET_SERIALIZER = new SetSerializer<Integer>(INTEGER_SERIALIZER, false);
+    private Set<String> getClassNames(IntLists lists, int index) {
+        int length = lists.length(index);
+        if (length == 0) {
+            return Collections.emptySet();
+        }
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (int i = 0; i < length; i++) {
+            builder.add(classNames.get(lists.get(index, i)));
+        }
+        return builder.build();
+    }
 
-        @Override
-        public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            // Class names are de-duplicated when encoded
-            Map<Integer, String> classNameMap = new HashMap<Integer, String>();
+    /**
+     * A list of int lists, stored as a single array of values and the offset of each list into it.
+     */
+    private static class IntLists {
+        // Has one more entry than there are lists, so that the end of the last list is known
+        private final int[] offsets;
+        private final int[] values;
 
-            int count = decoder.readSmallInt();
-            ImmutableMap.Builder<String, String> filePathToClassNameBuilder = ImmutableMap.builder();
-            for (int i = 0; i < count; i++) {
-                String filePath = decoder.readString();
-                String className = readClassName(decoder, classNameMap);
-                filePathToClassNameBuilder.put(filePath, className);
-            }
+        IntLists(int[] offsets, int[] values) {
+            this.offsets = offsets;
+            this.values = values;
+        }
 
-            count = decoder.readSmallInt();
-            ImmutableMap.Builder<String, DependentsSet> dependentsBuilder = ImmutableMap.builder();
-            for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                DependentsSet dependents = readDependentsSet(decoder, classNameMap);
-                dependentsBuilder.put(className, dependents);
+        static IntLists of(int[][] lists) {
+            int[] offsets = new int[lists.length + 1];
+            for (int i = 0; i < lists.length; i++) {
+                offsets[i + 1] = offsets[i] + lists[i].length;
             }
-
-            count = decoder.readSmallInt();
-            ImmutableMap.Builder<String, Set<Integer>> classesToConstantsBuilder = ImmutableMap.builder();
-            for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                Set<Integer> constants = INTEGER_SET_SERIALIZER.read(decoder);
-                classesToConstantsBuilder.put(className, constants);
+            int[] values = new int[offsets[lists.length]];
+            for (int i = 0; i < lists.length; i++) {
+                System.arraycopy(lists[i], 0, values, offsets[i], lists[i].length);
             }
+            return new IntLists(offsets, values);
+        }
 
-            count = decoder.readSmallInt();
-            ImmutableMap.Builder<Integer, Set<String>> literalsToClassesBuilder = ImmutableMap.builder();
-            for (int i = 0; i < count; i++) {
-                int literal = decoder.readInt();
-                int nameCount = decoder.readSmallInt();
-                ImmutableSet.Builder<String> namesBuilder = ImmutableSet.builder();
-                for (int j = 0; j < nameCount; j++) {
-                    namesBuilder.add(readClassName(decoder, classNameMap));
+        int size() {
+            return offsets.length - 1;
+        }
+
+        int length(int list) {
+            return offsets[list + 1] - offsets[list];
+        }
+
+        int get(int list, int index) {
+            return values[offsets[list] + index];
+        }
+    }
+
+    /**
+     * A table of distinct strings. The index used to look up the position of a string is built on first use, as most tables are only read
+     * a few times.
+     */
+    private static class StringTable {
+        private final String[] strings;
+        // Open addressing hash table holding the position of each string plus one, or zero for an empty slot
+        private volatile int[] slots;
+
+        StringTable(String[] strings) {
+            this.strings = strings;
+        }
+
+        int size() {
+            return strings.length;
+        }
+
+        String get(int index) {
+            return strings[index];
+        }
+
+        int indexOf(String string) {
+            int[] slots = getSlots();
+            int mask = slots.length - 1;
+            for (int slot = hash(string) & mask;; slot = (slot + 1) & mask) {
+                int candidate = slots[slot];
+                if (candidate == 0) {
+                    return -1;
+                }
+                if (strings[candidate - 1].equals(string)) {
+                    return candidate - 1;
                 }
-                literalsToClassesBuilder.put(literal, namesBuilder.build());
             }
+        }
 
-            count = decoder.readSmallInt();
-            ImmutableMap.Builder<String, Set<String>> classNameToChildren = ImmutableMap.builder();
-            for (int i = 0; i < count; i++) {
-                String parent = readClassName(decoder, classNameMap);
-                int nameCount = decoder.readSmallInt();
-                ImmutableSet.Builder<String> namesBuilder = ImmutableSet.builder();
-                for (int j = 0; j < nameCount; j++) {
-                    namesBuilder.add(readClassName(decoder, classNameMap));
+        private int[] getSlots() {
+            int[] slots = this.slots;
+            if (slots == null) {
+                // Tables are immutable, so it does not matter if several threads build the index at the same time
+                slots = new int[Integer.highestOneBit(Math.max(strings.length, 1)) << 2];
+                int mask = slots.length - 1;
+                for (int i = 0; i < strings.length; i++) {
+                    int slot = hash(strings[i]) & mask;
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = i + 1;
                 }
-                classNameToChildren.put(parent, namesBuilder.build());
+                this.slots = slots;
             }
+            return slots;
+        }
 
-            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build());
+        private static int hash(String string) {
+            int h = string.hashCode();
+            return h ^ (h >>> 16);
         }
+    }
 
-        @Override
-        public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            // Deduplicate class names when encoding.
-            // This would be more efficient with a better data structure in ClassSetAnalysisData
-            Map<String, Integer> classNameMap = new HashMap<String, Integer>();
+    /**
+     * Converts the analysis from maps keyed by class name.
+     */
+    private static class Builder {
+        private final Map<String, Integer> classIds = new HashMap<String, Integer>();
+        private final List<String> classNames = new ArrayList<String>();
+        private final String[] filePaths;
+        private final int[] fileClasses;
+        private final byte[] dependentsKinds;
+        private final Map<Integer, String> dependencyToAllReasons = new HashMap<Integer, String>();
+        private final IntLists dependents;
+        private final IntLists classesToConstants;
+        private final IntLists classesToChildren;
+        private final int[] literals;
+        private final IntLists literalsToClasses;
 
-            encoder.writeSmallInt(value.filePathToClassName.size());
-            for (Map.Entry<String, String> entry : value.filePathToClassName.entrySet()) {
-                encoder.writeString(entry.getKey());
-                writeClassName(entry.getValue(), classNameMap, encoder);
+        Builder(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, ? extends Collection<Integer>> classesToConstants, Map<Integer, ? extends Collection<String>> literalsToClasses, Map<String, ? extends Collection<String>> classesToChildren) {
+            // Assign an id to each class first, so that the lists can be indexed by class id
+            filePaths = new String[filePathToClassName.size()];
+            fileClasses = new int[filePathToClassName.size()];
+            int file = 0;
+            for (Map.Entry<String, String> entry : filePathToClassName.entrySet()) {
+                filePaths[file] = entry.getKey();
+                fileClasses[file] = id(entry.getValue());
+                file++;
             }
-
-            encoder.writeSmallInt(value.dependents.size());
-            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                writeDependentSet(entry.getValue(), classNameMap, encoder);
+            for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+                id(entry.getKey());
+                if (!entry.getValue().isDependencyToAll()) {
+                    ids(entry.getValue().getDependentClasses());
+                }
             }
-
-            encoder.writeSmallInt(value.classesToConstants.size());
-            for (Map.Entry<String, Set<Integer>> entry : value.classesToConstants.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                INTEGER_SET_SERIALIZER.write(encoder, entry.getValue());
+            for (String className : classesToConstants.keySet()) {
+                id(className);
             }
+            for (Map.Entry<String, ? extends Collection<String>> entry : classesToChildren.entrySet()) {
+                id(entry.getKey());
+                ids(entry.getValue());
+            }
+            literals = new int[literalsToClasses.size()];
+            int[][] literalClasses = new int[literalsToClasses.size()][];
+            int literal = 0;
+            for (Map.Entry<Integer, ? extends Collection<String>> entry : literalsToClasses.entrySet()) {
+                literals[literal] = entry.getKey();
+                literalClasses[literal] = ids(entry.getValue());
+                literal++;
+            }
+            this.literalsToClasses = IntLists.of(literalClasses);
 
-            encoder.writeSmallInt(value.literalsToClasses.size());
-            for (Map.Entry<Integer, Set<String>> entry : value.literalsToClasses.entrySet()) {
-                encoder.writeInt(entry.getKey());
-                encoder.writeSmallInt(entry.getValue().size());
-                for (String className : entry.getValue()) {
-                    writeClassName(className, classNameMap, encoder);
+            int classCount = classNames.size();
+            dependentsKinds = new byte[classCount];
+            int[][] dependentClasses = emptyLists(classCount);
+            for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+                int cls = classIds.get(entry.getKey());
+                if (entry.getValue().isDependencyToAll()) {
+                    dependentsKinds[cls] = DEPENDENCY_TO_ALL;
+                    if (entry.getValue().getDescription() != null) {
+                        dependencyToAllReasons.put(cls, entry.getValue().getDescription());
+                    }
+                } else {
+                    dependentsKinds[cls] = DEPENDENTS;
+                    dependentClasses[cls] = ids(entry.getValue().getDependentClasses());
                 }
             }
+            this.dependents = IntLists.of(dependentClasses);
 
-            encoder.writeSmallInt(value.classesToChildren.size());
-            for (Map.Entry<String, Set<String>> entry : value.classesToChildren.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                encoder.writeSmallInt(entry.getValue().size());
-                for (String className : entry.getValue()) {
-                    writeClassName(className, classNameMap, encoder);
+            int[][] constants = emptyLists(classCount);
+            for (Map.Entry<String, ? extends Collection<Integer>> entry : classesToConstants.entrySet()) {
+                int[] values = new int[entry.getValue().size()];
+                int i = 0;
+                for (Integer constant : entry.getValue()) {
+                    values[i++] = constant;
                 }
+                constants[classIds.get(entry.getKey())] = values;
+            }
+            this.classesToConstants = IntLists.of(constants);
+
+            int[][] children = emptyLists(classCount);
+            for (Map.Entry<String, ? extends Collection<String>> entry : classesToChildren.entrySet()) {
+                children[classIds.get(entry.getKey())] = ids(entry.getValue());
             }
+            this.classesToChildren = IntLists.of(children);
+        }
+
+        String[] classNames() {
+            return classNames.toArray(new String[0]);
         }
 
-        private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            byte b = decoder.readByte();
-            if (b == 1) {
-                return new DependencyToAll(decoder.readNullableString());
+        private int id(String className) {
+            Integer id = classIds.get(className);
+            if (id == null) {
+                id = classNames.size();
+                classIds.put(className, id);
+                classNames.add(className);
             }
-            int count = decoder.readSmallInt();
-            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+            return id;
+        }
+
+        private int[] ids(Collection<String> classNames) {
+            int[] ids = new int[classNames.size()];
+            int i = 0;
+            for (String className : classNames) {
+                ids[i++] = id(className);
+            }
+            return ids;
+        }
+
+        private static int[][] emptyLists(int count) {
+            int[][] lists = new int[count][];
+            int[] empty = new int[0];
             for (int i = 0; i < count; i++) {
-                builder.add(readClassName(decoder, classNameMap));
+                lists[i] = empty;
             }
-            return new DefaultDependentsSet(builder.build());
+            return lists;
         }
+    }
 
-        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classNameMap, Encoder encoder) throws IOException {
-            if (dependentsSet.isDependencyToAll()) {
-                encoder.writeByte((byte) 1);
-                encoder.writeNullableString(dependentsSet.getDescription());
-            } else {
-                encoder.writeByte((byte) 2);
-                encoder.writeSmallInt(dependentsSet.getDependentClasses().size());
-                for (String className : dependentsSet.getDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
+    public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
+        private static final AnnotationProcessingResult.Serializer ANNOTATION_PROCESSING_RESULT_SERIALIZER = new AnnotationProcessingResult.Serializer();
+
+        @Override
+        public ClassSetAnalysisData read(Decoder decoder) throws Exception {
+            int classCount = decoder.readSmallInt();
+            String[] classNames = new String[classCount];
+            for (int i = 0; i < classCount; i++) {
+                classNames[i] = decoder.readString();
+            }
+
+            int fileCount = decoder.readSmallInt();
+            String[] filePaths = new String[fileCount];
+            int[] fileClasses = new int[fileCount];
+            for (int i = 0; i < fileCount; i++) {
+                filePaths[i] = decoder.readString();
+                fileClasses[i] = decoder.readSmallInt();
+            }
+
+            byte[] dependentsKinds = new byte[classCount];
+            decoder.readBytes(dependentsKinds);
+            Map<Integer, String> dependencyToAllReasons = new HashMap<Integer, String>();
+            int reasonCount = decoder.readSmallInt();
+            for (int i = 0; i < reasonCount; i++) {
+                dependencyToAllReasons.put(decoder.readSmallInt(), decoder.readString());
+            }
+            IntLists dependents = readLists(decoder, true);
+            IntLists classesToConstants = readLists(decoder, false);
+            IntLists classesToChildren = readLists(decoder, true);
+
+            int literalCount = decoder.readSmallInt();
+            int[] literals = new int[literalCount];
+            for (int i = 0; i < literalCount; i++) {
+                literals[i] = decoder.readInt();
+            }
+            IntLists literalsToClasses = readLists(decoder, true);
+
+            AnnotationProcessingResult annotationProcessingResult = ANNOTATION_PROCESSING_RESULT_SERIALIZER.read(decoder);
+
+            return new ClassSetAnalysisData(classNames, filePaths, fileClasses, dependentsKinds, dependencyToAllReasons, dependents,
+                classesToConstants, classesToChildren, literals, literalsToClasses, annotationProcessingResult);
+        }
+
+        @Override
+        public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
+            encoder.writeSmallInt(value.classNames.size());
+            for (int i = 0; i < value.classNames.size(); i++) {
+                encoder.writeString(value.classNames.get(i));
+            }
+
+            encoder.writeSmallInt(value.filePaths.size());
+            for (int i = 0; i < value.filePaths.size(); i++) {
+                encoder.writeString(value.filePaths.get(i));
+                encoder.writeSmallInt(value.fileClasses[i]);
+            }
+
+            encoder.writeBytes(value.dependentsKinds);
+            encoder.writeSmallInt(value.dependencyToAllReasons.size());
+            for (Map.Entry<Integer, String> entry : value.dependencyToAllReasons.entrySet()) {
+                encoder.writeSmallInt(entry.getKey());
+                encoder.writeString(entry.getValue());
+            }
+            writeLists(encoder, value.dependents, true);
+            writeLists(encoder, value.classesToConstants, false);
+            writeLists(encoder, value.classesToChildren, true);
+
+            encoder.writeSmallInt(value.literals.length);
+            for (int literal : value.literals) {
+                encoder.writeInt(literal);
             }
+            writeLists(encoder, value.literalsToClasses, true);
+
+            ANNOTATION_PROCESSING_RESULT_SERIALIZER.write(encoder, value.annotationProcessingResult);
         }
 
-        private String readClassName(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            int id = decoder.readSmallInt();
-            if (id == 0) {
-                id = decoder.readSmallInt();
-                String className = decoder.readString();
-                classNameMap.put(id, className);
-                return className;
+        private static IntLists readLists(Decoder decoder, boolean small) throws IOException {
+            int count = decoder.readSmallInt();
+            int[] offsets = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                offsets[i + 1] = offsets[i] + decoder.readSmallInt();
+            }
+            int[] values = new int[offsets[count]];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = small ? decoder.readSmallInt() : decoder.readInt();
             }
-            return classNameMap.get(id);
+            return new IntLists(offsets, values);
         }
 
-        private void writeClassName(String className, Map<String, Integer> classIdMap, Encoder encoder) throws IOException {
-            Integer id = classIdMap.get(className);
-            if (id == null) {
-                id = classIdMap.size() + 1;
-                classIdMap.put(className, id);
-                encoder.writeSmallInt(0);
-                encoder.writeSmallInt(id);
-                encoder.writeString(className);
-            } else {
-                encoder.writeSmallInt(id);
+        private static void writeLists(Encoder encoder, IntLists lists, boolean small) throws IOException {
+            encoder.writeSmallInt(lists.size());
+            for (int i = 0; i < lists.size(); i++) {
+                encoder.writeSmallInt(lists.length(i));
+            }
+            for (int value : lists.values) {
+                if (small) {
+                    encoder.writeSmallInt(value);
+                } else {
+                    encoder.writeInt(value);
+                }
             }
         }
     }
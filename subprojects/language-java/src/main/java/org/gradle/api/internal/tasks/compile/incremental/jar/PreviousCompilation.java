@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
 import com.google.common.collect.Sets;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 
@@ -41,6 +42,10 @@ public class PreviousCompilation {
         return analysis.getRelevantDependents(allClasses, constants);
     }
 
+    public AnnotationProcessingResult getAnnotationProcessingResult() {
+        return analysis.getData().getAnnotationProcessingResult();
+    }
+
     public String getClassName(String path) {
         return analysis.getData().getClassNameForFile(path);
     }
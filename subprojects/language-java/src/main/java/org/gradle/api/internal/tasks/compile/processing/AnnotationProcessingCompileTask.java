@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classpath.DefaultClassPath;
+
+import javax.annotation.processing.Processor;
+import javax.tools.JavaCompiler;
+import java.io.File;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Loads the incremental annotation processors explicitly instead of letting the compiler discover them, so that the files they generate can be tracked.
+ */
+public class AnnotationProcessingCompileTask implements JavaCompiler.CompilationTask {
+    private final JavaCompiler.CompilationTask delegate;
+    private final Collection<AnnotationProcessorDeclaration> processorDeclarations;
+    private final List<File> annotationProcessorPath;
+    private final AnnotationProcessingResult result;
+    private Iterable<? extends Processor> processors;
+
+    public AnnotationProcessingCompileTask(JavaCompiler.CompilationTask delegate, Collection<AnnotationProcessorDeclaration> processorDeclarations, List<File> annotationProcessorPath, AnnotationProcessingResult result) {
+        this.delegate = delegate;
+        this.processorDeclarations = processorDeclarations;
+        this.annotationProcessorPath = annotationProcessorPath;
+        this.result = result;
+    }
+
+    /**
+     * Replaces the processors loaded from the annotation processor path. The files generated by these processors cannot be tracked.
+     */
+    @Override
+    public void setProcessors(Iterable<? extends Processor> processors) {
+        this.processors = processors;
+    }
+
+    @Override
+    public void setLocale(Locale locale) {
+        delegate.setLocale(locale);
+    }
+
+    @Override
+    public Boolean call() {
+        if (processors != null) {
+            result.setFullRebuildCause("the annotation processors were set explicitly");
+            delegate.setProcessors(processors);
+            return delegate.call();
+        }
+        // Use the same parent as the compiler does for the processor path, as some processors use the compiler internals
+        URLClassLoader processorClassLoader = new URLClassLoader(new DefaultClassPath(annotationProcessorPath).getAsURLArray(), delegate.getClass().getClassLoader());
+        try {
+            delegate.setProcessors(createProcessors(processorClassLoader));
+            return delegate.call();
+        } finally {
+            ClassLoaderUtils.tryClose(processorClassLoader);
+        }
+    }
+
+    private List<Processor> createProcessors(ClassLoader processorClassLoader) {
+        List<Processor> processors = new ArrayList<Processor>(processorDeclarations.size());
+        for (AnnotationProcessorDeclaration declaration : processorDeclarations) {
+            try {
+                Processor processor = (Processor) processorClassLoader.loadClass(declaration.getClassName()).newInstance();
+                processors.add(new IncrementalProcessor(processor, declaration, result));
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return processors;
+    }
+}
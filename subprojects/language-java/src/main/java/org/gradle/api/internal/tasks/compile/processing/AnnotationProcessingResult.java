@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.SetSerializer;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Records which types were generated by incremental annotation processors during a compilation, and which types they were generated from.
+ */
+public class AnnotationProcessingResult implements Serializable {
+    private final Map<String, Set<String>> generatedTypesByOrigin = new LinkedHashMap<String, Set<String>>();
+    private final Set<String> aggregatedTypes = new LinkedHashSet<String>();
+    private final Set<String> generatedTypesDependingOnAllOthers = new LinkedHashSet<String>();
+    private String fullRebuildCause;
+
+    /**
+     * The types generated by isolating processors, keyed by the top level type they were generated from.
+     */
+    public Map<String, Set<String>> getGeneratedTypesByOrigin() {
+        return generatedTypesByOrigin;
+    }
+
+    public void addGeneratedType(String generatedType, String originatingType) {
+        Set<String> generatedTypes = generatedTypesByOrigin.get(originatingType);
+        if (generatedTypes == null) {
+            generatedTypes = new LinkedHashSet<String>();
+            generatedTypesByOrigin.put(originatingType, generatedTypes);
+        }
+        generatedTypes.add(generatedType);
+    }
+
+    /**
+     * The top level types that were processed by aggregating processors. These need to be recompiled together whenever anything is recompiled.
+     */
+    public Set<String> getAggregatedTypes() {
+        return aggregatedTypes;
+    }
+
+    /**
+     * The types generated by aggregating processors. These are regenerated whenever anything is recompiled.
+     */
+    public Set<String> getGeneratedTypesDependingOnAllOthers() {
+        return generatedTypesDependingOnAllOthers;
+    }
+
+    public String getFullRebuildCause() {
+        return fullRebuildCause;
+    }
+
+    public void setFullRebuildCause(String fullRebuildCause) {
+        if (this.fullRebuildCause == null) {
+            this.fullRebuildCause = fullRebuildCause;
+        }
+    }
+
+    public static class Serializer extends AbstractSerializer<AnnotationProcessingResult> {
+        private static final SetSerializer<String> STRING_SET_SERIALIZER = new SetSerializer<String>(STRING_SERIALIZER, false);
+
+        @Override
+        public AnnotationProcessingResult read(Decoder decoder) throws Exception {
+            AnnotationProcessingResult result = new AnnotationProcessingResult();
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                String origin = decoder.readString();
+                result.generatedTypesByOrigin.put(origin, STRING_SET_SERIALIZER.read(decoder));
+            }
+            result.aggregatedTypes.addAll(STRING_SET_SERIALIZER.read(decoder));
+            result.generatedTypesDependingOnAllOthers.addAll(STRING_SET_SERIALIZER.read(decoder));
+            result.fullRebuildCause = decoder.readNullableString();
+            return result;
+        }
+
+        @Override
+        public void write(Encoder encoder, AnnotationProcessingResult value) throws Exception {
+            encoder.writeSmallInt(value.generatedTypesByOrigin.size());
+            for (Map.Entry<String, Set<String>> entry : value.generatedTypesByOrigin.entrySet()) {
+                encoder.writeString(entry.getKey());
+                STRING_SET_SERIALIZER.write(encoder, entry.getValue());
+            }
+            STRING_SET_SERIALIZER.write(encoder, value.aggregatedTypes);
+            STRING_SET_SERIALIZER.write(encoder, value.generatedTypesDependingOnAllOthers);
+            encoder.writeNullableString(value.fullRebuildCause);
+        }
+    }
+}
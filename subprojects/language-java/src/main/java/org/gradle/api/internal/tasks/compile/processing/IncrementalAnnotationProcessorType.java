@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+/**
+ * Describes how an annotation processor can take part in incremental compilation.
+ * Processors declare their type in {@code META-INF/gradle/incremental.annotation.processors}, one {@code <processor class name>,<type>} pair per line.
+ */
+public enum IncrementalAnnotationProcessorType {
+    /**
+     * Each generated type is derived from exactly one annotated type, given as the originating element when the file is created.
+     */
+    ISOLATING,
+    /**
+     * Generated types and resources may be derived from any number of annotated types.
+     */
+    AGGREGATING,
+    /**
+     * The processor has not declared its type. Compilation is never incremental when such a processor is present.
+     */
+    UNKNOWN
+}
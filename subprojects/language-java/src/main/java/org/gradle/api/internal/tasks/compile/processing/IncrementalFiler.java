@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records the types generated by an incremental annotation processor in an {@link AnnotationProcessingResult}.
+ */
+class IncrementalFiler implements Filer {
+    private final Filer delegate;
+    private final String processorName;
+    private final IncrementalAnnotationProcessorType type;
+    private final AnnotationProcessingResult result;
+
+    IncrementalFiler(Filer delegate, String processorName, IncrementalAnnotationProcessorType type, AnnotationProcessingResult result) {
+        this.delegate = delegate;
+        this.processorName = processorName;
+        this.type = type;
+        this.result = result;
+    }
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+        recordGeneratedType(name, originatingElements);
+        return delegate.createSourceFile(name, originatingElements);
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+        recordGeneratedType(name, originatingElements);
+        return delegate.createClassFile(name, originatingElements);
+    }
+
+    @Override
+    public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+        if (type == IncrementalAnnotationProcessorType.ISOLATING) {
+            // Resources are not tracked, so they can only be regenerated by a full recompilation
+            result.setFullRebuildCause(processorName + " is an isolating processor and generated resource '" + relativeName + "'");
+        }
+        return delegate.createResource(location, pkg, relativeName, originatingElements);
+    }
+
+    @Override
+    public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+        return delegate.getResource(location, pkg, relativeName);
+    }
+
+    private void recordGeneratedType(CharSequence name, Element[] originatingElements) {
+        String generatedType = name.toString();
+        int moduleSeparator = generatedType.indexOf('/');
+        if (moduleSeparator >= 0) {
+            generatedType = generatedType.substring(moduleSeparator + 1);
+        }
+        if (type == IncrementalAnnotationProcessorType.AGGREGATING) {
+            result.getGeneratedTypesDependingOnAllOthers().add(generatedType);
+            return;
+        }
+        Set<String> originatingTypes = new LinkedHashSet<String>();
+        for (Element originatingElement : originatingElements) {
+            String originatingType = getTopLevelTypeName(originatingElement);
+            if (originatingType != null) {
+                originatingTypes.add(originatingType);
+            }
+        }
+        if (originatingTypes.size() != 1) {
+            result.setFullRebuildCause(processorName + " is an isolating processor and generated type " + generatedType + " from " + originatingTypes.size() + " originating types");
+            return;
+        }
+        result.addGeneratedType(generatedType, originatingTypes.iterator().next());
+    }
+
+    static String getTopLevelTypeName(Element element) {
+        Element current = element;
+        while (current.getEnclosingElement() != null && current.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            current = current.getEnclosingElement();
+        }
+        if (current instanceof TypeElement) {
+            return ((TypeElement) current).getQualifiedName().toString();
+        }
+        return null;
+    }
+}
@@ -22,7 +22,7 @@ import org.gradle.api.Incubating;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.tasks.CacheableTask;
-import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.CompileClasspath;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
@@ -279,7 +279,7 @@ public class Javadoc extends SourceTask {
      *
      * @return The classpath.
      */
-    @Classpath
+    @CompileClasspath
     public FileCollection getClasspath() {
         return classpath;
     }
@@ -21,6 +21,7 @@ import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.cache.TestFileContentCacheFactory
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration
 import org.gradle.api.tasks.compile.CompileOptions
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.JarUtils
@@ -28,6 +29,10 @@ import org.junit.Rule
 import spock.lang.Issue
 import spock.lang.Specification
 
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.AGGREGATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.UNKNOWN
+
 class AnnotationProcessorDetectorTest extends Specification {
     @Rule
     TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
@@ -160,6 +165,38 @@ class AnnotationProcessorDetectorTest extends Specification {
         detector.getEffectiveAnnotationProcessorClasspath(options, cp).empty
     }
 
+    def "detects incremental annotation processors declared in directories and jars"() {
+        given:
+        def dir = tmpDir.file("classes-dir")
+        dir.file("META-INF/services/javax.annotation.processing.Processor") << "com.foo.Isolating\n# comment\ncom.foo.Unknown\n"
+        dir.file("META-INF/gradle/incremental.annotation.processors") << "com.foo.Isolating,isolating\ncom.foo.Other,aggregating\n"
+        def jar = tmpDir.file("processor.jar")
+        jar << JarUtils.jarWithContents(
+            "META-INF/services/javax.annotation.processing.Processor": "com.foo.Aggregating",
+            "META-INF/gradle/incremental.annotation.processors": "com.foo.Aggregating,AGGREGATING")
+
+        expect:
+        detector.detectProcessors(options, files(dir, jar)) == [
+            new AnnotationProcessorDeclaration("com.foo.Isolating", ISOLATING),
+            new AnnotationProcessorDeclaration("com.foo.Unknown", UNKNOWN),
+            new AnnotationProcessorDeclaration("com.foo.Aggregating", AGGREGATING)
+        ] as Set
+    }
+
+    def "processors named using -processor are not incremental"() {
+        given:
+        def dir = tmpDir.file("classes-dir")
+        dir.file("META-INF/services/javax.annotation.processing.Processor") << "com.foo.Isolating"
+        dir.file("META-INF/gradle/incremental.annotation.processors") << "com.foo.Isolating,isolating"
+        options.compilerArgs = ['-processor', 'com.foo.Isolating,com.foo.Other']
+
+        expect:
+        detector.detectProcessors(options, files(dir)) == [
+            new AnnotationProcessorDeclaration("com.foo.Isolating", UNKNOWN),
+            new AnnotationProcessorDeclaration("com.foo.Other", UNKNOWN)
+        ] as Set
+    }
+
     FileCollection files(String... paths) {
         new SimpleFileCollection(paths.collect { tmpDir.file(it).createFile() })
     }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import java.nio.charset.Charset
+import java.util.jar.Attributes
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+
+import static org.gradle.util.TestPrecondition.JDK
+
+class JavaFileManagerCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def compiler = Mock(JavaCompiler)
+    def cache = new JavaFileManagerCache(2)
+
+    def "reuses file manager for later compilation"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = old(tmpDir.file("lib.jar").createFile())
+
+        when:
+        def first = cache.acquire(compiler, null, [])
+        first.useFiles([jar])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, [])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        second.is(first)
+        second.fileManager == fileManager
+        1 * fileManager.setLocation(StandardLocation.CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null)
+        0 * fileManager.close()
+    }
+
+    def "uses separate file manager for concurrent compilations and for each encoding"() {
+        def utf8 = Charset.forName("utf-8")
+
+        when:
+        def first = cache.acquire(compiler, null, [])
+        def second = cache.acquire(compiler, null, [])
+        def third = cache.acquire(compiler, utf8, [])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        1 * compiler.getStandardFileManager(null, null, utf8) >> { Mock(StandardJavaFileManager) }
+        [first.fileManager, second.fileManager, third.fileManager].toSet().size() == 3
+
+        when:
+        cache.release(first)
+        cache.release(second)
+
+        then:
+        1 * second.fileManager.close()
+    }
+
+    def "reuses file manager only for the same options that cannot be reset"() {
+        def fileManager = fileManagerWithOptions()
+        def other = fileManagerWithOptions()
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, other]
+
+        when:
+        def first = cache.acquire(compiler, null, ["-classpath", "a.jar", "-bootclasspath", "rt.jar", "-g"])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, ["-classpath", "b.jar", "-bootclasspath", "rt.jar", "-d", "classes"])
+
+        then:
+        second.is(first)
+
+        when:
+        cache.release(second)
+        def third = cache.acquire(compiler, null, ["-classpath", "b.jar"])
+
+        then:
+        1 * fileManager.close()
+        third.fileManager == other
+    }
+
+    def "discards file manager when a jar has changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("lib.jar")
+        jar.text = "content"
+        old(jar)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        def first = cache.acquire(compiler, null, [])
+        first.useFiles([jar])
+        cache.release(first)
+
+        when:
+        jar.text = "changed content"
+        def second = cache.acquire(compiler, null, [])
+
+        then:
+        1 * fileManager.close()
+        !second.is(first)
+        second.fileManager != fileManager
+    }
+
+    def "discards file manager when a jar was modified recently"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("lib.jar")
+        jar.text = "content"
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        def first = cache.acquire(compiler, null, [])
+        first.useFiles([jar])
+        cache.release(first)
+
+        when:
+        def second = cache.acquire(compiler, null, [])
+
+        then:
+        1 * fileManager.close()
+        !second.is(first)
+    }
+
+    def "discards file manager when a jar referenced from a manifest has changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def referenced = tmpDir.file("libs/referenced.jar")
+        writeJar(referenced, null, [:])
+        old(referenced)
+        def jar = tmpDir.file("libs/lib.jar")
+        writeJar(jar, "referenced.jar", [:])
+        old(jar)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        def first = cache.acquire(compiler, null, [])
+        first.useFiles([jar])
+        cache.release(first)
+
+        when:
+        referenced.text = "changed content"
+        def second = cache.acquire(compiler, null, [])
+
+        then:
+        1 * fileManager.close()
+        !second.is(first)
+    }
+
+    def "discards file manager that has seen too many jars"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jars = (1..3).collect { tmpDir.file("lib${it}.jar").createFile() }
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+        def first = cache.acquire(compiler, null, [])
+        first.useFiles(jars)
+
+        when:
+        cache.release(first)
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "does not keep file manager when the maximum number of jars is 0"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def cache = new JavaFileManagerCache(0)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+        def first = cache.acquire(compiler, null, [])
+
+        when:
+        cache.release(first)
+
+        then:
+        1 * fileManager.close()
+    }
+
+    @Requires(JDK)
+    def "compiles with a reused file manager against a jar that has changed and against a different boot classpath"() {
+        def compiler = JdkTools.current().systemJavaCompiler
+        def cache = new JavaFileManagerCache(10)
+        def lib = tmpDir.file("lib.jar")
+        def bootLib = tmpDir.file("boot.jar")
+        def jdkClasses = System.getProperty("sun.boot.class.path")
+        compileJar(compiler, lib, "Lib", "public class Lib { public static void a() { } }")
+        compileJar(compiler, bootLib, "Boot", "public class Boot { }")
+        old(lib)
+        old(bootLib)
+
+        expect:
+        compile(cache, compiler, "A", "class A { void m() { Lib.a(); } }", ["-classpath", lib.path])
+
+        and:
+        compile(cache, compiler, "B", "class B { void m() { Lib.a(); } }", ["-classpath", lib.path])
+
+        when:
+        compileJar(compiler, lib, "Lib", "public class Lib { public static void b() { } }")
+        old(lib)
+
+        then:
+        compile(cache, compiler, "C", "class C { void m() { Lib.b(); } }", ["-classpath", lib.path])
+        !compile(cache, compiler, "D", "class D { void m() { Lib.a(); } }", ["-classpath", lib.path])
+
+        and:
+        jdkClasses == null || compile(cache, compiler, "E", "class E extends Boot { }", ["-bootclasspath", bootLib.path + File.pathSeparator + jdkClasses])
+        !compile(cache, compiler, "F", "class F extends Boot { }", [])
+    }
+
+    private boolean compile(JavaFileManagerCache cache, JavaCompiler compiler, String className, String source, List<String> options) {
+        def sourceFile = tmpDir.file("src/${className}.java")
+        sourceFile.text = source
+        def classesDir = tmpDir.createDir("classes/$className")
+        def allOptions = options + ["-d", classesDir.path]
+        def fileManager = cache.acquire(compiler, null, allOptions)
+        try {
+            fileManager.useFiles(options.contains("-classpath") ? [new File(options[options.indexOf("-classpath") + 1])] : [])
+            def errors = new StringWriter()
+            return compiler.getTask(errors, fileManager.fileManager, null, allOptions, null, fileManager.fileManager.getJavaFileObjects(sourceFile)).call()
+        } finally {
+            cache.release(fileManager)
+        }
+    }
+
+    private void compileJar(JavaCompiler compiler, TestFile jar, String className, String source) {
+        def sourceFile = tmpDir.file("lib-src/${className}.java")
+        sourceFile.text = source
+        def classesDir = tmpDir.file("lib-classes/$className")
+        classesDir.deleteDir()
+        classesDir.createDir()
+        assert compiler.run(null, null, null, "-d", classesDir.path, sourceFile.path) == 0
+        writeJar(jar, null, [("${className}.class".toString()): classesDir.file("${className}.class").bytes])
+    }
+
+    private static void writeJar(TestFile jar, String classPath, Map<String, byte[]> entries) {
+        def manifest = new Manifest()
+        manifest.mainAttributes.put(Attributes.Name.MANIFEST_VERSION, "1.0")
+        if (classPath != null) {
+            manifest.mainAttributes.put(Attributes.Name.CLASS_PATH, classPath)
+        }
+        jar.parentFile.mkdirs()
+        def outputStream = new JarOutputStream(new FileOutputStream(jar), manifest)
+        try {
+            entries.each { name, content ->
+                outputStream.putNextEntry(new JarEntry(name))
+                outputStream.write(content)
+                outputStream.closeEntry()
+            }
+        } finally {
+            outputStream.close()
+        }
+    }
+
+    private StandardJavaFileManager fileManagerWithOptions() {
+        def fileManager = Mock(StandardJavaFileManager)
+        fileManager.isSupportedOption(_) >> { String option -> option in ["-classpath", "-bootclasspath", "-d"] ? 1 : -1 }
+        fileManager
+    }
+
+    private static TestFile old(TestFile file) {
+        assert file.setLastModified(System.currentTimeMillis() - 10000)
+        file
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import com.google.common.hash.HashCode
+import org.gradle.api.file.ConfigurableFileTree
+import org.gradle.api.file.FileTreeElement
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.file.FileOperations
+import org.gradle.api.internal.hash.FileHasher
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.internal.tasks.compile.JdkJavaCompilerResult
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration
+import org.gradle.api.tasks.WorkResult
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+
+class ClassSetAnalysisUpdaterTest extends Specification {
+    def classesDir = new File("classes")
+    def stash = Mock(LocalClassSetAnalysisStore)
+    def visitedFiles = []
+    def fileTree = Stub(ConfigurableFileTree) {
+        visit(_ as FileVisitor) >> { FileVisitor visitor ->
+            visitedFiles.each { visitor.visitFile(it) }
+            null
+        }
+    }
+    def fileOperations = Stub(FileOperations) {
+        fileTree(classesDir) >> fileTree
+    }
+    def analyzer = Stub(ClassDependenciesAnalyzer) {
+        getClassAnalysis(_, _) >> { HashCode hash, FileTreeElement classFile -> new ClassAnalysis(classFile.name - ".class", [] as Set, false, [] as Set, [] as Set, [] as Set) }
+    }
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as FileTreeElement) >> HashCode.fromInt(1)
+    }
+    def spec = Stub(JavaCompileSpec) {
+        getDestinationDir() >> classesDir
+        getCompileClasspath() >> []
+        getEffectiveAnnotationProcessors() >> ([new AnnotationProcessorDeclaration("Processor", ISOLATING)] as Set)
+    }
+    def updater = new ClassSetAnalysisUpdater(stash, fileOperations, analyzer, fileHasher)
+
+    def "keeps the types generated from origins that were not recompiled and still exist"() {
+        def previous = new AnnotationProcessingResult()
+        previous.addGeneratedType("AHelper", "A")
+        previous.addGeneratedType("BHelper", "B")
+        previous.addGeneratedType("CHelper", "C")
+        previous.addGeneratedType("DHelper", "D")
+        previous.aggregatedTypes << "Y"
+        def current = new AnnotationProcessingResult()
+        current.addGeneratedType("BOther", "B")
+        current.aggregatedTypes << "X"
+        current.generatedTypesDependingOnAllOthers << "Registry"
+        classFiles("A", "AHelper", "B", "BOther", "CHelper", "D", "X", "Registry")
+        ClassSetAnalysisData stored = null
+
+        when:
+        updater.updateAnalysis(spec, new JdkJavaCompilerResult(current))
+
+        then:
+        1 * stash.get() >> previousAnalysis(previous)
+        1 * stash.put(_) >> { ClassSetAnalysisData data -> stored = data }
+        def merged = stored.annotationProcessingResult
+        merged.generatedTypesByOrigin == [A: ["AHelper"] as Set, B: ["BOther"] as Set]
+        merged.aggregatedTypes == ["X"] as Set
+        merged.generatedTypesDependingOnAllOthers == ["Registry"] as Set
+        merged.fullRebuildCause == null
+    }
+
+    def "uses the current result when there is no previous analysis"() {
+        def current = new AnnotationProcessingResult()
+        current.addGeneratedType("AHelper", "A")
+        classFiles("A", "AHelper")
+        ClassSetAnalysisData stored = null
+
+        when:
+        updater.updateAnalysis(spec, new JdkJavaCompilerResult(current))
+
+        then:
+        1 * stash.get() >> null
+        1 * stash.put(_) >> { ClassSetAnalysisData data -> stored = data }
+        stored.annotationProcessingResult.is(current)
+    }
+
+    def "requires a full rebuild when the generated types were not tracked by the compiler"() {
+        classFiles("A")
+        ClassSetAnalysisData stored = null
+
+        when:
+        updater.updateAnalysis(spec, Stub(WorkResult))
+
+        then:
+        1 * stash.put(_) >> { ClassSetAnalysisData data -> stored = data }
+        stored.annotationProcessingResult.fullRebuildCause == "the generated types of the annotation processors are only tracked when compiling in-process"
+    }
+
+    private void classFiles(String... classNames) {
+        classNames.each { className ->
+            visitedFiles << Stub(FileVisitDetails) {
+                getName() >> "${className}.class".toString()
+                getFile() >> new File(classesDir, "${className}.class")
+            }
+        }
+    }
+
+    private ClassSetAnalysisData previousAnalysis(AnnotationProcessingResult result) {
+        Stub(ClassSetAnalysisData) {
+            getAnnotationProcessingResult() >> result
+        }
+    }
+}
@@ -18,6 +18,8 @@ package org.gradle.api.internal.tasks.compile.incremental
 
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType
 import org.gradle.api.tasks.WorkResult
 import org.gradle.language.base.internal.compile.Compiler
 import spock.lang.Specification
@@ -30,15 +32,17 @@ class IncrementalCompilationFinalizerTest extends Specification {
     def infoUpdater = Mock(ClassSetAnalysisUpdater)
     def compileSpec = Stub(JavaCompileSpec)
 
-    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater)
+    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater, null)
 
     def "performs finalization"() {
+        def result = Mock(WorkResult)
+
         when:
         finalizer.execute(compileSpec)
 
         then:
-        1 * compiler.execute(compileSpec) >> Mock(WorkResult)
-        1 * infoUpdater.updateAnalysis(compileSpec)
+        1 * compiler.execute(compileSpec) >> result
+        1 * infoUpdater.updateAnalysis(compileSpec, result)
         1 * writer.storeJarSnapshots(_)
         0 * _
     }
@@ -52,4 +56,22 @@ class IncrementalCompilationFinalizerTest extends Specification {
         1 * writer.storeJarSnapshots(_)
         0 * _
     }
+
+    def "tracks incremental annotation processors"() {
+        def processors = [new AnnotationProcessorDeclaration("Processor", IncrementalAnnotationProcessorType.ISOLATING)] as Set
+        def finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater, processors)
+        def spec = Mock(JavaCompileSpec)
+        def result = Mock(WorkResult)
+
+        when:
+        finalizer.execute(spec)
+
+        then:
+        1 * spec.setEffectiveAnnotationProcessors(processors)
+
+        then:
+        1 * compiler.execute(spec) >> result
+        1 * infoUpdater.updateAnalysis(spec, result)
+        1 * writer.storeJarSnapshots(_)
+    }
 }
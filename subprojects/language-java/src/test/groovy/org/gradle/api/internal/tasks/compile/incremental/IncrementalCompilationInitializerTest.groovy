@@ -39,8 +39,10 @@ class IncrementalCompilationInitializerTest extends Specification {
         then:
         1 * classesToDelete.include('com/Foo.class')
         1 * classesToDelete.include('com/Foo$*.class')
+        1 * classesToDelete.include('com/Foo.java')
         1 * classesToDelete.include('Bar.class')
         1 * classesToDelete.include('Bar$*.class')
+        1 * classesToDelete.include('Bar.java')
 
         1 * sourceToCompile.include('Bar.java')
         1 * sourceToCompile.include('com/Foo.java')
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.RecompilationSpecProvider.addAnnotationProcessingDependents
+
+class RecompilationSpecProviderTest extends Specification {
+    def result = new AnnotationProcessingResult()
+
+    def "does not add anything when nothing is recompiled"() {
+        def classNames = [] as Set
+        result.aggregatedTypes << "A"
+        result.generatedTypesDependingOnAllOthers << "Registry"
+        result.addGeneratedType("BHelper", "B")
+
+        when:
+        addAnnotationProcessingDependents(result, classNames)
+
+        then:
+        classNames.isEmpty()
+    }
+
+    def "recompiles the aggregated types and the types generated from them whenever anything is recompiled"() {
+        def classNames = ["Other"] as Set
+        result.aggregatedTypes << "A" << "B"
+        result.generatedTypesDependingOnAllOthers << "Registry"
+
+        when:
+        addAnnotationProcessingDependents(result, classNames)
+
+        then:
+        classNames == ["Other", "A", "B", "Registry"] as Set
+    }
+
+    def "recompiles the origin of a generated type and all types generated from it"() {
+        def classNames = [changed] as Set
+        result.addGeneratedType("AHelper", "A")
+        result.addGeneratedType("AOther", "A")
+        result.addGeneratedType("BHelper", "B")
+
+        when:
+        addAnnotationProcessingDependents(result, classNames)
+
+        then:
+        classNames == ["A", "AHelper", "AOther"] as Set
+
+        where:
+        changed << ["A", "AHelper"]
+    }
+
+    def "follows types that were generated from generated types"() {
+        def classNames = ["AHelperHelper"] as Set
+        result.addGeneratedType("AHelper", "A")
+        result.addGeneratedType("AHelperHelper", "AHelper")
+        result.addGeneratedType("BHelper", "B")
+
+        when:
+        addAnnotationProcessingDependents(result, classNames)
+
+        then:
+        classNames == ["A", "AHelper", "AHelperHelper"] as Set
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
 import org.gradle.internal.serialize.InputStreamBackedDecoder
 import org.gradle.internal.serialize.OutputStreamBackedEncoder
 import spock.lang.Specification
@@ -28,12 +29,17 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
     @Subject serializer = new ClassSetAnalysisData.Serializer()
 
     def "serializes"() {
+        def annotationProcessingResult = new AnnotationProcessingResult()
+        annotationProcessingResult.addGeneratedType("A_Factory", "A")
+        annotationProcessingResult.aggregatedTypes.add("B")
+        annotationProcessingResult.generatedTypesDependingOnAllOthers.add("Registry")
         def data = new ClassSetAnalysisData(
             ["A.class": "A", "B.class": "B"],
             ["A": dependents("B", "C"), "B": new DefaultDependentsSet(["C"] as Set), "C": dependents(), "D": new DependencyToAll(),],
             [C: [1, 2] as Set, D: [] as Set],
             [3: ['A', 'B'] as Set, 4: ['D'] as Set],
-            ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
+            ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set],
+            annotationProcessingResult
         )
         def os = new ByteArrayOutputStream()
         def e = new OutputStreamBackedEncoder(os)
@@ -43,17 +49,63 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
 
         then:
-        read.dependents.keySet() == data.dependents.keySet()
-
         ["A", "B", "C"].each {
-            assert read.dependents[it].dependentClasses == data.dependents[it].dependentClasses
-            assert read.dependents[it].dependencyToAll == data.dependents[it].dependencyToAll
+            assert read.getDependents(it).dependentClasses == data.getDependents(it).dependentClasses
+            assert read.getDependents(it).dependencyToAll == data.getDependents(it).dependencyToAll
         }
 
-        read.dependents["D"] instanceof DependencyToAll
-        read.filePathToClassName == ["A.class": "A", "B.class": "B"]
-        read.classesToConstants == [C: [1,2] as Set, D: [] as Set]
-        read.literalsToClasses == [3: ['A', 'B'] as Set, 4: ['D'] as Set]
-        read.classesToChildren == ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
+        read.getDependents("D") instanceof DependencyToAll
+        read.getDependents("SA") == null
+        read.getDependents("Unknown") == null
+        read.getClassNameForFile("A.class") == "A"
+        read.getClassNameForFile("B.class") == "B"
+        read.getClassNameForFile("C.class") == null
+        read.classNames as List == ["A", "B"]
+        read.getConstants("C") == [1, 2] as Set
+        read.getConstants("D") == [] as Set
+        read.getConstants("A") == [] as Set
+        read.getChildren("A") == ['SA'] as Set
+        read.getChildren("B") == ['SB1', 'SB2'] as Set
+        read.getChildren("C") == [] as Set
+        read.getChildren("Unknown") == [] as Set
+        read.annotationProcessingResult.generatedTypesByOrigin == [A: ['A_Factory'] as Set]
+        read.annotationProcessingResult.aggregatedTypes == ['B'] as Set
+        read.annotationProcessingResult.generatedTypesDependingOnAllOthers == ['Registry'] as Set
+        read.annotationProcessingResult.fullRebuildCause == null
+    }
+
+    def "serializes reason for dependency to all"() {
+        def data = new ClassSetAnalysisData([:], ["A": new DependencyToAll("some reason"), "B": new DependencyToAll()], [:], [:], [:])
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.getDependents("A").dependencyToAll
+        read.getDependents("A").description == "some reason"
+        read.getDependents("B").dependencyToAll
+        read.getDependents("B").description == null
+    }
+
+    def "produces the same output when reading and writing again"() {
+        def data = new ClassSetAnalysisData(
+            ["A.class": "A", "B.class": "B"],
+            ["A": dependents("B", "C"), "D": new DependencyToAll("reason")],
+            [C: [1, -2] as Set],
+            [3: ['A', 'B'] as Set, (-4): ['D'] as Set],
+            ['A': ['SA'] as Set]
+        )
+        def os = new ByteArrayOutputStream()
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+
+        when:
+        def read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+        def os2 = new ByteArrayOutputStream()
+        serializer.write(new OutputStreamBackedEncoder(os2), read)
+
+        then:
+        os2.toByteArray() == os.toByteArray()
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import spock.lang.Specification
+
+import javax.annotation.processing.Processor
+import javax.tools.JavaCompiler
+
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+
+class AnnotationProcessingCompileTaskTest extends Specification {
+    def delegate = Mock(JavaCompiler.CompilationTask)
+    def result = new AnnotationProcessingResult()
+    def task = new AnnotationProcessingCompileTask(delegate, [new AnnotationProcessorDeclaration("com.Missing", ISOLATING)], [], result)
+
+    def "uses the processors that were set instead of the declared processors"() {
+        def processor = Mock(Processor)
+
+        when:
+        task.setProcessors([processor])
+        def success = task.call()
+
+        then:
+        1 * delegate.setProcessors([processor])
+
+        then:
+        1 * delegate.call() >> true
+        0 * _
+        success
+        result.fullRebuildCause == "the annotation processors were set explicitly"
+    }
+
+    def "delegates the locale"() {
+        when:
+        task.setLocale(Locale.FRENCH)
+
+        then:
+        1 * delegate.setLocale(Locale.FRENCH)
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import spock.lang.Specification
+
+import javax.annotation.processing.Filer
+import javax.lang.model.element.Element
+import javax.lang.model.element.ElementKind
+import javax.lang.model.element.Name
+import javax.lang.model.element.PackageElement
+import javax.lang.model.element.TypeElement
+import javax.tools.JavaFileObject
+import javax.tools.StandardLocation
+
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.AGGREGATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+
+class IncrementalFilerTest extends Specification {
+    def delegate = Mock(Filer)
+    def result = new AnnotationProcessingResult()
+
+    def "records the type generated by an isolating processor from its originating top level type"() {
+        def filer = new IncrementalFiler(delegate, "Processor", ISOLATING, result)
+        def origin = type("com.A")
+        def member = Stub(Element) {
+            getEnclosingElement() >> origin
+            getKind() >> ElementKind.METHOD
+        }
+        def sourceFile = Mock(JavaFileObject)
+
+        when:
+        def created = filer.createSourceFile("com.AHelper", member)
+        filer.createClassFile("mod/com.AOther", origin)
+
+        then:
+        1 * delegate.createSourceFile("com.AHelper", member) >> sourceFile
+        1 * delegate.createClassFile("mod/com.AOther", origin)
+        created == sourceFile
+        result.generatedTypesByOrigin == ["com.A": ["com.AHelper", "com.AOther"] as Set]
+        result.fullRebuildCause == null
+    }
+
+    def "requires a full rebuild when an isolating processor generates a type from #description"() {
+        def filer = new IncrementalFiler(delegate, "Processor", ISOLATING, result)
+
+        when:
+        filer.createSourceFile("com.Generated", origins(names) as Element[])
+
+        then:
+        1 * delegate.createSourceFile("com.Generated", _)
+        result.generatedTypesByOrigin.isEmpty()
+        result.fullRebuildCause == "Processor is an isolating processor and generated type com.Generated from ${names.size()} originating types"
+
+        where:
+        description             | names
+        "no originating types"  | []
+        "two originating types" | ["com.A", "com.B"]
+    }
+
+    def "requires a full rebuild when an isolating processor generates a resource"() {
+        def filer = new IncrementalFiler(delegate, "Processor", ISOLATING, result)
+
+        when:
+        filer.createResource(StandardLocation.CLASS_OUTPUT, "com", "resource.txt", type("com.A"))
+
+        then:
+        1 * delegate.createResource(StandardLocation.CLASS_OUTPUT, "com", "resource.txt", _)
+        result.fullRebuildCause == "Processor is an isolating processor and generated resource 'resource.txt'"
+    }
+
+    def "records the types and resources generated by an aggregating processor as depending on all other types"() {
+        def filer = new IncrementalFiler(delegate, "Processor", AGGREGATING, result)
+
+        when:
+        filer.createSourceFile("com.Registry", type("com.A"), type("com.B"))
+        filer.createClassFile("com.Index")
+        filer.createResource(StandardLocation.CLASS_OUTPUT, "com", "resource.txt")
+
+        then:
+        result.generatedTypesDependingOnAllOthers == ["com.Registry", "com.Index"] as Set
+        result.generatedTypesByOrigin.isEmpty()
+        result.fullRebuildCause == null
+    }
+
+    def "finds the top level type of an element"() {
+        def outer = type("com.A")
+        def inner = Stub(TypeElement) {
+            getEnclosingElement() >> outer
+            getKind() >> ElementKind.CLASS
+        }
+        def field = Stub(Element) {
+            getEnclosingElement() >> inner
+            getKind() >> ElementKind.FIELD
+        }
+
+        expect:
+        IncrementalFiler.getTopLevelTypeName(field) == "com.A"
+        IncrementalFiler.getTopLevelTypeName(outer) == "com.A"
+        IncrementalFiler.getTopLevelTypeName(outer.enclosingElement) == null
+    }
+
+    private List<TypeElement> origins(List<String> names) {
+        names.collect { type(it) }
+    }
+
+    private TypeElement type(String name) {
+        def packageElement = Stub(PackageElement) {
+            getEnclosingElement() >> null
+            getKind() >> ElementKind.PACKAGE
+        }
+        Stub(TypeElement) {
+            getEnclosingElement() >> packageElement
+            getKind() >> ElementKind.CLASS
+            getQualifiedName() >> new TestName(name)
+        }
+    }
+
+    static class TestName implements Name {
+        private final String name
+
+        TestName(String name) {
+            this.name = name
+        }
+
+        @Override
+        boolean contentEquals(CharSequence cs) {
+            name == cs.toString()
+        }
+
+        @Override
+        int length() {
+            name.length()
+        }
+
+        @Override
+        char charAt(int index) {
+            name.charAt(index)
+        }
+
+        @Override
+        CharSequence subSequence(int start, int end) {
+            name.subSequence(start, end)
+        }
+
+        @Override
+        String toString() {
+            name
+        }
+    }
+}
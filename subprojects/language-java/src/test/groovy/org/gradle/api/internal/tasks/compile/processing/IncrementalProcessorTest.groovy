@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import spock.lang.Specification
+
+import javax.annotation.processing.Filer
+import javax.annotation.processing.ProcessingEnvironment
+import javax.annotation.processing.Processor
+import javax.annotation.processing.RoundEnvironment
+import javax.lang.model.element.ElementKind
+import javax.lang.model.element.PackageElement
+import javax.lang.model.element.TypeElement
+
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.AGGREGATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+
+class IncrementalProcessorTest extends Specification {
+    def delegate = Mock(Processor)
+    def result = new AnnotationProcessingResult()
+
+    def "hands out a filer that records the generated types"() {
+        def processor = new IncrementalProcessor(delegate, new AnnotationProcessorDeclaration("Processor", ISOLATING), result)
+        def filer = Mock(Filer)
+        def processingEnv = Stub(ProcessingEnvironment) {
+            getFiler() >> filer
+        }
+        def origin = type("com.A")
+        ProcessingEnvironment wrappedEnv = null
+
+        when:
+        processor.init(processingEnv)
+
+        then:
+        1 * delegate.init(_) >> { ProcessingEnvironment env -> wrappedEnv = env }
+
+        when:
+        wrappedEnv.filer.createSourceFile("com.AHelper", origin)
+
+        then:
+        1 * filer.createSourceFile("com.AHelper", origin)
+        result.generatedTypesByOrigin == ["com.A": ["com.AHelper"] as Set]
+    }
+
+    def "records the types processed by an aggregating processor"() {
+        def processor = new IncrementalProcessor(delegate, new AnnotationProcessorDeclaration("Processor", AGGREGATING), result)
+        def annotation = type("com.Annotation")
+        def annotated = type("com.A")
+        def roundEnv = Stub(RoundEnvironment) {
+            getElementsAnnotatedWith(annotation) >> ([annotated] as Set)
+        }
+
+        when:
+        def claimed = processor.process([annotation] as Set, roundEnv)
+
+        then:
+        1 * delegate.process([annotation] as Set, roundEnv) >> true
+        claimed
+        result.aggregatedTypes == ["com.A"] as Set
+    }
+
+    def "does not record the types processed by an isolating processor"() {
+        def processor = new IncrementalProcessor(delegate, new AnnotationProcessorDeclaration("Processor", ISOLATING), result)
+        def annotation = type("com.Annotation")
+        def roundEnv = Stub(RoundEnvironment) {
+            getElementsAnnotatedWith(annotation) >> ([type("com.A")] as Set)
+        }
+
+        when:
+        processor.process([annotation] as Set, roundEnv)
+
+        then:
+        1 * delegate.process([annotation] as Set, roundEnv)
+        result.aggregatedTypes.isEmpty()
+    }
+
+    private TypeElement type(String name) {
+        def packageElement = Stub(PackageElement) {
+            getEnclosingElement() >> null
+            getKind() >> ElementKind.PACKAGE
+        }
+        Stub(TypeElement) {
+            getEnclosingElement() >> packageElement
+            getKind() >> ElementKind.CLASS
+            getQualifiedName() >> new IncrementalFilerTest.TestName(name)
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Measures how long it takes to find the include directives of a typical header file: a license comment, an include guard, some includes
+ * and many lines of declarations.
+ */
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    private static final Map<String, CSourceParser> PARSERS = ImmutableMap.<String, CSourceParser>builder()
+        .put(RegexBackedCSourceParser.class.getSimpleName(), new RegexBackedCSourceParser())
+        .put(ScanningCSourceParser.class.getSimpleName(), new ScanningCSourceParser())
+        .build();
+
+    @Param({
+        "RegexBackedCSourceParser",
+        "ScanningCSourceParser"
+    })
+    String parserClassName;
+
+    @Param({"50", "2000"})
+    int declarationCount;
+
+    CSourceParser parser;
+    File header;
+
+    @Setup
+    public void prepare() throws IOException {
+        parser = PARSERS.get(parserClassName);
+        header = File.createTempFile("jmh", ".h");
+
+        StringBuilder content = new StringBuilder();
+        content.append("/*\n * Copyright the original author or authors.\n *\n * Licensed under the Apache License, Version 2.0.\n */\n\n");
+        content.append("#ifndef SAMPLE_HEADER_H\n#define SAMPLE_HEADER_H\n\n");
+        content.append("#include <stdio.h>\n#include <stdlib.h>\n#include \"sample/config.h\"\n#include \"sample/types.h\"\n#include SAMPLE_PLATFORM_HEADER\n\n");
+        for (int i = 0; i < declarationCount; i++) {
+            content.append("/** Returns the value of item ").append(i).append(". */\n");
+            content.append("extern int sample_value_").append(i).append("(const char *name, int flags); // \"quoted\" comment\n");
+            if (i % 10 == 0) {
+                content.append("#define SAMPLE_MACRO_").append(i).append("(x) \\\n    ((x) + ").append(i).append(")\n");
+            }
+        }
+        content.append("\n#endif // SAMPLE_HEADER_H\n");
+        Files.write(content, header, Charsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        header.delete();
+    }
+
+    @Benchmark
+    public void parse_header(Blackhole bh) {
+        bh.consume(parser.parseSource(header));
+    }
+}
@@ -15,18 +15,29 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import org.gradle.internal.FileUtils;
 import org.gradle.language.nativeplatform.internal.Include;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Resolves the includes of source files against the source directory and the include path.
+ *
+ * <p>Many source files include the same headers, so the result of resolving each include is memoized for the lifetime of this resolver,
+ * which is a single compilation. This saves probing the file system for the same candidate files again and again.
+ * Instances may be used concurrently.</p>
+ */
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private final List<File> includePaths;
+    private final ConcurrentMap<String, IncludeResolution> includePathResolutions = new ConcurrentHashMap<String, IncludeResolution>();
+    private final ConcurrentMap<File, IncludeResolution> sourceDirResolutions = new ConcurrentHashMap<File, IncludeResolution>();
 
     public DefaultSourceIncludesResolver(List<File> includePaths) {
         this.includePaths = includePaths;
@@ -35,8 +46,13 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     @Override
     public ResolvedSourceIncludes resolveIncludes(File sourceFile, IncludeDirectives includes) {
         BuildableResolvedSourceIncludes resolvedSourceIncludes = new BuildableResolvedSourceIncludes();
-        searchForDependencies(prependSourceDir(sourceFile, includePaths), includes.getQuotedIncludes(), resolvedSourceIncludes);
-        searchForDependencies(includePaths, includes.getSystemIncludes(), resolvedSourceIncludes);
+        File sourceDir = sourceFile.getParentFile();
+        for (Include include : includes.getQuotedIncludes()) {
+            resolvedSourceIncludes.add(include.getValue(), resolveQuotedInclude(sourceDir, include.getValue()));
+        }
+        for (Include include : includes.getSystemIncludes()) {
+            resolvedSourceIncludes.add(include.getValue(), resolveSystemInclude(include.getValue()));
+        }
         if (!includes.getMacroIncludes().isEmpty()) {
             resolvedSourceIncludes.resolved(includes.getMacroIncludes().get(0).getValue(), null);
         }
@@ -44,34 +60,76 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         return resolvedSourceIncludes;
     }
 
-    private List<File> prependSourceDir(File sourceFile, List<File> includePaths) {
-        List<File> quotedSearchPath = new ArrayList<File>(includePaths.size() + 1);
-        quotedSearchPath.add(sourceFile.getParentFile());
-        quotedSearchPath.addAll(includePaths);
-        return quotedSearchPath;
+    /**
+     * Quoted includes are searched for in the directory of the source file first, then in the include path.
+     */
+    private IncludeResolution resolveQuotedInclude(File sourceDir, String include) {
+        IncludeResolution sourceDirResolution = resolveInSourceDir(new File(sourceDir, include));
+        if (sourceDirResolution.resolved != null) {
+            return sourceDirResolution;
+        }
+        IncludeResolution includePathResolution = resolveSystemInclude(include);
+        ImmutableList.Builder<File> checkedLocations = ImmutableList.builder();
+        checkedLocations.addAll(sourceDirResolution.checkedLocations);
+        checkedLocations.addAll(includePathResolution.checkedLocations);
+        return new IncludeResolution(checkedLocations.build(), includePathResolution.resolved);
     }
 
-    private void searchForDependencies(List<File> searchPath, List<Include> includes, BuildableResolvedSourceIncludes dependencies) {
-        for (Include include : includes) {
-            searchForDependency(searchPath, include.getValue(), dependencies);
+    /**
+     * Looks for the given candidate in the directory of a source file only. The same candidate can be reached from different pairs of source directory
+     * and include, so the search of the include path is not part of this result.
+     */
+    private IncludeResolution resolveInSourceDir(File candidate) {
+        IncludeResolution resolution = sourceDirResolutions.get(candidate);
+        if (resolution == null) {
+            ImmutableList.Builder<File> checkedLocations = ImmutableList.builder();
+            File resolved = searched(candidate, checkedLocations) ? FileUtils.canonicalize(candidate) : null;
+            resolution = new IncludeResolution(checkedLocations.build(), resolved);
+            sourceDirResolutions.put(candidate, resolution);
         }
+        return resolution;
     }
 
-    private void searchForDependency(List<File> searchPath, String include, BuildableResolvedSourceIncludes dependencies) {
-        for (File searchDir : searchPath) {
-            File candidate = new File(searchDir, include);
-            // TODO: SLG This isn't correct, we need to consider directories too
-            // If a source file is #include <type_trait>
-            // and includePath = [ A, B ]
-            // and /B/type_trait is the header we want.
-            // We need /A/type_trait to be recorded as a directory in case it becomes a file later.
-            if (!candidate.isDirectory()) {
-                dependencies.searched(candidate);
-            }
-            if (candidate.isFile()) {
-                dependencies.resolved(include, candidate);
-                return;
+    private IncludeResolution resolveSystemInclude(String include) {
+        IncludeResolution resolution = includePathResolutions.get(include);
+        if (resolution == null) {
+            ImmutableList.Builder<File> checkedLocations = ImmutableList.builder();
+            File resolved = null;
+            for (File searchDir : includePaths) {
+                File candidate = new File(searchDir, include);
+                if (searched(candidate, checkedLocations)) {
+                    resolved = FileUtils.canonicalize(candidate);
+                    break;
+                }
             }
+            resolution = new IncludeResolution(checkedLocations.build(), resolved);
+            includePathResolutions.put(include, resolution);
+        }
+        return resolution;
+    }
+
+    /**
+     * Records the given candidate as searched, and returns whether it is the file being searched for.
+     */
+    private static boolean searched(File candidate, ImmutableList.Builder<File> checkedLocations) {
+        // TODO: SLG This isn't correct, we need to consider directories too
+        // If a source file is #include <type_trait>
+        // and includePath = [ A, B ]
+        // and /B/type_trait is the header we want.
+        // We need /A/type_trait to be recorded as a directory in case it becomes a file later.
+        if (!candidate.isDirectory()) {
+            checkedLocations.add(candidate);
+        }
+        return candidate.isFile();
+    }
+
+    private static class IncludeResolution {
+        final List<File> checkedLocations;
+        final File resolved;
+
+        IncludeResolution(List<File> checkedLocations, File resolved) {
+            this.checkedLocations = checkedLocations;
+            this.resolved = resolved;
         }
     }
 
@@ -79,13 +137,15 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         private final Set<ResolvedInclude> dependencies = Sets.newLinkedHashSet();
         private final Set<File> candidates = Sets.newLinkedHashSet();
 
-        void searched(File candidate) {
-            candidates.add(candidate);
+        void add(String rawInclude, IncludeResolution resolution) {
+            candidates.addAll(resolution.checkedLocations);
+            if (resolution.resolved != null) {
+                dependencies.add(new ResolvedInclude(rawInclude, resolution.resolved));
+            }
         }
 
         void resolved(String rawInclude, File resolved) {
-            File dependencyFile = resolved == null ? null : FileUtils.canonicalize(resolved);
-            dependencies.add(new ResolvedInclude(rawInclude, dependencyFile));
+            dependencies.add(new ResolvedInclude(rawInclude, resolved));
         }
 
         @Override
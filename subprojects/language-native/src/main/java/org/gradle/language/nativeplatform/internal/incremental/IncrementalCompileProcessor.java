@@ -18,39 +18,53 @@ package org.gradle.language.nativeplatform.internal.incremental;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
+import org.gradle.api.Action;
 import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.cache.PersistentStateCache;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class IncrementalCompileProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalCompileProcessor.class);
+    // Source files are analyzed in batches, to keep the overhead of scheduling the work low
+    private static final int SOURCE_FILES_PER_OPERATION = 50;
 
     private final PersistentStateCache<CompilationState> previousCompileStateCache;
     private final SourceIncludesParser sourceIncludesParser;
     private final SourceIncludesResolver sourceIncludesResolver;
     private final FileHasher hasher;
+    private final BuildOperationProcessor buildOperationProcessor;
 
-    public IncrementalCompileProcessor(PersistentStateCache<CompilationState> previousCompileStateCache, SourceIncludesResolver sourceIncludesResolver, SourceIncludesParser sourceIncludesParser, FileHasher hasher) {
+    public IncrementalCompileProcessor(PersistentStateCache<CompilationState> previousCompileStateCache, SourceIncludesResolver sourceIncludesResolver, SourceIncludesParser sourceIncludesParser, FileHasher hasher, BuildOperationProcessor buildOperationProcessor) {
         this.previousCompileStateCache = previousCompileStateCache;
         this.sourceIncludesResolver = sourceIncludesResolver;
         this.sourceIncludesParser = sourceIncludesParser;
         this.hasher = hasher;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     public IncrementalCompilation processSourceFiles(Collection<File> sourceFiles) {
         CompilationState previousCompileState = previousCompileStateCache.get();
         final IncrementalCompileFiles result = new IncrementalCompileFiles(previousCompileState);
 
+        result.analyze(sourceFiles);
         for (File sourceFile : sourceFiles) {
             result.processSource(sourceFile);
         }
@@ -66,11 +80,61 @@ public class IncrementalCompileProcessor {
         private final Map<File, Boolean> processed = new HashMap<File, Boolean>();
         private final List<File> toRecompile = new ArrayList<File>();
         private final Set<File> discoveredInputs = Sets.newHashSet();
+        private final ConcurrentMap<File, FileAnalysis> analyzed = new ConcurrentHashMap<File, FileAnalysis>();
 
         public IncrementalCompileFiles(CompilationState previousCompileState) {
             this.previous = previousCompileState == null ? new CompilationState() : previousCompileState;
         }
 
+        /**
+         * Hashes each source file and each header it includes, directly or transitively, and parses and resolves their includes.
+         * Batches of source files are analyzed concurrently, and each file is analyzed only once.
+         */
+        public void analyze(Collection<File> sourceFiles) {
+            final List<File> files = new ArrayList<File>(sourceFiles);
+            if (files.size() <= SOURCE_FILES_PER_OPERATION) {
+                analyzeAll(files);
+                return;
+            }
+            buildOperationProcessor.run(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                @Override
+                public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                    for (int i = 0; i < files.size(); i += SOURCE_FILES_PER_OPERATION) {
+                        queue.add(new AnalyzeSourceFiles(files.subList(i, Math.min(i + SOURCE_FILES_PER_OPERATION, files.size()))));
+                    }
+                }
+            });
+        }
+
+        private void analyzeAll(List<File> sourceFiles) {
+            Deque<File> queue = new ArrayDeque<File>(sourceFiles);
+            while (!queue.isEmpty()) {
+                File file = queue.removeFirst();
+                FileAnalysis analysis = new FileAnalysis();
+                if (analyzed.putIfAbsent(file, analysis) != null) {
+                    // Already analyzed, or being analyzed by another thread
+                    continue;
+                }
+                analysis.analyze(file);
+                if (analysis.resolutionResult != null) {
+                    for (ResolvedInclude include : analysis.resolutionResult.getResolvedIncludes()) {
+                        if (!include.isUnknown()) {
+                            queue.add(include.getFile());
+                        }
+                    }
+                }
+            }
+        }
+
+        private FileAnalysis getAnalysis(File file) {
+            FileAnalysis analysis = analyzed.get(file);
+            if (analysis == null) {
+                analyzeAll(Collections.singletonList(file));
+                analysis = analyzed.get(file);
+            }
+            return analysis;
+        }
+
         public void processSource(File sourceFile) {
             current.addSourceInput(sourceFile);
             if (checkChangedAndUpdateState(sourceFile) || !previous.getSourceInputs().contains(sourceFile)) {
@@ -85,7 +149,8 @@ public class IncrementalCompileProcessor {
                 return processed.get(file);
             }
 
-            if (!file.exists()) {
+            FileAnalysis analysis = getAnalysis(file);
+            if (!analysis.exists) {
                 return true;
             }
 
@@ -93,18 +158,12 @@ public class IncrementalCompileProcessor {
             processed.put(file, false);
 
             CompilationFileState previousState = previous.getState(file);
-            HashCode newHash = hasher.hash(file);
-
-            IncludeDirectives includeDirectives;
-            if (!sameHash(previousState, newHash)) {
+            if (!sameHash(previousState, analysis.hash)) {
                 changed = true;
-                includeDirectives = sourceIncludesParser.parseIncludes(file);
-            } else {
-                includeDirectives = previousState.getIncludeDirectives();
             }
-            SourceIncludesResolver.ResolvedSourceIncludes resolutionResult = resolveIncludes(file, includeDirectives);
+            SourceIncludesResolver.ResolvedSourceIncludes resolutionResult = analysis.resolutionResult;
 
-            CompilationFileState newState = new CompilationFileState(newHash, includeDirectives, ImmutableSet.copyOf(resolutionResult.getResolvedIncludes()));
+            CompilationFileState newState = new CompilationFileState(analysis.hash, analysis.includeDirectives, ImmutableSet.copyOf(resolutionResult.getResolvedIncludes()));
 
             discoveredInputs.addAll(resolutionResult.getCheckedLocations());
 
@@ -138,9 +197,6 @@ public class IncrementalCompileProcessor {
             return previousState != null && newState.getResolvedIncludes().equals(previousState.getResolvedIncludes());
         }
 
-        private SourceIncludesResolver.ResolvedSourceIncludes resolveIncludes(File file, IncludeDirectives includeDirectives) {
-            return sourceIncludesResolver.resolveIncludes(file, includeDirectives);
-        }
 
         public List<File> getModifiedSources() {
             return toRecompile;
@@ -159,5 +215,48 @@ public class IncrementalCompileProcessor {
         public Set<File> getDiscoveredInputs() {
             return discoveredInputs;
         }
+
+        /**
+         * The current state of a file, calculated without looking at the files it includes.
+         */
+        private class FileAnalysis {
+            boolean exists;
+            HashCode hash;
+            IncludeDirectives includeDirectives;
+            SourceIncludesResolver.ResolvedSourceIncludes resolutionResult;
+
+            void analyze(File file) {
+                exists = file.exists();
+                if (!exists) {
+                    return;
+                }
+                CompilationFileState previousState = previous.getState(file);
+                hash = hasher.hash(file);
+                if (!sameHash(previousState, hash)) {
+                    includeDirectives = sourceIncludesParser.parseIncludes(file);
+                } else {
+                    includeDirectives = previousState.getIncludeDirectives();
+                }
+                resolutionResult = sourceIncludesResolver.resolveIncludes(file, includeDirectives);
+            }
+        }
+
+        private class AnalyzeSourceFiles implements RunnableBuildOperation {
+            private final List<File> sourceFiles;
+
+            AnalyzeSourceFiles(List<File> sourceFiles) {
+                this.sourceFiles = sourceFiles;
+            }
+
+            @Override
+            public void run() {
+                analyzeAll(sourceFiles);
+            }
+
+            @Override
+            public String getDescription() {
+                return "Analyze includes of " + sourceFiles.size() + " source files";
+            }
+        }
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reuses the include directives parsed from a file for all files with the same content. A build scoped instance is shared by all native compile tasks,
+ * so that headers used by several components or variants are only parsed once per build.
+ */
+public class CachingCSourceParser implements CSourceParser {
+    private final CSourceParser delegate;
+    private final FileHasher hasher;
+    private final Map<HashCode, IncludeDirectives> includeDirectives = new ConcurrentHashMap<HashCode, IncludeDirectives>();
+
+    public CachingCSourceParser(CSourceParser delegate, FileHasher hasher) {
+        this.delegate = delegate;
+        this.hasher = hasher;
+    }
+
+    @Override
+    public IncludeDirectives parseSource(File sourceFile) {
+        HashCode hash = hasher.hash(sourceFile);
+        IncludeDirectives directives = includeDirectives.get(hash);
+        if (directives == null) {
+            // Parsing the same content concurrently is harmless, both threads calculate the same result
+            directives = delegate.parseSource(sourceFile);
+            includeDirectives.put(hash, directives);
+        }
+        return directives;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.language.nativeplatform.internal.Include;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the include and import directives of a source file by scanning its bytes directly.
+ *
+ * <p>Produces the same result as {@link RegexBackedCSourceParser}: comments and line continuations are handled the same way as {@link PreprocessingReader},
+ * and a line is matched the same way as the regular expression used by that parser. The difference is that no string is created for a line unless
+ * it starts with a {@code #}, and no regular expression is evaluated.</p>
+ *
+ * <p>The file content is decoded using the default character set, like {@link java.io.FileReader} does, which is assumed to be ASCII compatible.</p>
+ */
+public class ScanningCSourceParser implements CSourceParser {
+    @Override
+    public IncludeDirectives parseSource(File sourceFile) {
+        byte[] content;
+        try {
+            content = Files.toByteArray(sourceFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new DefaultIncludeDirectives(new Scanner(content).scan());
+    }
+
+    /**
+     * Scans the content of a single file. Not thread safe.
+     */
+    private static class Scanner {
+        private static final int LINE_START = 0;
+        private static final int DIRECTIVE = 1;
+        private static final int OTHER = 2;
+
+        private final byte[] content;
+        private int pos;
+        private boolean inString;
+        private boolean quoted;
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        Scanner(byte[] content) {
+            this.content = content;
+        }
+
+        List<Include> scan() {
+            List<Include> includes = Lists.newArrayList();
+            int state = LINE_START;
+            while (true) {
+                int ch = read();
+                if (ch == -1 || ch == '\n' || ch == '\r') {
+                    if (state == DIRECTIVE) {
+                        parseDirective(includes);
+                    }
+                    if (ch == -1) {
+                        return includes;
+                    }
+                    state = LINE_START;
+                    continue;
+                }
+                if (state == LINE_START) {
+                    if (ch <= ' ') {
+                        continue;
+                    }
+                    if (ch == '#') {
+                        state = DIRECTIVE;
+                        lineLength = 0;
+                    } else {
+                        state = OTHER;
+                    }
+                }
+                if (state == DIRECTIVE) {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = (byte) ch;
+                }
+            }
+        }
+
+        /**
+         * Matches the current line, which starts with {@code #} and ends at the end of the line, against {@code #\s*(include|import)\s*((<[^>]+>)|("[^"]+")|(\w+))},
+         * ignoring case and trailing white space.
+         */
+        private void parseDirective(List<Include> includes) {
+            int end = lineLength;
+            while (end > 0 && (line[end - 1] & 0xff) <= ' ') {
+                end--;
+            }
+            int index = skipWhitespace(1, end);
+            boolean isImport;
+            if (matchesIgnoreCase(index, end, "include")) {
+                isImport = false;
+                index += 7;
+            } else if (matchesIgnoreCase(index, end, "import")) {
+                isImport = matches(index, "import");
+                index += 6;
+            } else {
+                return;
+            }
+            index = skipWhitespace(index, end);
+            if (index == end) {
+                return;
+            }
+            byte first = line[index];
+            boolean valid;
+            if (first == '<') {
+                valid = isDelimited(index, end, '>');
+            } else if (first == '"') {
+                valid = isDelimited(index, end, '"');
+            } else {
+                valid = isWord(index, end);
+            }
+            if (valid) {
+                String value = new String(line, index, end - index, Charset.defaultCharset());
+                includes.add(DefaultInclude.parse(value, isImport));
+            }
+        }
+
+        private int skipWhitespace(int index, int end) {
+            while (index < end && isWhitespace(line[index])) {
+                index++;
+            }
+            return index;
+        }
+
+        private boolean matchesIgnoreCase(int index, int end, String keyword) {
+            if (end - index < keyword.length()) {
+                return false;
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                byte b = line[index + i];
+                if (b != keyword.charAt(i) && b != Character.toUpperCase(keyword.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(int index, String keyword) {
+            for (int i = 0; i < keyword.length(); i++) {
+                if (line[index + i] != keyword.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns true when the value is a non-empty sequence of characters, other than the closing character, between an opening character and the closing character.
+         */
+        private boolean isDelimited(int index, int end, char close) {
+            if (end - index < 3 || line[end - 1] != close) {
+                return false;
+            }
+            for (int i = index + 1; i < end - 1; i++) {
+                if (line[i] == close) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isWord(int index, int end) {
+            for (int i = index; i < end; i++) {
+                byte b = line[i];
+                if (!(b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9' || b == '_')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+        }
+
+        /**
+         * Returns the next character with comments replaced by a single space and line continuations removed, in the same way as {@link PreprocessingReader}.
+         */
+        private int read() {
+            while (true) {
+                int ch = next();
+
+                if (ch == '\\' && discardNewLine()) {
+                    continue;
+                }
+
+                if (ch == '"' && !quoted) {
+                    inString = !inString;
+                    quoted = false;
+                } else if (ch == '\\') {
+                    quoted = !quoted;
+                } else {
+                    quoted = false;
+                    if (!inString && ch == '/') {
+                        ch = next();
+                        if (ch == '/') {
+                            while (ch != '\n' && ch != -1 && ch != '\r') {
+                                ch = next();
+                            }
+                        } else if (ch == '*') {
+                            ch = skipBlockComment();
+                        } else {
+                            pushBack(ch);
+                            ch = '/';
+                        }
+                    }
+                }
+                return ch;
+            }
+        }
+
+        private int skipBlockComment() {
+            int ch = '*';
+            while (ch != -1) {
+                ch = next();
+                if (ch == '*') {
+                    ch = next();
+                    while (ch == '*') {
+                        ch = next();
+                    }
+                    if (ch == '/') {
+                        return ' ';
+                    }
+                }
+            }
+            return ch;
+        }
+
+        private boolean discardNewLine() {
+            int nextChar = next();
+            if (nextChar == '\n') {
+                return true;
+            } else if (nextChar == '\r') {
+                int followingChar = next();
+                if (followingChar == '\n') {
+                    return true;
+                }
+                pushBack(followingChar);
+                pushBack(nextChar);
+                return false;
+            } else {
+                pushBack(nextChar);
+                return false;
+            }
+        }
+
+        private int next() {
+            if (pos == content.length) {
+                return -1;
+            }
+            return content[pos++] & 0xff;
+        }
+
+        /**
+         * Pushes back the character most recently returned by {@link #next()}.
+         */
+        private void pushBack(int ch) {
+            if (ch != -1) {
+                pos--;
+            }
+        }
+    }
+}
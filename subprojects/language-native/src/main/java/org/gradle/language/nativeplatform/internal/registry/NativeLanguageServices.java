@@ -16,10 +16,14 @@
 
 package org.gradle.language.nativeplatform.internal.registry;
 
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.language.nativeplatform.internal.incremental.DefaultCompilationStateCacheFactory;
 import org.gradle.language.nativeplatform.internal.incremental.IncrementalCompilerBuilder;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CachingCSourceParser;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.ScanningCSourceParser;
 
 public class NativeLanguageServices implements PluginServiceRegistry {
     @Override
@@ -37,6 +41,11 @@ public class NativeLanguageServices implements PluginServiceRegistry {
     @Override
     public void registerGradleServices(ServiceRegistration registration) {
         registration.add(DefaultCompilationStateCacheFactory.class);
+        registration.addProvider(new Object() {
+            CSourceParser createSourceParser(FileHasher hasher) {
+                return new CachingCSourceParser(new ScanningCSourceParser(), hasher);
+            }
+        });
     }
 
     @Override
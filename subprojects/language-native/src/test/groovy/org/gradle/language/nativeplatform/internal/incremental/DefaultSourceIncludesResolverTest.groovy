@@ -152,6 +152,47 @@ class DefaultSourceIncludesResolverTest extends Specification {
                                   sourceDirectory.file("other.h"), otherHeader ]
     }
 
+    def "quoted includes that refer to the same file in the source directory are resolved against the include path separately"() {
+        given:
+        def includeDir = testDirectory.file("include")
+        def nestedHeader = includeDir.file("nested/test.h").createFile()
+        def header = includeDir.file("test.h").createFile()
+        def nestedSourceFile = sourceDirectory.file("nested/source.c")
+        def nestedIncludes = Stub(IncludeDirectives) {
+            getQuotedIncludes() >> [include("test.h")]
+            getSystemIncludes() >> []
+            getMacroIncludes() >> []
+        }
+        includePaths << includeDir
+        quotedIncludes << "nested/test.h"
+        def resolver = new DefaultSourceIncludesResolver(includePaths)
+
+        when:
+        def result1 = resolver.resolveIncludes(sourceFile, includes)
+        def result2 = resolver.resolveIncludes(nestedSourceFile, nestedIncludes)
+
+        then:
+        result1.resolvedIncludes.collect { it.file } == [nestedHeader]
+        result2.resolvedIncludes.collect { it.file } == [header]
+    }
+
+    def "remembers the result of resolving an include"() {
+        given:
+        def header = sourceDirectory.createFile("test.h")
+        quotedIncludes << "test.h"
+        def resolver = new DefaultSourceIncludesResolver(includePaths)
+
+        when:
+        def result1 = resolver.resolveIncludes(sourceFile, includes)
+        header.delete()
+        def result2 = resolver.resolveIncludes(sourceFile, includes)
+
+        then:
+        result1.resolvedIncludes == deps(header) as Set
+        result2.resolvedIncludes == deps(header) as Set
+        result2.checkedLocations.collect { it.canonicalFile } == [header]
+    }
+
     def "includes unknown source dependency for first macro include"() {
         when:
         macroIncludes << 'DEFINE_1' << 'DEFINE_2'
@@ -19,6 +19,11 @@ import com.google.common.hash.Hashing
 import com.google.common.io.Files
 import org.gradle.api.internal.hash.FileHasher
 import org.gradle.cache.PersistentStateCache
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationWorkerRegistry
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
+import org.gradle.internal.progress.TestBuildOperationExecutor
 import org.gradle.language.nativeplatform.internal.IncludeDirectives
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.DefaultIncludeDirectives
 import org.gradle.test.fixtures.file.TestFile
@@ -33,7 +38,8 @@ class IncrementalCompileProcessorTest extends Specification {
     def dependencyParser = Mock(SourceIncludesResolver)
     def hasher = Stub(FileHasher)
     def stateCache = new DummyPersistentStateCache()
-    def incrementalCompileProcessor = new IncrementalCompileProcessor(stateCache, dependencyParser, includesParser, hasher)
+    def buildOperationProcessor = new DefaultBuildOperationProcessor(Stub(BuildOperationWorkerRegistry), new TestBuildOperationExecutor(), new DefaultBuildOperationQueueFactory(), new DefaultExecutorFactory(), 4)
+    def incrementalCompileProcessor = new IncrementalCompileProcessor(stateCache, dependencyParser, includesParser, hasher, buildOperationProcessor)
 
     def source1 = sourceFile("source1")
     def source2 = sourceFile("source2")
@@ -371,6 +377,35 @@ class IncrementalCompileProcessorTest extends Specification {
         checkCompile recompiled: [source2], removed: []
     }
 
+    def "analyzes each file once when many source files share dependencies"() {
+        given:
+        graph.clear()
+        graph[dep3] = []
+        graph[dep1] = deps(dep3)
+        sourceFiles = (1..120).collect { sourceFile("many$it") }
+        sourceFiles.eachWithIndex { TestFile sourceFile, int i ->
+            graph[sourceFile] = i % 2 ? deps(dep1) : deps(dep3)
+        }
+        graph.keySet().each { TestFile sourceFile ->
+            parse(sourceFile)
+            resolve(sourceFile)
+        }
+
+        when:
+        def compilation = state
+
+        then:
+        compilation.recompile == sourceFiles
+        compilation.finalState.getState(dep1) != null
+        compilation.finalState.getState(dep3) != null
+
+        when:
+        modified(dep3)
+
+        then:
+        checkCompile recompiled: sourceFiles, removed: []
+    }
+
     def checkCompile(Map<String, List<File>> args) {
         parseAndResolve()
         with (state) {
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import com.google.common.hash.HashCode
+import org.gradle.api.internal.hash.FileHasher
+import org.gradle.language.nativeplatform.internal.IncludeDirectives
+import spock.lang.Specification
+
+class CachingCSourceParserTest extends Specification {
+    def delegate = Mock(CSourceParser)
+    def hasher = Stub(FileHasher)
+    def parser = new CachingCSourceParser(delegate, hasher)
+
+    def "parses each file content once"() {
+        def file1 = new File("file1.h")
+        def file2 = new File("file2.h")
+        def file3 = new File("file3.h")
+        def directives1 = Stub(IncludeDirectives)
+        def directives3 = Stub(IncludeDirectives)
+        hasher.hash(file1) >> HashCode.fromInt(1)
+        hasher.hash(file2) >> HashCode.fromInt(1)
+        hasher.hash(file3) >> HashCode.fromInt(3)
+
+        when:
+        def result1 = parser.parseSource(file1)
+        def result2 = parser.parseSource(file2)
+        def result3 = parser.parseSource(file3)
+        def result4 = parser.parseSource(file1)
+
+        then:
+        1 * delegate.parseSource(file1) >> directives1
+        1 * delegate.parseSource(file3) >> directives3
+        0 * delegate._
+
+        and:
+        result1 == directives1
+        result2 == directives1
+        result3 == directives3
+        result4 == directives1
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+class ScanningCSourceParserTest extends RegexBackedCSourceParserTest {
+    private static final List<String> FRAGMENTS = [
+        "#", "#", " # ", "include", "INCLUDE", "Include", "import", "IMPORT", "imPort", "incl", " ", "  ", "\t", "\f",
+        "\n", "\r", "\r\n", "\\", "\\\n", "\\\r\n", "\\\r", "//", "/*", "*/", "*", "/", "\"", "\\\"", "<", ">", "'",
+        "a", "b.h", "FOO_1", "dir/c.h", "-", "\u0000"
+    ]
+
+    def setup() {
+        parser = new ScanningCSourceParser()
+    }
+
+    def "produces the same result as the regular expression based parser for arbitrary content"() {
+        def random = new Random(42)
+        def regexParser = new RegexBackedCSourceParser()
+
+        expect:
+        1000.times { i ->
+            def content = new StringBuilder()
+            (random.nextInt(60) + 1).times {
+                content.append(FRAGMENTS[random.nextInt(FRAGMENTS.size())])
+            }
+            def file = testDirectory.file("source${i}.c")
+            file.text = content.toString()
+
+            def expected = regexParser.parseSource(file).includesAndImports
+            def actual = parser.parseSource(file).includesAndImports
+            assert actual == expected: "Content: ${content.toString().inspect()}"
+        }
+    }
+}
@@ -16,9 +16,13 @@
 
 package org.gradle.api.internal.tasks.scala;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.google.common.io.LineProcessor;
 import com.typesafe.zinc.IncOptions;
 import com.typesafe.zinc.Inputs;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.internal.tasks.compile.CompilationFailedException;
 import org.gradle.api.internal.tasks.compile.JavaCompilerArgumentsBuilder;
@@ -32,6 +36,7 @@ import org.gradle.util.GFileUtils;
 import scala.Option;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
 
@@ -64,10 +69,13 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec>, S
             com.typesafe.zinc.Compiler compiler = ZincScalaCompilerFactory.createParallelSafeCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
             LOGGER.info("Initialized Zinc Scala compiler: {}", timer.getElapsed());
 
+            File analysisFile = spec.getScalaCompileOptions().getIncrementalOptions().getAnalysisFile();
+            discardAnalysisFromOtherLocation(analysisFile, spec.getDestinationDir());
+
             List<String> scalacOptions = new ZincScalaCompilerArgumentsGenerator().generate(spec);
             List<String> javacOptions = new JavaCompilerArgumentsBuilder(spec).includeClasspath(false).noEmptySourcePath().build();
             Inputs inputs = Inputs.create(ImmutableList.copyOf(spec.getCompileClasspath()), ImmutableList.copyOf(spec.getSource()), spec.getDestinationDir(),
-                    scalacOptions, javacOptions, spec.getScalaCompileOptions().getIncrementalOptions().getAnalysisFile(), spec.getAnalysisMap(), "mixed", getIncOptions(), true);
+                    scalacOptions, javacOptions, analysisFile, spec.getAnalysisMap(), "mixed", getIncOptions(), true);
             if (LOGGER.isDebugEnabled()) {
                 Inputs.debug(inputs, logger);
             }
@@ -87,6 +95,58 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec>, S
             return new SimpleWorkResult(true);
         }
 
+        /**
+         * The analysis file can be loaded from the build cache, and may have been created for a copy of the project in a different location.
+         * The analysis refers to source and class files using absolute paths, so Zinc would treat every source file as new and could delete the class files
+         * of the other copy. Such an analysis is discarded, and the sources are compiled from scratch. An analysis always refers to the class files in the
+         * destination directory it was created for.
+         */
+        private static void discardAnalysisFromOtherLocation(File analysisFile, File destinationDir) {
+            if (!analysisFile.isFile()) {
+                return;
+            }
+            final String classFilePrefix = destinationDir.getAbsolutePath() + File.separator;
+            boolean sameLocation;
+            try {
+                sameLocation = Files.readLines(analysisFile, Charsets.UTF_8, new LineProcessor<Boolean>() {
+                    private boolean found;
+
+                    @Override
+                    public boolean processLine(String line) {
+                        found = containsPathStartingWith(line, classFilePrefix);
+                        return !found;
+                    }
+
+                    @Override
+                    public Boolean getResult() {
+                        return found;
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!sameLocation) {
+                LOGGER.info("Discarding Zinc analysis {} created for a different destination directory.", analysisFile);
+                GFileUtils.deleteQuietly(analysisFile);
+            }
+        }
+
+        /**
+         * Returns true when the line contains a path that starts with the given prefix. A path in the analysis starts at the beginning of a line or after
+         * whitespace, so that a path of another checkout that merely ends with the prefix's directory, such as {@code /ci/work/app/...} for the prefix
+         * {@code /work/app/}, does not match.
+         */
+        private static boolean containsPathStartingWith(String line, String prefix) {
+            int index = line.indexOf(prefix);
+            while (index >= 0) {
+                if (index == 0 || Character.isWhitespace(line.charAt(index - 1))) {
+                    return true;
+                }
+                index = line.indexOf(prefix, index + 1);
+            }
+            return false;
+        }
+
         private static IncOptions getIncOptions() {
             //The values are based on what I have found in sbt-compiler-maven-plugin.googlecode.com and zinc documentation
             //Hard to say what effect they have on the incremental build
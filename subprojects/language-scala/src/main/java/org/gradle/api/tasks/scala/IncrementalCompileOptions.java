@@ -17,8 +17,8 @@
 package org.gradle.api.tasks.scala;
 
 import org.gradle.api.Incubating;
-import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
 
 import java.io.File;
 import java.io.Serializable;
@@ -38,8 +38,7 @@ public class IncrementalCompileOptions implements Serializable {
      *
      * @return the file path where which results of code analysis are to be stored
      */
-    @Input
-    // TODO:LPTR Shouldn't this be an @OutputFile instead?
+    @OutputFile
     public File getAnalysisFile() {
         return analysisFile;
     }
@@ -23,19 +23,20 @@ import org.gradle.internal.dispatch.MethodInvocation;
 import org.gradle.internal.dispatch.ProxyDispatchAdapter;
 import org.gradle.internal.dispatch.ReflectionDispatch;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @SuppressWarnings({"unchecked"})
 public class DefaultListenerManager implements ListenerManager {
     private final Map<Object, ListenerDetails> allListeners = new LinkedHashMap<Object, ListenerDetails>();
     private final Map<Object, ListenerDetails> allLoggers = new LinkedHashMap<Object, ListenerDetails>();
-    private final Map<Class<?>, EventBroadcast> broadcasters = new HashMap<Class<?>, EventBroadcast>();
+    // Updated while holding lock, but can be read without it
+    private final Map<Class<?>, EventBroadcast> broadcasters = new ConcurrentHashMap<Class<?>, EventBroadcast>();
     private final Object lock = new Object();
     private final DefaultListenerManager parent;
 
@@ -90,6 +91,15 @@ public class DefaultListenerManager implements ListenerManager {
         }
     }
 
+    public boolean hasListeners(Class<?> listenerClass) {
+        // Called for every build operation, so avoid taking the lock once the broadcaster exists
+        EventBroadcast<?> broadcaster = broadcasters.get(listenerClass);
+        if (broadcaster == null) {
+            broadcaster = getBroadcasterInternal(listenerClass);
+        }
+        return broadcaster.hasListeners();
+    }
+
     public <T> ListenerBroadcast<T> createAnonymousBroadcaster(Class<T> listenerClass) {
         ListenerBroadcast<T> broadcast = new ListenerBroadcast(listenerClass);
         broadcast.add(getBroadcasterInternal(listenerClass).getDispatch(true));
@@ -101,13 +111,14 @@ public class DefaultListenerManager implements ListenerManager {
             EventBroadcast<T> broadcaster = broadcasters.get(listenerClass);
             if (broadcaster == null) {
                 broadcaster = new EventBroadcast<T>(listenerClass);
-                broadcasters.put(listenerClass, broadcaster);
                 for (ListenerDetails listener : allListeners.values()) {
                     broadcaster.maybeAdd(listener);
                 }
                 for (ListenerDetails logger : allLoggers.values()) {
                     broadcaster.maybeSetLogger(logger);
                 }
+                // Publish once complete, as hasListeners() reads the map without holding lock
+                broadcasters.put(listenerClass, broadcaster);
             }
             return broadcaster;
         }
@@ -124,6 +135,9 @@ public class DefaultListenerManager implements ListenerManager {
         private final Class<T> type;
         private final ListenerDispatch dispatch;
         private final ListenerDispatch dispatchNoLogger;
+        private final EventBroadcast<T> parentBroadcast;
+        // Written while holding lock, read without it
+        private volatile boolean hasLocalListeners;
 
         // The following state is protected by lock
         private ProxyDispatchAdapter<T> source;
@@ -139,7 +153,10 @@ public class DefaultListenerManager implements ListenerManager {
             dispatch = new ListenerDispatch(type, true);
             dispatchNoLogger = new ListenerDispatch(type, false);
             if (parent != null) {
-                parentDispatch = parent.getBroadcasterInternal(type).getDispatch(true);
+                parentBroadcast = parent.getBroadcasterInternal(type);
+                parentDispatch = parentBroadcast.getDispatch(true);
+            } else {
+                parentBroadcast = null;
             }
         }
 
@@ -160,10 +177,15 @@ public class DefaultListenerManager implements ListenerManager {
             return source.getSource();
         }
 
+        boolean hasListeners() {
+            return hasLocalListeners || (parentBroadcast != null && parentBroadcast.hasListeners());
+        }
+
         // Must be holding lock
         private void markDirty() {
             allWithLogger = null;
             allWithNoLogger = null;
+            hasLocalListeners = !listeners.isEmpty() || logger != null;
         }
 
         // Must be holding lock
@@ -185,8 +207,8 @@ public class DefaultListenerManager implements ListenerManager {
         // Must be holding lock
         void maybeSetLogger(ListenerDetails candidate) {
             if (type.isInstance(candidate.listener)) {
-                if (logger == null && parent != null) {
-                    parentDispatch = parent.getBroadcasterInternal(type).getDispatch(false);
+                if (logger == null && parentBroadcast != null) {
+                    parentDispatch = parentBroadcast.getDispatch(false);
                 }
                 logger = candidate;
                 markDirty();
@@ -50,6 +50,14 @@ public interface ListenerManager {
      */
     void removeListener(Object listener);
 
+    /**
+     * Returns true when there is at least one listener or logger registered for the given listenerClass, in this manager or its parents.
+     * Can be used to avoid the cost of creating events when nobody receives them.
+     *
+     * @param listenerClass The type of listener.
+     */
+    boolean hasListeners(Class<?> listenerClass);
+
     /**
      * Returns a broadcaster for the given listenerClass. Any method invoked on the broadcaster is forwarded to all registered
      * listeners of the given type. This is done synchronously. Any listener method with a non-void return type will return a null.
@@ -40,6 +40,68 @@ class DefaultListenerManagerTest extends ConcurrentSpec {
         0 * _
     }
 
+    def reportsWhetherListenersAreRegisteredForType() {
+        def child = manager.createChild()
+
+        expect:
+        !manager.hasListeners(TestFooListener.class)
+        !child.hasListeners(TestFooListener.class)
+
+        when:
+        manager.addListener(fooListener1)
+
+        then:
+        manager.hasListeners(TestFooListener.class)
+        child.hasListeners(TestFooListener.class)
+        !manager.hasListeners(TestBarListener.class)
+        !child.hasListeners(TestBarListener.class)
+
+        when:
+        manager.removeListener(fooListener1)
+        child.useLogger(barListener1)
+
+        then:
+        !manager.hasListeners(TestFooListener.class)
+        !child.hasListeners(TestFooListener.class)
+        !manager.hasListeners(TestBarListener.class)
+        child.hasListeners(TestBarListener.class)
+    }
+
+    def reportsListenersAddedToAncestorsAfterTypeHasBeenQueried() {
+        def child = manager.createChild()
+        def grandChild = child.createChild()
+
+        expect:
+        !grandChild.hasListeners(TestFooListener.class)
+
+        when:
+        manager.addListener(fooListener1)
+
+        then:
+        grandChild.hasListeners(TestFooListener.class)
+
+        when:
+        manager.removeListener(fooListener1)
+        child.addListener(fooListener2)
+
+        then:
+        !manager.hasListeners(TestFooListener.class)
+        grandChild.hasListeners(TestFooListener.class)
+
+        when:
+        child.removeListener(fooListener2)
+
+        then:
+        !grandChild.hasListeners(TestFooListener.class)
+
+        when:
+        grandChild.addListener(fooListener3)
+
+        then:
+        grandChild.hasListeners(TestFooListener.class)
+        !child.hasListeners(TestFooListener.class)
+    }
+
     def cachesBroadcasters() {
         expect:
         manager.getBroadcaster(TestFooListener.class).is(manager.getBroadcaster(TestFooListener.class))
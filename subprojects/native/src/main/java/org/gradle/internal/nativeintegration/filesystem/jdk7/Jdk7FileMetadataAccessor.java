@@ -40,6 +40,10 @@ public class Jdk7FileMetadataAccessor implements FileMetadataAccessor {
             if (bfa.isDirectory()) {
                 return DefaultFileMetadata.directory();
             }
+            if (!bfa.isRegularFile()) {
+                // A socket, named pipe or device, which is neither a file nor a directory
+                return DefaultFileMetadata.missing();
+            }
             return new DefaultFileMetadata(FileType.RegularFile, bfa.lastModifiedTime().toMillis(), bfa.size());
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
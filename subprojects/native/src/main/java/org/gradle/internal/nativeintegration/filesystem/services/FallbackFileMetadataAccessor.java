@@ -31,6 +31,10 @@ public class FallbackFileMetadataAccessor implements FileMetadataAccessor {
         if (f.isDirectory()) {
             return DefaultFileMetadata.directory();
         }
+        if (!f.isFile()) {
+            // A socket, named pipe or device, which is neither a file nor a directory
+            return DefaultFileMetadata.missing();
+        }
         return DefaultFileMetadata.file(f.lastModified(), f.length());
     }
 }
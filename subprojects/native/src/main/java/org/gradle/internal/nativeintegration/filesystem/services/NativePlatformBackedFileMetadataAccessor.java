@@ -40,9 +40,9 @@ public class NativePlatformBackedFileMetadataAccessor implements FileMetadataAcc
             case Directory:
                 return DefaultFileMetadata.directory();
             case Missing:
-                return DefaultFileMetadata.missing();
             default:
-                throw new IllegalArgumentException("Unrecognised file type: " + stat.getType());
+                // Other types are sockets, named pipes or devices, which are neither files nor directories
+                return DefaultFileMetadata.missing();
         }
     }
 }
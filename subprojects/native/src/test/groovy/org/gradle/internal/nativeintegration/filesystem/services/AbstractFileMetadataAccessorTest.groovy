@@ -77,4 +77,16 @@ abstract class AbstractFileMetadataAccessorTest extends Specification {
         stat.lastModified == lastModified(file)
         stat.length == 3
     }
+
+    @Requires(TestPrecondition.UNIX_DERIVATIVE)
+    def "stats named pipe"() {
+        def pipe = tmpDir.file("pipe")
+        assert ["mkfifo", pipe.absolutePath].execute().waitFor() == 0
+
+        expect:
+        def stat = accessor.stat(pipe)
+        stat.type == FileType.Missing
+        stat.lastModified == 0
+        stat.length == 0
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.nativeintegration.filesystem.services
+
+import net.rubygrapefruit.platform.Files
+import net.rubygrapefruit.platform.Native
+import org.gradle.internal.nativeintegration.filesystem.FileMetadataAccessor
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.gradle.util.UsesNativeServices
+
+@UsesNativeServices
+// Native-platform is only used to stat files on macOS
+@Requires(TestPrecondition.MAC_OS_X)
+class NativePlatformBackedFileMetadataAccessorTest extends AbstractFileMetadataAccessorTest {
+    FileMetadataAccessor getAccessor() {
+        new NativePlatformBackedFileMetadataAccessor(Native.get(Files))
+    }
+
+    @Override
+    long lastModified(File file) {
+        return java.nio.file.Files.getLastModifiedTime(file.toPath()).toMillis()
+    }
+}
@@ -16,15 +16,19 @@
 
 package org.gradle.plugin.use.internal;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
+import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
 import org.gradle.api.internal.initialization.ScriptHandlerInternal;
 import org.gradle.api.internal.plugins.ClassloaderBackedPluginDescriptorLocator;
@@ -57,6 +61,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.gradle.util.CollectionUtils.any;
 import static org.gradle.util.CollectionUtils.collect;
@@ -67,6 +72,8 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
     private final PluginRepositoryRegistry pluginRepositoryRegistry;
     private final PluginResolutionStrategyInternal pluginResolutionStrategy;
     private final CachedClasspathTransformer cachedClasspathTransformer;
+    // This applicator is shared by all build scripts of the build, so scripts that request the same plugins share the resolved classpath
+    private final Map<String, ClassPath> pluginClassPaths = new ConcurrentHashMap<String, ClassPath>();
 
     public DefaultPluginRequestApplicator(PluginRegistry pluginRegistry, PluginResolverFactory pluginResolver, PluginRepositoryRegistry pluginRepositoryRegistry, PluginResolutionStrategyInternal pluginResolutionStrategy, CachedClasspathTransformer cachedClasspathTransformer) {
         this.pluginRegistry = pluginRegistry;
@@ -78,7 +85,7 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
 
     public void applyPlugins(final PluginRequests requests, final ScriptHandlerInternal scriptHandler, @Nullable final PluginManagerInternal target, ClassLoaderScope classLoaderScope) {
         if (requests.isEmpty()) {
-            defineScriptHandlerClassScope(scriptHandler, classLoaderScope, Collections.<PluginImplementation<?>>emptyList());
+            defineScriptHandlerClassScope(resolveScriptClassPath(scriptHandler), classLoaderScope, Collections.<PluginImplementation<?>>emptyList());
             return;
         }
 
@@ -99,9 +106,12 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
         final Map<Result, PluginId> legacyActualPluginIds = Maps.newLinkedHashMap();
         final Map<Result, PluginImplementation<?>> pluginImpls = Maps.newLinkedHashMap();
         final Map<Result, PluginImplementation<?>> pluginImplsFromOtherLoaders = Maps.newLinkedHashMap();
+        final List<Object> legacyDependencies = Lists.newArrayList();
+        ClassPath scriptClassPath = null;
 
         if (!results.isEmpty()) {
             final RepositoryHandler repositories = scriptHandler.getRepositories();
+            boolean declaresRepositories = !repositories.isEmpty();
 
             for (PluginRepository pluginRepository : pluginRepositoryRegistry.getPluginRepositories()) {
                 if (pluginRepository instanceof BackedByArtifactRepositories) {
@@ -125,7 +135,7 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
                             @Override
                             public void addLegacy(PluginId pluginId, Object dependencyNotation) {
                                 legacyActualPluginIds.put(result, pluginId);
-                                scriptHandler.addScriptClassPathDependency(dependencyNotation);
+                                legacyDependencies.add(dependencyNotation);
                             }
 
                             @Override
@@ -156,9 +166,28 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
                     });
                 }
             }
+
+            if (!legacyDependencies.isEmpty()) {
+                boolean declaresDependencies = !scriptHandler.getConfigurations().getByName(ScriptHandler.CLASSPATH_CONFIGURATION).getDependencies().isEmpty();
+                for (Object dependencyNotation : legacyDependencies) {
+                    scriptHandler.addScriptClassPathDependency(dependencyNotation);
+                }
+                // When the script declares its own repositories or dependencies the classpath is specific to the script
+                if (!declaresRepositories && !declaresDependencies) {
+                    String key = pluginClassPathKey(repoUrls, legacyDependencies);
+                    scriptClassPath = pluginClassPaths.get(key);
+                    if (scriptClassPath == null) {
+                        scriptClassPath = resolveScriptClassPath(scriptHandler);
+                        pluginClassPaths.put(key, scriptClassPath);
+                    }
+                }
+            }
         }
 
-        defineScriptHandlerClassScope(scriptHandler, classLoaderScope, pluginImplsFromOtherLoaders.values());
+        if (scriptClassPath == null) {
+            scriptClassPath = resolveScriptClassPath(scriptHandler);
+        }
+        defineScriptHandlerClassScope(scriptClassPath, classLoaderScope, pluginImplsFromOtherLoaders.values());
 
         // We're making an assumption here that the target's plugin registry is backed classLoaderScope.
         // Because we are only build.gradle files right now, this holds.
@@ -187,10 +216,26 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
         }
     }
 
-    private void defineScriptHandlerClassScope(ScriptHandlerInternal scriptHandler, ClassLoaderScope classLoaderScope, Iterable<PluginImplementation<?>> pluginsFromOtherLoaders) {
+    private ClassPath resolveScriptClassPath(ScriptHandlerInternal scriptHandler) {
         ClassPath classPath = scriptHandler.getScriptClassPath();
-        ClassPath cachedJarClassPath = cachedClasspathTransformer.transform(classPath);
-        classLoaderScope.export(cachedJarClassPath);
+        return cachedClasspathTransformer.transform(classPath);
+    }
+
+    private static String pluginClassPathKey(Iterable<String> repoUrls, Iterable<Object> dependencyNotations) {
+        List<String> key = Lists.newArrayList(repoUrls);
+        for (Object dependencyNotation : dependencyNotations) {
+            if (dependencyNotation instanceof Dependency) {
+                Dependency dependency = (Dependency) dependencyNotation;
+                key.add(Joiner.on(':').useForNull("").join(dependency.getGroup(), dependency.getName(), dependency.getVersion()));
+            } else {
+                key.add(dependencyNotation.toString());
+            }
+        }
+        return Joiner.on(',').join(key);
+    }
+
+    private void defineScriptHandlerClassScope(ClassPath classPath, ClassLoaderScope classLoaderScope, Iterable<PluginImplementation<?>> pluginsFromOtherLoaders) {
+        classLoaderScope.export(classPath);
 
         for (PluginImplementation<?> pluginImplementation : pluginsFromOtherLoaders) {
             classLoaderScope.export(pluginImplementation.asClass().getClassLoader());
@@ -28,12 +28,17 @@ import org.gradle.plugin.management.internal.PluginRequestInternal;
 import org.gradle.plugin.management.internal.InvalidPluginRequestException;
 import org.gradle.plugin.use.PluginId;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class ArtifactRepositoryPluginResolver implements PluginResolver {
     public static final String PLUGIN_MARKER_SUFFIX = ".gradle.plugin";
 
     private String name;
     private final DependencyResolutionServices resolution;
     private final VersionSelectorScheme versionSelectorScheme;
+    // The resolver is shared by all scripts of the build, and a plugin version does not change, so check each plugin marker once per build
+    private final Map<String, Boolean> markerExists = new ConcurrentHashMap<String, Boolean>();
 
     public ArtifactRepositoryPluginResolver(String name, DependencyResolutionServices resolution, VersionSelectorScheme versionSelectorScheme) {
         this.name = name;
@@ -70,7 +75,18 @@ public class ArtifactRepositoryPluginResolver implements PluginResolver {
      * Checks whether the implementation artifact exists in the backing artifact repository.
      */
     private boolean exists(PluginRequestInternal request) {
-        Dependency dependency = resolution.getDependencyHandler().create(getMarkerDependency(request));
+        Dependency markerDependency = getMarkerDependency(request);
+        String notation = getNotation(markerDependency);
+        Boolean exists = markerExists.get(notation);
+        if (exists == null) {
+            exists = resolve(markerDependency);
+            markerExists.put(notation, exists);
+        }
+        return exists;
+    }
+
+    private boolean resolve(Dependency markerDependency) {
+        Dependency dependency = resolution.getDependencyHandler().create(markerDependency);
 
         ConfigurationContainer configurations = resolution.getConfigurationContainer();
         Configuration configuration = configurations.detachedConfiguration(dependency);
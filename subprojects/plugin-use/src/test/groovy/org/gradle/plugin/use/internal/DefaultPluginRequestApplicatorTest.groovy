@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugin.use.internal
+
+import com.google.common.collect.ImmutableList
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.ConfigurationContainer
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.dsl.RepositoryHandler
+import org.gradle.api.initialization.dsl.ScriptHandler
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.initialization.ScriptHandlerInternal
+import org.gradle.api.internal.plugins.PluginManagerInternal
+import org.gradle.api.internal.plugins.PluginRegistry
+import org.gradle.internal.classpath.CachedClasspathTransformer
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.plugin.management.internal.DefaultPluginRequest
+import org.gradle.plugin.management.internal.DefaultPluginRequests
+import org.gradle.plugin.management.internal.PluginRequestInternal
+import org.gradle.plugin.management.internal.PluginRequests
+import org.gradle.plugin.management.internal.PluginResolutionStrategyInternal
+import org.gradle.plugin.repository.internal.PluginRepositoryRegistry
+import org.gradle.plugin.use.PluginId
+import org.gradle.plugin.use.resolve.internal.PluginResolution
+import org.gradle.plugin.use.resolve.internal.PluginResolutionResult
+import org.gradle.plugin.use.resolve.internal.PluginResolveContext
+import org.gradle.plugin.use.resolve.internal.PluginResolver
+import spock.lang.Specification
+
+class DefaultPluginRequestApplicatorTest extends Specification {
+    def pluginResolver = new TestPluginResolver()
+    def pluginResolverFactory = Stub(PluginResolverFactory) {
+        create() >> pluginResolver
+    }
+    def pluginRepositoryRegistry = Stub(PluginRepositoryRegistry) {
+        getPluginRepositories() >> ImmutableList.of()
+    }
+    def pluginResolutionStrategy = Stub(PluginResolutionStrategyInternal) {
+        applyTo(_) >> { PluginRequestInternal request -> request }
+    }
+    def cachedClasspathTransformer = Stub(CachedClasspathTransformer) {
+        transform(_) >> { ClassPath classPath -> classPath }
+    }
+    def target = Mock(PluginManagerInternal)
+    def applicator = new DefaultPluginRequestApplicator(Stub(PluginRegistry), pluginResolverFactory, pluginRepositoryRegistry, pluginResolutionStrategy, cachedClasspathTransformer)
+
+    def "scripts that request the same plugins share the resolved classpath"() {
+        def classPath = Stub(ClassPath)
+        def scriptHandler1 = scriptHandler()
+        def scriptHandler2 = scriptHandler()
+        def scope1 = scope()
+        def scope2 = scope()
+
+        when:
+        applicator.applyPlugins(requests("a", "b"), scriptHandler1, target, scope1)
+        applicator.applyPlugins(requests("a", "b"), scriptHandler2, target, scope2)
+
+        then:
+        1 * scriptHandler1.addScriptClassPathDependency("group:a:1.0")
+        1 * scriptHandler1.addScriptClassPathDependency("group:b:1.0")
+        1 * scriptHandler1.getScriptClassPath() >> classPath
+        1 * scope1.export(classPath)
+        1 * scriptHandler2.addScriptClassPathDependency("group:a:1.0")
+        1 * scriptHandler2.addScriptClassPathDependency("group:b:1.0")
+        0 * scriptHandler2.getScriptClassPath()
+        1 * scope2.export(classPath)
+    }
+
+    def "scripts that request different plugins do not share the resolved classpath"() {
+        def classPath1 = Stub(ClassPath)
+        def classPath2 = Stub(ClassPath)
+        def scriptHandler1 = scriptHandler()
+        def scriptHandler2 = scriptHandler()
+        def scope1 = scope()
+        def scope2 = scope()
+
+        when:
+        applicator.applyPlugins(requests("a", "b"), scriptHandler1, target, scope1)
+        applicator.applyPlugins(requests("a"), scriptHandler2, target, scope2)
+
+        then:
+        1 * scriptHandler1.getScriptClassPath() >> classPath1
+        1 * scope1.export(classPath1)
+        1 * scriptHandler2.getScriptClassPath() >> classPath2
+        1 * scope2.export(classPath2)
+    }
+
+    def "script that declares its own repositories or dependencies does not share the resolved classpath"() {
+        def classPath1 = Stub(ClassPath)
+        def classPath2 = Stub(ClassPath)
+        def classPath3 = Stub(ClassPath)
+        def scriptHandler1 = scriptHandler()
+        def scriptHandler2 = scriptHandler(true, false)
+        def scriptHandler3 = scriptHandler(false, true)
+
+        when:
+        applicator.applyPlugins(requests("a"), scriptHandler1, target, scope())
+        applicator.applyPlugins(requests("a"), scriptHandler2, target, scope())
+        applicator.applyPlugins(requests("a"), scriptHandler3, target, scope())
+
+        then:
+        1 * scriptHandler1.getScriptClassPath() >> classPath1
+        1 * scriptHandler2.getScriptClassPath() >> classPath2
+        1 * scriptHandler3.getScriptClassPath() >> classPath3
+    }
+
+    PluginRequests requests(String... ids) {
+        new DefaultPluginRequests(ids.collect { new DefaultPluginRequest(it, "1.0", true, 1, "test") } as List<PluginRequestInternal>)
+    }
+
+    ScriptHandlerInternal scriptHandler(boolean declaresRepositories = false, boolean declaresDependencies = false) {
+        def repositories = Stub(RepositoryHandler) {
+            isEmpty() >> !declaresRepositories
+        }
+        def configurations = Stub(ConfigurationContainer) {
+            getByName(ScriptHandler.CLASSPATH_CONFIGURATION) >> Stub(Configuration) {
+                getDependencies() >> Stub(DependencySet) {
+                    isEmpty() >> !declaresDependencies
+                }
+            }
+        }
+        Mock(ScriptHandlerInternal) {
+            getRepositories() >> repositories
+            getConfigurations() >> configurations
+        }
+    }
+
+    ClassLoaderScope scope() {
+        def parent = Stub(ClassLoaderScope) {
+            getExportClassLoader() >> new URLClassLoader(new URL[0], (ClassLoader) null)
+        }
+        Mock(ClassLoaderScope) {
+            getParent() >> parent
+        }
+    }
+
+    private static class TestPluginResolver implements PluginResolver {
+        @Override
+        void resolve(PluginRequestInternal pluginRequest, PluginResolutionResult result) {
+            result.found("test", new PluginResolution() {
+                @Override
+                PluginId getPluginId() {
+                    pluginRequest.id
+                }
+
+                @Override
+                void execute(PluginResolveContext context) {
+                    context.addLegacy(pluginRequest.id, "group:${pluginRequest.id.id}:${pluginRequest.version}".toString())
+                }
+            })
+        }
+    }
+}
@@ -16,6 +16,12 @@
 
 package org.gradle.plugin.use.resolve.internal
 
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.ConfigurationContainer
+import org.gradle.api.artifacts.Dependency
+import org.gradle.api.artifacts.ResolvedConfiguration
+import org.gradle.api.artifacts.dsl.DependencyHandler
+import org.gradle.api.internal.artifacts.DependencyResolutionServices
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.MavenVersionSelectorScheme
 import org.gradle.groovy.scripts.StringScriptSource
@@ -56,4 +62,29 @@ class ArtifactRepositoryPluginResolverTest extends Specification {
         then:
         1 * result.notFound("maven", "dynamic plugin versions are not supported")
     }
+
+    def "checks whether each plugin marker exists once"() {
+        def resolution = Mock(DependencyResolutionServices)
+        def dependencyHandler = Stub(DependencyHandler) {
+            create(_) >> { args -> args[0] }
+        }
+        def configurations = Mock(ConfigurationContainer)
+        def configuration = Stub(Configuration) {
+            getResolvedConfiguration() >> Stub(ResolvedConfiguration) {
+                hasError() >> false
+            }
+        }
+        def resolver = new ArtifactRepositoryPluginResolver("maven", resolution, versionSelectorScheme)
+
+        when:
+        resolver.resolve(request("plugin", "1.0"), result)
+        resolver.resolve(request("plugin", "1.0"), result)
+        resolver.resolve(request("plugin", "2.0"), result)
+
+        then:
+        _ * resolution.dependencyHandler >> dependencyHandler
+        _ * resolution.configurationContainer >> configurations
+        2 * configurations.detachedConfiguration(_) >> { Dependency dependency -> configuration }
+        3 * result.found("maven", _)
+    }
 }
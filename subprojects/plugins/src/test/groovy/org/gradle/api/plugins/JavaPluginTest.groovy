@@ -427,6 +427,18 @@ class JavaPluginTest extends AbstractProjectBuilderSpec {
         task.workingDir == project.projectDir
     }
 
+    def "lazily created tasks are included in filtered views of the task container"() {
+        given:
+        javaPlugin.apply(project)
+
+        expect:
+        project.tasks.withType(Javadoc)*.name == [JavaPlugin.JAVADOC_TASK_NAME]
+        project.tasks.withType(Javadoc).size() == 1
+        project.tasks.matching { it.name == JavaPlugin.JAVADOC_TASK_NAME }.size() == 1
+        project.tasks.matching { it.name.startsWith("build") }*.name.containsAll([JavaBasePlugin.BUILD_NEEDED_TASK_NAME, JavaBasePlugin.BUILD_DEPENDENTS_TASK_NAME])
+        project.tasks.withType(DefaultTask).asMap.keySet().containsAll([JavaBasePlugin.BUILD_NEEDED_TASK_NAME, JavaBasePlugin.BUILD_DEPENDENTS_TASK_NAME])
+    }
+
     def appliesMappingsToTasksAddedByTheBuildScript() {
         given:
         javaPlugin.apply(project);
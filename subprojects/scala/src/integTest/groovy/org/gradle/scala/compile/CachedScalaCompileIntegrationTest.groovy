@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.scala.compile
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.LocalBuildCacheFixture
+import org.gradle.integtests.fixtures.ZincScalaCompileFixture
+import org.gradle.test.fixtures.file.TestFile
+import org.junit.Rule
+import spock.lang.Unroll
+
+class CachedScalaCompileIntegrationTest extends AbstractIntegrationSpec implements LocalBuildCacheFixture {
+    @Rule public final ZincScalaCompileFixture zincScalaCompileFixture = new ZincScalaCompileFixture(executer, temporaryFolder)
+
+    def setup() {
+        setupProjectInDirectory()
+    }
+
+    def setupProjectInDirectory(TestFile project = temporaryFolder.testDirectory) {
+        project.with {
+            file('build.gradle').text = """
+                apply plugin: 'scala'
+
+                repositories {
+                    mavenCentral()
+                }
+
+                dependencies {
+                    compile 'org.scala-lang:scala-library:2.11.8'
+                }
+            """.stripIndent()
+            file('src/main/scala/Person.scala') << "class Person(val name: String)"
+            file('src/main/scala/House.scala') << "class House(val owner: Person)"
+            file('src/main/scala/Other.scala') << "class Other"
+        }
+    }
+
+    def "restores the analysis from the cache and compiles incrementally afterwards"() {
+        def person = file("build/classes/main/Person.class")
+        def house = file("build/classes/main/House.class")
+        def other = file("build/classes/main/Other.class")
+
+        given:
+        withBuildCache().succeeds 'compileScala'
+
+        when:
+        executer.expectDeprecationWarning()
+        withBuildCache().succeeds 'clean', 'compileScala'
+
+        then:
+        skippedTasks.contains(':compileScala')
+        file("build/tmp/scala/compilerAnalysis/compileScala.analysis").isFile()
+
+        when:
+        file('src/main/scala/Person.scala').text = "class Person(val name: String, val age: Int)"
+        executer.expectDeprecationWarning()
+        withBuildCache().succeeds 'compileScala'
+
+        then:
+        executedTasks.contains(':compileScala')
+        person.lastModified() != old(person.lastModified())
+        house.lastModified() != old(house.lastModified())
+        other.lastModified() == old(other.lastModified())
+    }
+
+    @Unroll
+    def "analysis restored from a different location is discarded - #location"() {
+        // A relocated checkout has a path that ends with the path of this checkout
+        def remoteProjectDir = location == "relocated checkout" ? file("relocated").file(pathWithoutRoot(temporaryFolder.testDirectory)) : file("remote-project")
+        setupProjectInDirectory(remoteProjectDir)
+        def remoteClasses = remoteProjectDir.file("build/classes/main")
+
+        given:
+        executer.inDirectory(remoteProjectDir)
+        withBuildCache().succeeds 'compileScala'
+
+        when:
+        executer.expectDeprecationWarning()
+        withBuildCache().succeeds 'compileScala'
+
+        then:
+        skippedTasks.contains(':compileScala')
+
+        when:
+        file('src/main/scala/Person.scala').text = "class Person(val name: String, val age: Int)"
+        executer.expectDeprecationWarning()
+        withBuildCache().succeeds 'compileScala'
+
+        then:
+        file("build/classes/main/Person.class").isFile()
+        file("build/classes/main/House.class").isFile()
+        file("build/classes/main/Other.class").isFile()
+        remoteClasses.file("Person.class").isFile()
+        remoteClasses.file("House.class").isFile()
+        remoteClasses.file("Other.class").isFile()
+
+        where:
+        location << ["other checkout", "relocated checkout"]
+    }
+
+    private static String pathWithoutRoot(File file) {
+        def path = file.absolutePath
+        def root = File.listRoots().find { path.startsWith(it.absolutePath) }
+        path.substring(root.absolutePath.length())
+    }
+}
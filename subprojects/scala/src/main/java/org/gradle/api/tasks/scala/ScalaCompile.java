@@ -17,12 +17,16 @@ package org.gradle.api.tasks.scala;
 
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.scala.ScalaCompileSpec;
 import org.gradle.api.internal.tasks.scala.ScalaCompilerFactory;
 import org.gradle.api.internal.tasks.scala.ScalaJavaJointCompileSpec;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.language.scala.tasks.AbstractScalaCompile;
 import org.gradle.workers.internal.WorkerDaemonFactory;
 
@@ -31,6 +35,7 @@ import javax.inject.Inject;
 /**
  * Compiles Scala source files, and optionally, Java source files.
  */
+@CacheableTask
 public class ScalaCompile extends AbstractScalaCompile {
 
     private FileCollection scalaClasspath;
@@ -43,6 +48,15 @@ public class ScalaCompile extends AbstractScalaCompile {
         super(new ScalaCompileOptions());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @PathSensitive(PathSensitivity.NAME_ONLY) // Java source files are supported, too. Therefore we should care about the names.
+    public FileTree getSource() {
+        return super.getSource();
+    }
+
     @Nested
     @Override
     public ScalaCompileOptions getScalaCompileOptions() {
@@ -31,7 +31,6 @@ import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.logging.services.LoggingServiceRegistry
 import org.gradle.internal.progress.BuildOperationExecutor
-import org.gradle.internal.progress.BuildOperationListener
 import org.gradle.internal.progress.DefaultBuildOperationExecutor
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.service.ServiceRegistryBuilder
@@ -130,12 +129,12 @@ class ToolingApiDistributionResolver {
         }
 
         BuildOperationExecutor createBuildOperationExecutor(ListenerManager listenerManager, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
-            return new ToolingApiDistributionResolverBuildOperationExecutor(listenerManager.getBroadcaster(BuildOperationListener.class), timeProvider, progressLoggerFactory);
+            return new ToolingApiDistributionResolverBuildOperationExecutor(listenerManager, timeProvider, progressLoggerFactory);
         }
 
         private static class ToolingApiDistributionResolverBuildOperationExecutor extends DefaultBuildOperationExecutor {
-            ToolingApiDistributionResolverBuildOperationExecutor(BuildOperationListener listener, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
-                super(listener, timeProvider, progressLoggerFactory);
+            ToolingApiDistributionResolverBuildOperationExecutor(ListenerManager listenerManager, TimeProvider timeProvider, ProgressLoggerFactory progressLoggerFactory) {
+                super(listenerManager, timeProvider, progressLoggerFactory);
                 createRunningRootOperation("ToolingApiDistributionResolver");
             }
         }